@@ -1,10 +1,9 @@
 package algorithms;
 
 import entities.Investment;
-import entities.Investor;
+import helpers.InvestorHeap;
 
 import java.util.List;
-import java.util.Queue;
 
 /**
  * An interface for an algorithm that can be used to find the best mapping of investments among investors
@@ -13,10 +12,11 @@ public interface AbstractAlgorithm {
 
     /**
      * The method that starts the algorithm
-     * @param investors a list of investors looking to invest
+     * @param investors a heap of investors looking to invest. An investor whose annual income changes can be moved
+     *                  to its new place with investors.update(investor)
      * @param investments a list of investments available for investors
      * @return AlgorithmResult containing the execution results
      * @throws RuntimeException if something horrible happens
      */
-    AlgorithmResult run(Queue<Investor> investors, List<Investment> investments) throws RuntimeException;
+    AlgorithmResult run(InvestorHeap investors, List<Investment> investments) throws RuntimeException;
 }
@@ -2,32 +2,46 @@ package algorithms;
 
 import entities.Investment;
 import entities.Investor;
+import helpers.InvestorHeap;
 
 import java.util.List;
-import java.util.Queue;
+import java.util.Map;
 
 /**
  * The result of the algorithm.
  */
 public class AlgorithmResult {
-    private final Queue<Investor> investors;
+    private final InvestorHeap investors;
     private final List<Investment> unusedInvestments;
+    private final Map<Investment, Map<Investor, Double>> splitFractions;
 
     /**
      * Creates a new instance of AlgorithmResult.
-     * @param investors The queue of investors.
+     * @param investors The heap of investors, ordered by their annual income.
      * @param unusedInvestments The list of unused investments.
      */
-    public AlgorithmResult(Queue<Investor> investors, List<Investment> unusedInvestments) {
+    public AlgorithmResult(InvestorHeap investors, List<Investment> unusedInvestments) {
+        this(investors, unusedInvestments, Map.of());
+    }
+
+    /**
+     * Creates a new instance of AlgorithmResult for an algorithm that splits investments among several investors.
+     * @param investors The heap of investors, ordered by their annual income.
+     * @param unusedInvestments The list of unused investments.
+     * @param splitFractions Investment ---> (investor ---> the part of the investment the investor funds).
+     */
+    public AlgorithmResult(InvestorHeap investors, List<Investment> unusedInvestments,
+                           Map<Investment, Map<Investor, Double>> splitFractions) {
         this.investors = investors;
         this.unusedInvestments = unusedInvestments;
+        this.splitFractions = splitFractions;
     }
 
     /**
-     * Returns the queue of investors
-     * @return The queue of investors
+     * Returns the heap of investors
+     * @return The heap of investors
      */
-    public Queue<Investor> getInvestors() {
+    public InvestorHeap getInvestors() {
         return investors;
     }
 
@@ -38,4 +52,13 @@ public class AlgorithmResult {
     public List<Investment> getUnusedInvestments() {
         return unusedInvestments;
     }
+
+    /**
+     * Returns how the funded investments were split among the investors. Empty for the algorithms that give every
+     * investment to a single investor as a whole.
+     * @return Investment ---> (investor ---> the part of the investment the investor funds)
+     */
+    public Map<Investment, Map<Investor, Double>> getSplitFractions() {
+        return splitFractions;
+    }
 }
@@ -0,0 +1,141 @@
+package algorithms;
+
+import entities.Investment;
+import entities.Investor;
+import helpers.InvestorHeap;
+import helpers.ProductComponents;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Decomposes the problem into the connected components of the investor-product graph and runs a separate
+ * algorithm on each component in a ForkJoin pool. An investment can only go to an investor of its own component,
+ * so the merged result is the same as running the algorithm on each component one after another.
+ *
+ * Every component gets a fresh algorithm from the supplier. The algorithm must not keep global state, as the
+ * components are processed at the same time.
+ */
+public class ComponentParallelAlgorithm implements AbstractAlgorithm {
+
+    private static final Logger logger = LoggerFactory.getLogger(ComponentParallelAlgorithm.class);
+    private final Supplier<AbstractAlgorithm> algorithmSupplier;
+    private final ForkJoinPool pool;
+
+    /**
+     * Run the components in the common ForkJoin pool
+     * @param algorithmSupplier creates the algorithm that solves a single component
+     */
+    public ComponentParallelAlgorithm(Supplier<AbstractAlgorithm> algorithmSupplier) {
+        this(algorithmSupplier, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Run the components in the given ForkJoin pool
+     * @param algorithmSupplier creates the algorithm that solves a single component
+     * @param pool the pool which to use
+     */
+    public ComponentParallelAlgorithm(Supplier<AbstractAlgorithm> algorithmSupplier, ForkJoinPool pool) {
+        this.algorithmSupplier = algorithmSupplier;
+        this.pool = pool;
+    }
+
+    /**
+     * The method that splits the problem into components, solves them in parallel and merges the results
+     * @param investors a heap of investors looking to invest
+     * @param investments a list of investments available for investors
+     * @return AlgorithmResult containing the execution results
+     * @throws RuntimeException if something horrible happens
+     */
+    @Override
+    public AlgorithmResult run(InvestorHeap investors, List<Investment> investments) throws RuntimeException {
+        logger.info("The component decomposition has started");
+        ProductComponents components = new ProductComponents(investors);
+        int count = components.getComponentCount();
+
+        List<Investor> idleInvestors = new ArrayList<>();
+        List<Investment> unusedInvestments = new ArrayList<>();
+        List<List<Investor>> componentInvestors = new ArrayList<>(count);
+        List<List<Investment>> componentInvestments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            componentInvestors.add(new ArrayList<>());
+            componentInvestments.add(new ArrayList<>());
+        }
+
+        for (Investor investor : investors) {
+            int component = components.componentOf(investor);
+            if (component == -1) idleInvestors.add(investor);
+            else componentInvestors.get(component).add(investor);
+        }
+        for (Investment investment : investments) {
+            int component = components.componentOf(investment.getProductIndex());
+            // Nobody wants the product, so there is no point in giving the investment to any algorithm
+            if (component == -1) unusedInvestments.add(investment);
+            else componentInvestments.get(component).add(investment);
+        }
+        logger.info("The problem was split into " + count + " components");
+
+        List<ComponentTask> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(new ComponentTask(componentInvestors.get(i), componentInvestments.get(i)));
+        }
+        List<AlgorithmResult> results = solve(tasks);
+
+        // Merge the results of all components
+        InvestorHeap mergedInvestors = new InvestorHeap(idleInvestors);
+        for (AlgorithmResult result : results) {
+            mergedInvestors.addAll(result.getInvestors());
+            unusedInvestments.addAll(result.getUnusedInvestments());
+        }
+        logger.info("The component decomposition has finished. Returning the merged result.");
+        return new AlgorithmResult(mergedInvestors, unusedInvestments);
+    }
+
+    /**
+     * Solve all the components. A single component is solved on the calling thread.
+     * @param tasks one task per component
+     * @return the results in the order of the tasks
+     */
+    private List<AlgorithmResult> solve(List<ComponentTask> tasks) {
+        List<AlgorithmResult> results = new ArrayList<>(tasks.size());
+        if (tasks.size() == 1) {
+            results.add(tasks.get(0).invoke());
+            return results;
+        }
+        pool.invoke(new RecursiveTask<Void>() {
+            @Override
+            protected Void compute() {
+                ForkJoinTask.invokeAll(tasks);
+                return null;
+            }
+        });
+        for (ComponentTask task : tasks) {
+            results.add(task.join());
+        }
+        return results;
+    }
+
+    /**
+     * Runs a fresh algorithm on the investors and investments of a single component
+     */
+    private class ComponentTask extends RecursiveTask<AlgorithmResult> {
+        private static final long serialVersionUID = 1L;
+        private final List<Investor> investors;
+        private final List<Investment> investments;
+
+        private ComponentTask(List<Investor> investors, List<Investment> investments) {
+            this.investors = investors;
+            this.investments = investments;
+        }
+
+        @Override
+        protected AlgorithmResult compute() {
+            return algorithmSupplier.get().run(new InvestorHeap(investors), investments);
+        }
+    }
+}
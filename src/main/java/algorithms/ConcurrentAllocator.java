@@ -0,0 +1,288 @@
+package algorithms;
+
+import entities.Investment;
+import entities.Investor;
+import entities.Order;
+import helpers.InvestorHeap;
+import helpers.ProductDictionary;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread-safe version of the OnlineAllocator for several threads submitting orders at the same time.
+ *
+ * The locks are striped by product and by investor. Every product has its own heap of the investors that want it
+ * and its own lock, and every investor has its own lock. An order only locks what its allocation touches: the
+ * investor on top of the heap of its product and the heaps of all the products that investor wants, because the new
+ * annual income moves the investor in each of them. Orders whose investors and products do not overlap are
+ * allocated in parallel, even if their products are linked through other investors.
+ *
+ * The locks are always acquired in the same order: the lock of a single investor first, then the locks of the
+ * products in ascending index order. An allocation therefore peeks at the top of the heap under the lock of the
+ * product alone, releases it, takes the locks in that order and checks that the investor is still on top. If another
+ * thread changed the heap in between, it starts again. Every order goes to the investor with the smallest annual
+ * income at the moment all its locks are held, so the allocation is the one the sequential greedy produces for the
+ * order in which the orders acquired their locks.
+ *
+ * An investor is only changed while its own lock and the locks of all the products it wants are held, and it is only
+ * compared inside the heaps of those products, so the investors need no synchronisation of their own. getResult
+ * holds all the locks.
+ */
+public class ConcurrentAllocator {
+
+    private final List<Investor> investors;
+    // Investor ---> its lock. getResult locks them in the order of the investors list.
+    private final Map<Investor, ReentrantLock> investorLocks = new IdentityHashMap<>();
+    // Product index ---> the investors that want the product, ordered by annual income, and the lock that guards them
+    private final InvestorHeap[] heaps;
+    private final ReentrantLock[] productLocks;
+    private final Map<String, Double> productInterest;
+    // Order ---> the investment made for it, funded or not, so an order cannot be submitted twice
+    private final Map<Order, Investment> investments = new ConcurrentHashMap<>();
+    private final Map<Order, Investor> holders = new ConcurrentHashMap<>();
+    private final Map<Order, Investment> unfundedInvestments = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an allocator for a group of investors
+     * @param investors The investors looking to invest
+     * @param productInterest Map of (productID, interest) pairs used to turn orders into investments
+     */
+    public ConcurrentAllocator(Collection<Investor> investors, Map<String, Double> productInterest) {
+        this(investors, List.of(), productInterest);
+    }
+
+    /**
+     * Creates an allocator that continues from the result of a batch run (e.g. of the GreedyAlgorithm)
+     * @param result The result of the batch run
+     * @param productInterest Map of (productID, interest) pairs used to turn orders into investments
+     */
+    public ConcurrentAllocator(AlgorithmResult result, Map<String, Double> productInterest) {
+        this(result.getInvestors(), result.getUnusedInvestments(), productInterest);
+    }
+
+    /**
+     * Creates an allocator for a group of investors. The investments they already hold can be withdrawn later.
+     * @param investors The investors looking to invest
+     * @param unusedInvestments The investments that were not funded so far
+     * @param productInterest Map of (productID, interest) pairs used to turn orders into investments
+     */
+    public ConcurrentAllocator(Collection<Investor> investors, Collection<Investment> unusedInvestments,
+                               Map<String, Double> productInterest) {
+        this.investors = new ArrayList<>(investors);
+        this.productInterest = productInterest;
+        // A withdrawal gives the wish back, so the products of the held investments need a heap as well
+        int productCount = ProductDictionary.countProducts(this.investors, List.of());
+        heaps = new InvestorHeap[productCount];
+        productLocks = new ReentrantLock[productCount];
+        for (int product = 0; product < productCount; product++) {
+            heaps[product] = new InvestorHeap();
+            productLocks[product] = new ReentrantLock();
+        }
+        for (Investor investor : this.investors) {
+            investorLocks.put(investor, new ReentrantLock());
+            for (int i = 0; i < investor.getWishedProductCount(); i++) {
+                heaps[investor.getWishedProduct(i)].add(investor);
+            }
+            for (Investment investment : investor.getInvestments()) {
+                investments.put(investment.getOrder(), investment);
+                holders.put(investment.getOrder(), investor);
+            }
+        }
+        for (Investment investment : unusedInvestments) {
+            investments.put(investment.getOrder(), investment);
+            unfundedInvestments.put(investment.getOrder(), investment);
+        }
+    }
+
+    /**
+     * Allocate a new order to the investor with the smallest annual income that wants its product
+     * @param order The new order
+     * @return the investor who funds the order or null if nobody wants it
+     * @throws IllegalArgumentException if the order was already submitted or its product has no interest rate
+     */
+    public Investor submit(Order order) throws IllegalArgumentException {
+        Double rate = productInterest.get(order.getProductID());
+        if (rate == null) {
+            throw new IllegalArgumentException("There is no interest rate for product " + order.getProductID());
+        }
+        Investment investment = new Investment(rate, order);
+        if (investments.putIfAbsent(order, investment) != null) {
+            throw new IllegalArgumentException("The order of " + order.getOwner().getName() + " was already submitted");
+        }
+        if (order.getProductIndex() >= heaps.length) {
+            // Nobody wants the product and nobody ever will
+            unfundedInvestments.put(order, investment);
+            return null;
+        }
+        return allocate(investment);
+    }
+
+    /**
+     * Release a previously submitted order. The investor that funded it gets the wish for the product back.
+     * @param order The order to release
+     * @return the investor who funded the order or null if it was not funded
+     * @throws IllegalArgumentException if the order was never submitted
+     */
+    public Investor withdraw(Order order) throws IllegalArgumentException {
+        if (unfundedInvestments.remove(order) != null) {
+            investments.remove(order);
+            return null;
+        }
+        Investor investor = holders.get(order);
+        if (investor == null) {
+            throw new IllegalArgumentException("The order of " + order.getOwner().getName() + " was never submitted");
+        }
+        ReentrantLock investorLock = investorLocks.get(investor);
+        investorLock.lock();
+        try {
+            // Another thread may have withdrawn the order since it was looked up
+            if (!holders.remove(order, investor)) {
+                throw new IllegalArgumentException("The order of " + order.getOwner().getName() + " was never submitted");
+            }
+            Investment investment = investments.remove(order);
+            int[] locked = lockProducts(investor, order.getProductIndex());
+            try {
+                investor.removeInvestment(investment);
+                investor.addWish(investment.getProductIndex());
+                reposition(investor);
+            } finally {
+                unlockProducts(locked);
+            }
+            return investor;
+        } finally {
+            investorLock.unlock();
+        }
+    }
+
+    /**
+     * Get the investor who currently funds an order
+     * @param order The order
+     * @return the investor or null if the order is not funded
+     */
+    public Investor getInvestor(Order order) {
+        return holders.get(order);
+    }
+
+    /**
+     * Get a consistent snapshot of the allocation. All the locks are held while the snapshot is taken.
+     * @return AlgorithmResult with all investors and the orders that could not be funded
+     */
+    public AlgorithmResult getResult() {
+        // The same order as everywhere else: the investors first, then the products in ascending order
+        for (Investor investor : investors) {
+            investorLocks.get(investor).lock();
+        }
+        for (ReentrantLock lock : productLocks) {
+            lock.lock();
+        }
+        try {
+            return new AlgorithmResult(new InvestorHeap(investors), new ArrayList<>(unfundedInvestments.values()));
+        } finally {
+            for (int product = productLocks.length - 1; product >= 0; product--) {
+                productLocks[product].unlock();
+            }
+            for (int i = investors.size() - 1; i >= 0; i--) {
+                investorLocks.get(investors.get(i)).unlock();
+            }
+        }
+    }
+
+    /**
+     * Give an investment to the investor on top of the heap of its product. The top is read under the lock of the
+     * product alone and confirmed once the locks of the investor and of its products are held.
+     * @param investment The investment to allocate
+     * @return the investor who received the investment or null if nobody wants it
+     */
+    private Investor allocate(Investment investment) {
+        int product = investment.getProductIndex();
+        while (true) {
+            Investor investor;
+            productLocks[product].lock();
+            try {
+                investor = heaps[product].peek();
+                if (investor == null) {
+                    unfundedInvestments.put(investment.getOrder(), investment);
+                    return null;
+                }
+            } finally {
+                productLocks[product].unlock();
+            }
+            ReentrantLock investorLock = investorLocks.get(investor);
+            investorLock.lock();
+            try {
+                int[] locked = lockProducts(investor, product);
+                try {
+                    if (heaps[product].peek() == investor) {
+                        investor.removeWish(product);
+                        investor.addInvestment(investment);
+                        if (!investor.hasWish(product)) {
+                            heaps[product].remove(investor);
+                        }
+                        reposition(investor);
+                        holders.put(investment.getOrder(), investor);
+                        return investor;
+                    }
+                } finally {
+                    unlockProducts(locked);
+                }
+            } finally {
+                investorLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Lock a product and all the products an investor wants, in ascending order. The lock of the investor must be
+     * held, so its wishes cannot change.
+     * @param investor The investor whose products to lock
+     * @param product The product of the order
+     * @return the locked products in ascending order
+     */
+    private int[] lockProducts(Investor investor, int product) {
+        int count = investor.getWishedProductCount();
+        int[] products = new int[count + 1];
+        int size = 0;
+        boolean added = false;
+        // The wished products are kept in ascending order, so the product only has to be merged in
+        for (int i = 0; i < count; i++) {
+            int wished = investor.getWishedProduct(i);
+            if (!added && product <= wished) {
+                if (product < wished) {
+                    products[size++] = product;
+                }
+                added = true;
+            }
+            products[size++] = wished;
+        }
+        if (!added) {
+            products[size++] = product;
+        }
+        for (int i = 0; i < size; i++) {
+            productLocks[products[i]].lock();
+        }
+        return size == products.length ? products : Arrays.copyOf(products, size);
+    }
+
+    /**
+     * Unlock the products locked by lockProducts, in reverse order
+     * @param products The locked products
+     */
+    private void unlockProducts(int[] products) {
+        for (int i = products.length - 1; i >= 0; i--) {
+            productLocks[products[i]].unlock();
+        }
+    }
+
+    /**
+     * Fix the position of the investor in the heap of every product still wanted after the annual income changed.
+     * The locks of all these products must be held.
+     * @param investor The investor that changed
+     */
+    private void reposition(Investor investor) {
+        for (int i = 0; i < investor.getWishedProductCount(); i++) {
+            heaps[investor.getWishedProduct(i)].add(investor);
+        }
+    }
+}
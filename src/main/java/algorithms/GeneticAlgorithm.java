@@ -1,87 +1,263 @@
 package algorithms;
 
+import algorithms.genetic_algorithm_extra.Checkpoint;
 import algorithms.genetic_algorithm_extra.ChromosomeType;
-import algorithms.genetic_algorithm_extra.Generator;
-import algorithms.genetic_algorithm_extra.Data;
+import algorithms.genetic_algorithm_extra.ConvergenceMonitor;
+import algorithms.genetic_algorithm_extra.ConvergenceState;
+import algorithms.genetic_algorithm_extra.IslandModel;
+import algorithms.genetic_algorithm_extra.ProblemInstance;
+import algorithms.genetic_algorithm_extra.SoftBoundaryChromosome;
+import algorithms.genetic_algorithm_extra.TelemetryRecorder;
+import algorithms.genetic_algorithm_extra.FitnessCache;
+import algorithms.genetic_algorithm_extra.GeneticAlgorithmSettings;
 import entities.Investment;
 import entities.Investor;
+import helpers.InvestorHeap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * The genetic algorithm implementation.
+ *
+ * Every run works on its own ProblemInstance, so one GeneticAlgorithm (or several of them) can run different
+ * problems at the same time, e.g. inside the ComponentParallelAlgorithm. A run does not change the investors it is
+ * given: the result holds copies of them that received the allocation. The checkpoint file of a run is named after
+ * the fingerprint of its problem, so runs of different problems that share the settings never share the file.
  */
 public class GeneticAlgorithm implements AbstractAlgorithm {
 
     private static final Logger logger = LoggerFactory.getLogger(GreedyAlgorithm.class);
+    // The checkpoint files of the runs in progress in this process
+    private static final Set<Path> checkpointsInUse = ConcurrentHashMap.newKeySet();
     private final ChromosomeType chromosomeType;
     private final boolean minimisationAlgorithm;
-
-    // HYPER PARAMETERS
-    private static final int populationSize = 200;
-    private static final int minGenerations = 200;
-    private static final int maxGenerations = 200;
-    private static final double mutationRate = 0.05;
+    private final GeneticAlgorithmSettings settings;
 
     public GeneticAlgorithm(ChromosomeType chromosomeType, boolean minimisation) {
+        this(chromosomeType, minimisation, new GeneticAlgorithmSettings());
+    }
+
+    /**
+     * Create a genetic algorithm with custom hyperparameters and execution settings
+     * @param chromosomeType the type of the chromosomes
+     * @param minimisation if this is a minimisation problem or maximisation
+     * @param settings the hyperparameters, the parallelism and the seed
+     */
+    public GeneticAlgorithm(ChromosomeType chromosomeType, boolean minimisation, GeneticAlgorithmSettings settings) {
         this.chromosomeType = chromosomeType;
         this.minimisationAlgorithm = minimisation;
+        this.settings = settings;
     }
 
     /**
      * The method that looks for a solution using an evolutionary algorithm
-     * @param investors a queue of investors looking to invest
+     * @param investors a heap of investors looking to invest
      * @param investments a list of investments available for investors
      * @return AlgorithmResult containing the execution results
      * @throws RuntimeException if something horrible happens
      */
     @Override
-    public AlgorithmResult run(Queue<Investor> investors, List<Investment> investments) throws RuntimeException{
+    public AlgorithmResult run(InvestorHeap investors, List<Investment> investments) throws RuntimeException{
         logger.info("The genetic algorithm has started");
 
+        // The investors and investments of this run with constant IDs, shared by everything the run creates
+        ProblemInstance problem = initialiseProblem(investors, investments);
+        // The fitness of the population is calculated in parallel unless a single thread was asked for
+        ForkJoinPool pool = settings.getPool();
+        boolean ownPool = pool == null && settings.getParallelism() > 1;
+        if (ownPool) {
+            pool = new ForkJoinPool(settings.getParallelism());
+        }
+        try {
+            return evolve(problem, pool);
+        } finally {
+            if (ownPool) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Create the islands and claim the checkpoint file of a run, then run the evolutionary cycle
+     * @param problem the investors and investments of this run
+     * @param pool the pool that calculates the fitness of the population or null to calculate it on this thread
+     * @return AlgorithmResult containing the execution results
+     */
+    private AlgorithmResult evolve(ProblemInstance problem, ForkJoinPool pool) {
+        ConvergenceMonitor monitor = new ConvergenceMonitor(settings, minimisationAlgorithm);
+        // Initialise the islands (a single one by default), each with a generator and a population with known fitness
+        IslandModel islands = new IslandModel(problem, settings, chromosomeType, minimisationAlgorithm, pool);
+        Path checkpoint = getCheckpointPath(problem);
+        if (checkpoint != null && !checkpointsInUse.add(checkpoint)) {
+            // The same problem is already running with the same settings, and two runs must not share one file
+            logger.error("The checkpoint " + checkpoint + " is used by another run, running without checkpoints");
+            checkpoint = null;
+        }
+        try {
+            return evolve(problem, islands, monitor, checkpoint);
+        } finally {
+            if (checkpoint != null) {
+                checkpointsInUse.remove(checkpoint);
+            }
+        }
+    }
+
+    /**
+     * Get the checkpoint file of a run: the file of the settings with the fingerprint of the problem added to its
+     * name, e.g. run-00c0ffee00c0ffee.checkpoint for run.checkpoint
+     * @param problem the investors and investments of this run
+     * @return the path or null if no checkpoints are written
+     */
+    private Path getCheckpointPath(ProblemInstance problem) {
+        Path path = settings.getCheckpointPath();
+        if (path == null) {
+            return null;
+        }
+        String name = path.getFileName().toString();
+        String fingerprint = String.format("%016x", problem.getFitnessKernel().getFingerprint());
+        int dot = name.lastIndexOf('.');
+        String runName = dot > 0 ? name.substring(0, dot) + "-" + fingerprint + name.substring(dot)
+                : name + "-" + fingerprint;
+        return path.toAbsolutePath().resolveSibling(runName).normalize();
+    }
+
+    /**
+     * Run the evolutionary cycle, resuming from the checkpoint if it exists
+     * @param problem the investors and investments of this run
+     * @param islands the islands of this run
+     * @param monitor the convergence monitor of this run
+     * @param checkpoint the checkpoint file of this run or null
+     * @return AlgorithmResult containing the execution results
+     */
+    private AlgorithmResult evolve(ProblemInstance problem, IslandModel islands, ConvergenceMonitor monitor,
+                                   Path checkpoint) {
         int generationCount = 0;
-        // Save investors and investments to a singleton data structure for global access
-        initialiseData(investors, investments);
-        // Initialise a generator that will facilitate the genetic algorithm execution
-        Generator generator = new Generator(populationSize, chromosomeType, minimisationAlgorithm);
-        // Calculate the initial fitness of the population
-        generator.getPopulation().calculateAllFitness();
-
-        while (generationCount < maxGenerations || generator.getFittestChromosomeAllocations() == null) {
-            logger.info("Performing operations of generation " + generationCount);
-            generationCount++;
-            // Perform selection
-            generator.selection();
-            // Perform crossover
-            generator.crossover();
-            // Perform mutation
-            generator.mutation(mutationRate);
-            // Add the fittest offspring to the population in the place of the weakest entry
-            generator.addOffSpring();
-            // Calculate new fitness value
-            generator.getPopulation().calculateAllFitness();
+        int restarts = 0;
+        if (checkpoint != null && Files.exists(checkpoint)) {
+            try {
+                Checkpoint resumed = Checkpoint.restore(checkpoint, islands, monitor);
+                generationCount = resumed.getGeneration();
+                restarts = resumed.getRestarts();
+                logger.info("Resumed from the checkpoint of generation " + generationCount);
+            } catch (IOException exception) {
+                logger.error("Could not resume from the checkpoint, starting from scratch", exception);
+            }
+        }
+        int lastCheckpoint = generationCount;
+        TelemetryRecorder telemetry = settings.getTelemetrySink() == null ? null
+                : new TelemetryRecorder(settings.getTelemetrySink(), islands);
+
+        // At least one generation runs, so there is always a fittest chromosome
+        ConvergenceState state = ConvergenceState.RUNNING;
+        while (state == ConvergenceState.RUNNING) {
+            int generations = islands.getGenerationsUntilMigration(generationCount);
+            logger.info("Performing operations of generations " + generationCount + " to " + (generationCount + generations - 1));
+            // Every island performs selection, crossover, mutation and replaces its weakest entry with the offspring
+            if (telemetry == null) {
+                islands.evolve(generations);
+            } else {
+                // The islands draw from their own random number generators, so smaller steps give the same run
+                for (int done = 0; done < generations; ) {
+                    int step = Math.min(settings.getTelemetryInterval(), generations - done);
+                    islands.evolve(step);
+                    done += step;
+                    telemetry.record(generationCount + done, islands);
+                }
+            }
+            generationCount += generations;
+            monitor.record(generationCount, islands.getFittestChromosomeFitness());
+            // The diversity costs a pass over all genes, so it is only calculated if it is checked
+            double diversity = settings.getMinDiversity() > 0 ? islands.getDiversity() : 1;
+            state = monitor.check(generationCount, diversity);
+            if ((state == ConvergenceState.STAGNATED || state == ConvergenceState.DIVERSITY_LOST)
+                    && restarts < settings.getMaxRestarts()) {
+                restarts++;
+                logger.info("The search has " + state + " after " + generationCount + " generations. Restart " + restarts);
+                islands.restart();
+                monitor.restart(generationCount);
+                state = ConvergenceState.RUNNING;
+            } else if (state == ConvergenceState.RUNNING) {
+                // Exchange the best chromosomes between the islands
+                islands.migrate();
+            }
+            if (checkpoint != null && state == ConvergenceState.RUNNING
+                    && generationCount - lastCheckpoint >= settings.getCheckpointInterval()) {
+                writeCheckpoint(checkpoint, islands, monitor, generationCount, restarts);
+                lastCheckpoint = generationCount;
+            }
+        }
+        if (checkpoint != null) {
+            deleteCheckpoint(checkpoint);
+        }
+        if (telemetry != null) {
+            settings.getTelemetrySink().flush();
         }
 
         // Once the algorithm is finished, get the fittest child from the population, process it and return it
-        logger.info("The genetic algorithm has run for " + generationCount + " times. It is now finished");
-        AlgorithmResult result = processResults(generator.getFittestChromosomeAllocations(), generator.getFittestChromosomeFitness());
+        logger.info("The genetic algorithm has run for " + generationCount + " times (" + state + "). It is now finished");
+        if (islands.getFitnessCache() != null) {
+            FitnessCache cache = islands.getFitnessCache();
+            logger.info("Fitness cache: " + cache.getHits() + " hits, " + cache.getMisses() + " misses, "
+                    + cache.getEvictions() + " evictions");
+        }
+        AlgorithmResult result;
+        if (islands.getFittestChromosome() instanceof SoftBoundaryChromosome) {
+            result = processSplitResults(problem, (SoftBoundaryChromosome) islands.getFittestChromosome());
+        } else {
+            result = processResults(problem, islands.getFittestChromosomeAllocations(), islands.getFittestChromosomeFitness());
+        }
         logger.info("Returning the results");
         return result;
     }
 
     /**
-     * Used to process the results obtained from the Genetic algorithm and return in an appropriate format
+     * Write a checkpoint of the run. A failed checkpoint does not stop the run.
+     * @param checkpoint the file of the checkpoint
+     * @param islands the islands
+     * @param monitor the monitor of the run
+     * @param generationCount the number of generations that have run
+     * @param restarts the number of restarts that have happened
+     */
+    private void writeCheckpoint(Path checkpoint, IslandModel islands, ConvergenceMonitor monitor, int generationCount,
+                                 int restarts) {
+        try {
+            Checkpoint.write(checkpoint, islands, monitor, generationCount, restarts);
+        } catch (IOException exception) {
+            logger.error("Could not write the checkpoint of generation " + generationCount, exception);
+        }
+    }
+
+    /**
+     * Delete the checkpoint of a finished run, so that the next run does not resume from it
+     * @param checkpoint the file of the checkpoint
+     */
+    private void deleteCheckpoint(Path checkpoint) {
+        try {
+            Files.deleteIfExists(checkpoint);
+        } catch (IOException exception) {
+            logger.error("Could not delete the checkpoint " + checkpoint, exception);
+        }
+    }
+
+    /**
+     * Used to process the results obtained from the Genetic algorithm and return in an appropriate format. The
+     * investments are given to copies of the investors.
+     * @param problem the investors and investments of this run
      * @param slots The chromosome that won the genetic battle
      * @param fitness The fitness of that chromosome
      * @return AlgorithmResult for representation
      */
-    private AlgorithmResult processResults(int[] slots, double fitness) {
+    private AlgorithmResult processResults(ProblemInstance problem, int[] slots, double fitness) {
         logger.info("Processing the results");
-        Data data = Data.getInstance();
-        Map<Integer, Investor> investorMap = data.getInvestorMap();
-        Map<Integer, Investment> investmentMap = data.getInvestmentMap();
+        Map<Integer, Investor> investorMap = copyInvestors(problem);
+        Map<Integer, Investment> investmentMap = problem.getInvestmentMap();
 
         // This can be uncommented to get a better explanation of the results
         // printExplanation(slots, fitness, investorMap, investmentMap);
@@ -95,37 +271,72 @@ public class GeneticAlgorithm implements AbstractAlgorithm {
                 investorMap.get(slots[i]).addInvestment(investmentMap.get(i));
             }
         }
-        Queue<Investor> investors = new PriorityQueue<>();
-        for(Integer i : investorMap.keySet()) {
-            investors.add(investorMap.get(i));
-        }
+        InvestorHeap investors = new InvestorHeap(investorMap.values());
         logger.info("Results were successfully processed");
         return new AlgorithmResult(investors, unused);
     }
 
     /**
-     * Used to initialise the singleton structure that will hold references to the maps.
-     * @param investors Queue of investors which to turn into a map
-     * @param investments List of investments which to turn into a map
+     * Copy the investors of a run, so that the result does not change the investors the run was given. Concurrent
+     * runs may share the same investor objects.
+     * @param problem the investors and investments of this run
+     * @return ID ---> a copy of the investor
      */
-    private void initialiseData(Queue<Investor> investors, List<Investment> investments){
-        // Two maps with constant IDs. The internals of both maps never change during the execution of the algorithm
-        logger.info("Initialising a Data singleton that will hold investor and investment maps");
-        Map<Integer, Investment> investmentMap = new HashMap<>();
-        Map<Integer, Investor> investorMap = new HashMap<>();
-
-        List<Investor> inv = new ArrayList<>(investors);
-        for(int i = 0; i < inv.size(); i ++) {
-            investorMap.put(i, inv.get(i));
+    private Map<Integer, Investor> copyInvestors(ProblemInstance problem) {
+        Map<Integer, Investor> copies = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Investor> entry : problem.getInvestorMap().entrySet()) {
+            copies.put(entry.getKey(), new Investor(entry.getValue()));
         }
+        return copies;
+    }
+
+    /**
+     * Used to process the fractions of a SoftBoundaryChromosome. Every copy of an investor funds its fraction of the
+     * investments and the investments that nobody funds are unused.
+     * @param problem the investors and investments of this run
+     * @param chromosome The chromosome that won the genetic battle
+     * @return AlgorithmResult with the split fractions of every funded investment
+     */
+    private AlgorithmResult processSplitResults(ProblemInstance problem, SoftBoundaryChromosome chromosome) {
+        logger.info("Processing the split results");
+        Map<Integer, Investor> investorMap = copyInvestors(problem);
+        Map<Integer, Investment> investmentMap = problem.getInvestmentMap();
 
-        for(int i = 0; i < investments.size(); i++) {
-            investmentMap.put(i, investments.get(i));
+        List<Investment> unused = new ArrayList<>();
+        Map<Investment, Map<Investor, Double>> splitFractions = new LinkedHashMap<>();
+        for (int i = 0; i < chromosome.getLength(); i++) {
+            Investment investment = investmentMap.get(i);
+            Map<Investor, Double> fractions = new LinkedHashMap<>();
+            for (int j = 0; j < chromosome.getInvestorCount(); j++) {
+                double fraction = chromosome.getFraction(i, j);
+                if (fraction > 0) {
+                    investorMap.get(j).addInvestment(investment, fraction);
+                    fractions.put(investorMap.get(j), fraction);
+                }
+            }
+            if (fractions.isEmpty()) {
+                unused.add(investment);
+            } else {
+                splitFractions.put(investment, fractions);
+            }
         }
+        InvestorHeap investors = new InvestorHeap(investorMap.values());
+        logger.info("Results were successfully processed");
+        return new AlgorithmResult(investors, unused, splitFractions);
+    }
 
-        Data data = Data.getInstance();
-        data.initialise(investorMap, investmentMap);
-        logger.info("The Data singleton ahs been successfully initialised");
+    /**
+     * Used to create the problem of this run that will hold the maps.
+     * @param investors Heap of investors which to turn into a map
+     * @param investments List of investments which to turn into a map
+     * @return the problem of this run
+     */
+    private ProblemInstance initialiseProblem(InvestorHeap investors, List<Investment> investments){
+        // Two maps with constant IDs. The internals of both maps never change during the execution of the algorithm
+        logger.info("Creating a problem instance that will hold investor and investment maps");
+        ProblemInstance problem = new ProblemInstance(new ArrayList<>(investors), investments);
+        logger.info("The problem instance has been successfully created");
+        return problem;
     }
 
     /**
@@ -1,7 +1,10 @@
 package algorithms;
 
+import algorithms.greedy_algorithm_extra.ProductInvestorIndex;
 import entities.Investment;
 import entities.Investor;
+import helpers.InvestmentSorter;
+import helpers.InvestorHeap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,11 +15,11 @@ import java.util.*;
  * Implemented as the initial MVP for the assignment.
  *
  * The greedy approach: sort all investments from the most costly to the least, loop through all the investments and
- * look for an investor that would be interested in the investment. After each investment is allocated to some investor,
- * sort the list of investors so that the ones that have the lowest annual income are first to get their hand onto the
- * next investment.
+ * give each one to the investor with the lowest annual income that would be interested in it. The investors are kept
+ * in one heap per product (ProductInvestorIndex), so the right investor is found with a single lookup.
  *
- * The time complexity though is quite large: O(n log n) on average and O(n^2 log n) in the worst case.
+ * The time complexity is O(m log m + m * p * log n), where m is the number of investments, n is the number of
+ * investors and p is the number of different products a single investor wants (a small constant in practice).
  */
 public class GreedyAlgorithm implements AbstractAlgorithm {
 
@@ -25,41 +28,33 @@ public class GreedyAlgorithm implements AbstractAlgorithm {
 
     /**
      * The method that does the greedy search for a solution
-     * @param investors a queue of investors looking to invest
+     * @param investors a heap of investors looking to invest
      * @param investments a list of investments available for investors
      * @return AlgorithmResult containing the execution results
      * @throws RuntimeException if something horrible happens
      */
     @Override
-    public AlgorithmResult run(Queue<Investor> investors, List<Investment> investments) {
+    public AlgorithmResult run(InvestorHeap investors, List<Investment> investments) {
         logger.info("The greedy algorithm has started");
         List<Investment> unusedInvestments = new LinkedList<>();
 
         // Sort investments by the amount of money they require (the most expensive at the beginning)
-        Collections.sort(investments);
+        InvestmentSorter.sort(investments);
         if(debugMode) printInvestments(investments);
+        // One heap of interested investors per product, so each investment needs a single lookup
+        ProductInvestorIndex index = new ProductInvestorIndex(investors);
         // For each investment find an investor
         for (Investment investment : investments) {
-            boolean assigned = false;
             if(debugMode) printInvestors(investors);
-            Stack<Investor> tempInvestorStack = new Stack<>();
-            while (!investors.isEmpty()) {
-                Investor investor = investors.poll();
-                if(debugMode) System.out.println("Considering investor " + investor.getName());
-                tempInvestorStack.push(investor);
-                if (investor.getWishlist().contains(investment.getProductID())) {
-                    // Add investment to the investor's portfolio and remove from the wishlist
-                    investor.removeWish(investment.getProductID());
-                    investor.addInvestment(investment);
-                    assigned = true;
-                    if(debugMode) System.out.println("The investor wanted the investment with annual interest: " + investment.getAnnualYield());
-                    break;
-                }
-                if(debugMode) System.out.println("The investor did not want the investment");
+            Investor investor = index.allocate(investment);
+            if (investor == null) {
+                unusedInvestments.add(investment);
+                if(debugMode) System.out.println("Nobody wanted the investment with annual interest: " + investment.getAnnualYield());
             }
-            if (!assigned) unusedInvestments.add(investment);
-            while(!tempInvestorStack.isEmpty()) {
-                investors.add(tempInvestorStack.pop());
+            else {
+                // The annual income of the investor grew, so it moves down in the heap of all investors
+                investors.update(investor);
+                if(debugMode) System.out.println("Investor " + investor.getName() + " received the investment with annual interest: " + investment.getAnnualYield());
             }
         }
         logger.info("The greedy algorithm has finished. Returning the result.");
@@ -0,0 +1,382 @@
+package algorithms;
+
+import entities.Investment;
+import entities.Investor;
+import helpers.InvestorHeap;
+import helpers.MathOperator;
+import helpers.ProductDictionary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * An optional refinement stage that runs after another algorithm (e.g. the GreedyAlgorithm or the GeneticAlgorithm).
+ *
+ * The local search tries to move an investment to another eligible investor and to swap two investments between two
+ * investors. A change is accepted if it lowers the standard deviation of the investors' average incomes, which is the
+ * fitness the HardBoundaryChromosome uses. The search keeps the running sum and sum of squares of those incomes, so a
+ * single candidate change is scored in O(1) instead of recalculating the deviation over all investors.
+ *
+ * Only valid changes are considered: an investor receives an investment only if the product is still on the wishlist.
+ */
+public class LocalSearchAlgorithm implements AbstractAlgorithm {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalSearchAlgorithm.class);
+    private static final int defaultMaxPasses = 50;
+    private final AbstractAlgorithm initialAlgorithm;
+    private final int maxPasses;
+
+    /**
+     * Refine the result of another algorithm
+     * @param initialAlgorithm the algorithm that produces the initial allocation
+     */
+    public LocalSearchAlgorithm(AbstractAlgorithm initialAlgorithm) {
+        this(initialAlgorithm, defaultMaxPasses);
+    }
+
+    /**
+     * Refine the result of another algorithm
+     * @param initialAlgorithm the algorithm that produces the initial allocation
+     * @param maxPasses the maximum number of passes over all investments
+     */
+    public LocalSearchAlgorithm(AbstractAlgorithm initialAlgorithm, int maxPasses) {
+        this.initialAlgorithm = initialAlgorithm;
+        this.maxPasses = maxPasses;
+    }
+
+    /**
+     * Run the initial algorithm and refine its result
+     * @param investors a heap of investors looking to invest
+     * @param investments a list of investments available for investors
+     * @return AlgorithmResult containing the execution results
+     * @throws RuntimeException if something horrible happens
+     */
+    @Override
+    public AlgorithmResult run(InvestorHeap investors, List<Investment> investments) throws RuntimeException {
+        AlgorithmResult result = initialAlgorithm.run(investors, investments);
+        refine(result.getInvestors());
+        return result;
+    }
+
+    /**
+     * Refine an existing allocation in place. The investors' portfolios and wishlists are updated. If the investors
+     * are kept in an InvestorHeap, the investors whose annual income changed are moved to their new place in it.
+     * @param investors the investors holding the investments
+     */
+    public void refine(Collection<Investor> investors) {
+        logger.info("The local search has started");
+        Search search = new Search(investors);
+        double before = search.getStandardDeviation();
+        int moves = search.run(maxPasses);
+        if (investors instanceof InvestorHeap) {
+            search.updatePositions((InvestorHeap) investors);
+        }
+        logger.info("The local search has finished after " + moves + " changes. The standard deviation went from "
+                + before + " to " + search.getStandardDeviation());
+    }
+
+    /**
+     * The state of a single local search. The allocation is held in primitive arrays that are updated together
+     * with the investors whenever a change is accepted.
+     */
+    private static final class Search {
+        private final Investor[] investors;
+        private final Investment[] investments;
+        private final int[] products;
+        private final double[] yields;
+        private final int[] owner;
+        // Investor ---> the sum of the annual yields and the number of investments
+        private final double[] sums;
+        private final int[] counts;
+        // Investor ---> true if the portfolio changed during the search
+        private final boolean[] changed;
+        // Investor ---> indices of the held investments, investment ---> its position in that array
+        private final int[][] held;
+        private final int[] heldCount;
+        private final int[] heldPosition;
+        // Product ---> investors that want or hold the product
+        private final int[][] eligible;
+        private double sum;
+        private double sumOfSquares;
+        private double variance;
+
+        private Search(Collection<Investor> investorCollection) {
+            investors = investorCollection.toArray(new Investor[0]);
+            int n = investors.length;
+            List<Investment> investmentList = new ArrayList<>();
+            for (Investor investor : investors) {
+                investmentList.addAll(investor.getInvestments());
+            }
+            investments = investmentList.toArray(new Investment[0]);
+            int m = investments.length;
+            products = new int[m];
+            yields = new double[m];
+            owner = new int[m];
+            heldPosition = new int[m];
+            sums = new double[n];
+            counts = new int[n];
+            changed = new boolean[n];
+            held = new int[n][];
+            heldCount = new int[n];
+
+            int productCount = ProductDictionary.countProducts(investorCollection, investmentList);
+            List<Set<Integer>> eligibleSets = new ArrayList<>(productCount);
+            for (int p = 0; p < productCount; p++) {
+                eligibleSets.add(new LinkedHashSet<>());
+            }
+            int k = 0;
+            for (int i = 0; i < n; i++) {
+                Investor investor = investors[i];
+                held[i] = new int[Math.max(4, investor.getInvestments().size())];
+                for (Investment investment : investor.getInvestments()) {
+                    products[k] = investment.getProductIndex();
+                    yields[k] = investment.getAnnualYield();
+                    owner[k] = i;
+                    addHeld(i, k);
+                    sums[i] += yields[k];
+                    counts[i]++;
+                    eligibleSets.get(products[k]).add(i);
+                    k++;
+                }
+                for (int w = 0; w < investor.getWishedProductCount(); w++) {
+                    eligibleSets.get(investor.getWishedProduct(w)).add(i);
+                }
+            }
+            eligible = new int[productCount][];
+            for (int p = 0; p < productCount; p++) {
+                eligible[p] = eligibleSets.get(p).stream().mapToInt(Integer::intValue).toArray();
+            }
+            recalculateTotals();
+        }
+
+        /**
+         * Run passes over all investments until no change improves the deviation
+         * @param maxPasses the maximum number of passes
+         * @return the number of accepted changes
+         */
+        private int run(int maxPasses) {
+            int accepted = 0;
+            for (int pass = 0; pass < maxPasses; pass++) {
+                // Start every pass from exact totals, so that rounding errors do not pile up
+                recalculateTotals();
+                boolean improved = false;
+                for (int k = 0; k < investments.length; k++) {
+                    if (tryMove(k) || trySwap(k)) {
+                        improved = true;
+                        accepted++;
+                    }
+                }
+                if (!improved) {
+                    break;
+                }
+            }
+            recalculateTotals();
+            return accepted;
+        }
+
+        /**
+         * Try to move an investment to another investor that wants its product
+         * @param k the investment
+         * @return true if a move was accepted
+         */
+        private boolean tryMove(int k) {
+            int from = owner[k];
+            int product = products[k];
+            double yield = yields[k];
+            double fromOld = value(from);
+            double fromNew = counts[from] == 1 ? 0 : (sums[from] - yield) / (counts[from] - 1);
+            for (int to : eligible[product]) {
+                if (to == from || investors[to].getWishCount(product) == 0) {
+                    continue;
+                }
+                double toOld = value(to);
+                double toNew = (sums[to] + yield) / (counts[to] + 1);
+                if (improves(fromOld, fromNew, toOld, toNew)) {
+                    move(k, to);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Try to swap an investment with an investment of another investor
+         * @param k the investment
+         * @return true if a swap was accepted
+         */
+        private boolean trySwap(int k) {
+            int one = owner[k];
+            int product = products[k];
+            double yield = yields[k];
+            double oneOld = value(one);
+            for (int two : eligible[product]) {
+                if (two == one) {
+                    continue;
+                }
+                double twoOld = value(two);
+                for (int h = 0; h < heldCount[two]; h++) {
+                    int l = held[two][h];
+                    int otherProduct = products[l];
+                    // Both investors must be able to take the investment of the other one
+                    if (otherProduct != product && (investors[two].getWishCount(product) == 0
+                            || investors[one].getWishCount(otherProduct) == 0)) {
+                        continue;
+                    }
+                    double difference = yields[l] - yield;
+                    double oneNew = (sums[one] + difference) / counts[one];
+                    double twoNew = (sums[two] - difference) / counts[two];
+                    if (improves(oneOld, oneNew, twoOld, twoNew)) {
+                        swap(k, l);
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Score a change of the average incomes of two investors in O(1)
+         * @param oneOld the current average income of the first investor
+         * @param oneNew the average income of the first investor after the change
+         * @param twoOld the current average income of the second investor
+         * @param twoNew the average income of the second investor after the change
+         * @return true if the change lowers the variance
+         */
+        private boolean improves(double oneOld, double oneNew, double twoOld, double twoNew) {
+            double newSum = sum - oneOld - twoOld + oneNew + twoNew;
+            double newSumOfSquares = sumOfSquares - oneOld * oneOld - twoOld * twoOld + oneNew * oneNew + twoNew * twoNew;
+            double newVariance = MathOperator.getVariance(newSum, newSumOfSquares, investors.length);
+            return newVariance < variance - 1e-9 * (1 + variance);
+        }
+
+        /**
+         * Give an investment to another investor, updating both the arrays and the investors
+         * @param k the investment
+         * @param to the new owner
+         */
+        private void move(int k, int to) {
+            int from = owner[k];
+            investors[from].removeInvestment(investments[k]);
+            investors[from].addWish(products[k]);
+            investors[to].removeWish(products[k]);
+            investors[to].addInvestment(investments[k]);
+            reassign(k, to);
+        }
+
+        /**
+         * Exchange two investments between their owners, updating both the arrays and the investors
+         * @param k the first investment
+         * @param l the second investment
+         */
+        private void swap(int k, int l) {
+            int one = owner[k];
+            int two = owner[l];
+            investors[one].removeInvestment(investments[k]);
+            investors[two].removeInvestment(investments[l]);
+            // Give the wishes back before using them, so that a swap within the same product changes nothing
+            investors[one].addWish(products[k]);
+            investors[two].addWish(products[l]);
+            investors[one].removeWish(products[l]);
+            investors[two].removeWish(products[k]);
+            investors[one].addInvestment(investments[l]);
+            investors[two].addInvestment(investments[k]);
+            reassign(k, two);
+            reassign(l, one);
+        }
+
+        /**
+         * Update the arrays and the running totals after an investment changed its owner
+         * @param k the investment
+         * @param to the new owner
+         */
+        private void reassign(int k, int to) {
+            int from = owner[k];
+            double fromOld = value(from);
+            double toOld = value(to);
+
+            sums[from] -= yields[k];
+            counts[from]--;
+            sums[to] += yields[k];
+            counts[to]++;
+            removeHeld(from, k);
+            addHeld(to, k);
+            owner[k] = to;
+            changed[from] = true;
+            changed[to] = true;
+
+            double fromNew = value(from);
+            double toNew = value(to);
+            sum += fromNew + toNew - fromOld - toOld;
+            sumOfSquares += fromNew * fromNew + toNew * toNew - fromOld * fromOld - toOld * toOld;
+            variance = MathOperator.getVariance(sum, sumOfSquares, investors.length);
+        }
+
+        /**
+         * Get the average income of an investor, as the HardBoundaryChromosome calculates it
+         * @param investor the investor
+         * @return the average annual yield of the investments or 0 if there are none
+         */
+        private double value(int investor) {
+            return counts[investor] == 0 ? 0 : sums[investor] / counts[investor];
+        }
+
+        /**
+         * Add an investment to the held investments of an investor
+         * @param investor the investor
+         * @param k the investment
+         */
+        private void addHeld(int investor, int k) {
+            if (heldCount[investor] == held[investor].length) {
+                held[investor] = Arrays.copyOf(held[investor], heldCount[investor] * 2);
+            }
+            heldPosition[k] = heldCount[investor];
+            held[investor][heldCount[investor]++] = k;
+        }
+
+        /**
+         * Remove an investment from the held investments of an investor
+         * @param investor the investor
+         * @param k the investment
+         */
+        private void removeHeld(int investor, int k) {
+            int last = held[investor][--heldCount[investor]];
+            held[investor][heldPosition[k]] = last;
+            heldPosition[last] = heldPosition[k];
+        }
+
+        /**
+         * Move every investor whose portfolio changed to its new place in the heap
+         * @param heap the heap that holds the investors
+         */
+        private void updatePositions(InvestorHeap heap) {
+            for (int i = 0; i < investors.length; i++) {
+                if (changed[i]) {
+                    heap.update(investors[i]);
+                }
+            }
+        }
+
+        /**
+         * Recalculate the running totals and the variance from scratch
+         */
+        private void recalculateTotals() {
+            sum = 0;
+            sumOfSquares = 0;
+            for (int i = 0; i < investors.length; i++) {
+                double value = value(i);
+                sum += value;
+                sumOfSquares += value * value;
+            }
+            variance = MathOperator.getVariance(sum, sumOfSquares, investors.length);
+        }
+
+        /**
+         * Get the current standard deviation of the average incomes
+         * @return the standard deviation
+         */
+        private double getStandardDeviation() {
+            return Math.sqrt(variance);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package algorithms;
+
+import algorithms.greedy_algorithm_extra.ProductInvestorIndex;
+import entities.Investment;
+import entities.Investor;
+import entities.Order;
+import helpers.InvestorHeap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * A long-lived allocator that keeps the state of the investors between orders. Orders can be placed and released
+ * one by one as they arrive, instead of re-running the whole algorithm for every new batch.
+ *
+ * A submitted order goes to the investor with the smallest annual income that wants its product, exactly as in the
+ * GreedyAlgorithm. Both submit and withdraw cost O(p log n), where n is the number of investors and p is the number
+ * of different products a single investor wants.
+ *
+ * The allocator is not thread-safe. Use the ConcurrentAllocator when orders come from several threads.
+ */
+public class OnlineAllocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(OnlineAllocator.class);
+    private final Collection<Investor> investors;
+    private final Map<String, Double> productInterest;
+    private final ProductInvestorIndex index;
+    // Order ---> the investment made for it and the investor that holds it
+    private final Map<Order, Investment> investments = new HashMap<>();
+    private final Map<Order, Investor> holders = new HashMap<>();
+    private final Map<Order, Investment> unfundedInvestments = new LinkedHashMap<>();
+
+    /**
+     * Creates an allocator for a group of investors
+     * @param investors The investors looking to invest
+     * @param productInterest Map of (productID, interest) pairs used to turn orders into investments
+     */
+    public OnlineAllocator(Collection<Investor> investors, Map<String, Double> productInterest) {
+        this(investors, List.of(), productInterest);
+    }
+
+    /**
+     * Creates an allocator that continues from the result of a batch run (e.g. of the GreedyAlgorithm)
+     * @param result The result of the batch run
+     * @param productInterest Map of (productID, interest) pairs used to turn orders into investments
+     */
+    public OnlineAllocator(AlgorithmResult result, Map<String, Double> productInterest) {
+        this(result.getInvestors(), result.getUnusedInvestments(), productInterest);
+    }
+
+    /**
+     * Creates an allocator for a group of investors. The investments they already hold can be withdrawn later.
+     * @param investors The investors looking to invest
+     * @param unusedInvestments The investments that were not funded so far
+     * @param productInterest Map of (productID, interest) pairs used to turn orders into investments
+     */
+    public OnlineAllocator(Collection<Investor> investors, Collection<Investment> unusedInvestments,
+                           Map<String, Double> productInterest) {
+        this.investors = new ArrayList<>(investors);
+        this.productInterest = productInterest;
+        this.index = new ProductInvestorIndex(this.investors);
+        for (Investor investor : this.investors) {
+            for (Investment investment : investor.getInvestments()) {
+                investments.put(investment.getOrder(), investment);
+                holders.put(investment.getOrder(), investor);
+            }
+        }
+        for (Investment investment : unusedInvestments) {
+            unfundedInvestments.put(investment.getOrder(), investment);
+        }
+    }
+
+    /**
+     * Allocate a new order to the investor with the smallest annual income that wants its product
+     * @param order The new order
+     * @return the investor who funds the order or null if nobody wants it
+     * @throws IllegalArgumentException if the order was already submitted or its product has no interest rate
+     */
+    public Investor submit(Order order) throws IllegalArgumentException {
+        if (investments.containsKey(order) || unfundedInvestments.containsKey(order)) {
+            throw new IllegalArgumentException("The order of " + order.getOwner().getName() + " was already submitted");
+        }
+        Double rate = productInterest.get(order.getProductID());
+        if (rate == null) {
+            throw new IllegalArgumentException("There is no interest rate for product " + order.getProductID());
+        }
+        Investment investment = new Investment(rate, order);
+        Investor investor = index.allocate(investment);
+        if (investor == null) {
+            unfundedInvestments.put(order, investment);
+            logger.info("Nobody wants the order of " + order.getOwner().getName());
+        } else {
+            investments.put(order, investment);
+            holders.put(order, investor);
+        }
+        return investor;
+    }
+
+    /**
+     * Release a previously submitted order. The investor that funded it gets the wish for the product back.
+     * @param order The order to release
+     * @return the investor who funded the order or null if it was not funded
+     * @throws IllegalArgumentException if the order was never submitted
+     */
+    public Investor withdraw(Order order) throws IllegalArgumentException {
+        if (unfundedInvestments.remove(order) != null) {
+            return null;
+        }
+        Investor investor = holders.remove(order);
+        if (investor == null) {
+            throw new IllegalArgumentException("The order of " + order.getOwner().getName() + " was never submitted");
+        }
+        index.release(investor, investments.remove(order));
+        return investor;
+    }
+
+    /**
+     * Get the investor who currently funds an order
+     * @param order The order
+     * @return the investor or null if the order is not funded
+     */
+    public Investor getInvestor(Order order) {
+        return holders.get(order);
+    }
+
+    /**
+     * Get the current state of the allocation in the same format as the batch algorithms
+     * @return AlgorithmResult with all investors and the orders that could not be funded
+     */
+    public AlgorithmResult getResult() {
+        return new AlgorithmResult(new InvestorHeap(investors), new ArrayList<>(unfundedInvestments.values()));
+    }
+}
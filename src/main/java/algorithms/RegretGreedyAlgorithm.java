@@ -0,0 +1,162 @@
+package algorithms;
+
+import algorithms.greedy_algorithm_extra.ProductInvestorIndex;
+import entities.Investment;
+import entities.Investor;
+import helpers.InvestmentSorter;
+import helpers.InvestorHeap;
+import helpers.ProductDictionary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * A greedy algorithm that processes investments by regret instead of by size.
+ *
+ * The regret of an investment is the gap between the annual income of its best eligible investor (the one with the
+ * smallest income that still wants the product) and of the second-best one. A large regret means that there is no
+ * good alternative if the best investor is taken by another product, so such investments are allocated first. An
+ * investment with a single eligible investor has an infinite regret. All investments into the same product share the
+ * same eligible investors and therefore the same regret, so the algorithm keeps one entry per product and, within a
+ * product, allocates the largest investment first, as the GreedyAlgorithm does.
+ *
+ * The priority queue of products is updated lazily: after an allocation only the products wanted by the investor who
+ * received the investment change their regret, so only they are re-keyed. Outdated entries are skipped when they
+ * reach the top. The time complexity is O(m log m + m * p * log n).
+ */
+public class RegretGreedyAlgorithm implements AbstractAlgorithm {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegretGreedyAlgorithm.class);
+
+    /**
+     * The method that does the regret-based greedy search for a solution
+     * @param investors a heap of investors looking to invest
+     * @param investments a list of investments available for investors
+     * @return AlgorithmResult containing the execution results
+     * @throws RuntimeException if something horrible happens
+     */
+    @Override
+    public AlgorithmResult run(InvestorHeap investors, List<Investment> investments) throws RuntimeException {
+        logger.info("The regret greedy algorithm has started");
+        List<Investment> unusedInvestments = new LinkedList<>();
+        ProductInvestorIndex index = new ProductInvestorIndex(investors);
+
+        // Product index ---> the investments into the product, the most expensive at the beginning
+        InvestmentSorter.sort(investments);
+        int productCount = ProductDictionary.countProducts(investors, investments);
+        List<ArrayDeque<Investment>> pending = new ArrayList<>(productCount);
+        for (int i = 0; i < productCount; i++) {
+            pending.add(new ArrayDeque<>());
+        }
+        for (Investment investment : investments) {
+            pending.get(investment.getProductIndex()).add(investment);
+        }
+
+        // Each product holds the version of its only valid entry in the queue
+        int[] versions = new int[productCount];
+        PriorityQueue<RegretEntry> queue = new PriorityQueue<>();
+        for (int product = 0; product < productCount; product++) {
+            if (!pending.get(product).isEmpty()) {
+                queue.add(createEntry(index, pending, product, versions[product]));
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            RegretEntry entry = queue.poll();
+            int product = entry.product;
+            ArrayDeque<Investment> productInvestments = pending.get(product);
+            if (entry.version != versions[product] || productInvestments.isEmpty()) {
+                continue;
+            }
+            Investor investor = index.allocate(productInvestments.peek());
+            if (investor == null) {
+                // Nobody wants the product anymore
+                unusedInvestments.addAll(productInvestments);
+                productInvestments.clear();
+                continue;
+            }
+            productInvestments.poll();
+            investors.update(investor);
+
+            // Re-key the product itself and every product whose heap contains the investor
+            rekey(queue, index, pending, versions, product);
+            for (int i = 0; i < investor.getWishedProductCount(); i++) {
+                int wished = investor.getWishedProduct(i);
+                if (wished != product) {
+                    rekey(queue, index, pending, versions, wished);
+                }
+            }
+        }
+        logger.info("The regret greedy algorithm has finished. Returning the result.");
+        return new AlgorithmResult(investors, unusedInvestments);
+    }
+
+    /**
+     * Invalidate the current entry of a product and add a new one with the up-to-date regret
+     * @param queue the queue of products
+     * @param index the investors of each product
+     * @param pending the investments of each product that still need an investor
+     * @param versions the version of the valid entry of each product
+     * @param product the product which to re-key
+     */
+    private void rekey(PriorityQueue<RegretEntry> queue, ProductInvestorIndex index,
+                       List<ArrayDeque<Investment>> pending, int[] versions, int product) {
+        if (product < versions.length && !pending.get(product).isEmpty()) {
+            versions[product]++;
+            queue.add(createEntry(index, pending, product, versions[product]));
+        }
+    }
+
+    /**
+     * Calculate the regret of a product and wrap it into an entry for the queue
+     * @param index the investors of each product
+     * @param pending the investments of each product that still need an investor
+     * @param product the product
+     * @param version the version of the entry
+     * @return a new RegretEntry
+     */
+    private RegretEntry createEntry(ProductInvestorIndex index, List<ArrayDeque<Investment>> pending,
+                                    int product, int version) {
+        Investor best = index.peekInvestor(product);
+        Investor second = index.peekSecondInvestor(product);
+        double regret;
+        if (best == null || second == null) {
+            // Without an alternative the regret is infinite. Without any investor the entry only flushes the product.
+            regret = Double.POSITIVE_INFINITY;
+        } else {
+            regret = second.getAnnualYield() - best.getAnnualYield();
+        }
+        return new RegretEntry(product, version, regret, pending.get(product).peek().getOrder().getAmount());
+    }
+
+    /**
+     * An entry of the queue. The product with the largest regret comes first, then the one with the larger investment.
+     */
+    private static final class RegretEntry implements Comparable<RegretEntry> {
+        private final int product;
+        private final int version;
+        private final double regret;
+        private final double amount;
+
+        private RegretEntry(int product, int version, double regret, double amount) {
+            this.product = product;
+            this.version = version;
+            this.regret = regret;
+            this.amount = amount;
+        }
+
+        @Override
+        public int compareTo(RegretEntry other) {
+            int regretCompare = Double.compare(other.regret, regret);
+            if (regretCompare != 0) {
+                return regretCompare;
+            }
+            int amountCompare = Double.compare(other.amount, amount);
+            if (amountCompare != 0) {
+                return amountCompare;
+            }
+            return Integer.compare(product, other.product);
+        }
+    }
+}
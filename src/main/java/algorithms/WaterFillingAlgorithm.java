@@ -0,0 +1,130 @@
+package algorithms;
+
+import entities.Investment;
+import entities.Investor;
+import helpers.InvestmentSorter;
+import helpers.InvestorHeap;
+import helpers.ProductDictionary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * A deterministic fractional allocation, in which several investors can split one investment (the model the README
+ * describes for the SoftBoundaryChromosome).
+ *
+ * The investments are processed from the most expensive to the least. The annual yield of an investment is poured
+ * into the investors that want its product like water into a vessel: the investors with the lowest annual income are
+ * raised together to a common level L, where sum(max(0, L - income)) equals the yield of the investment. Every such
+ * investor funds the part (L - income) / yield of the investment. This keeps the incomes of the investors as even as
+ * the wishlists allow.
+ *
+ * In this model a wish marks that the investor is willing to fund the product. It is not used up, so an investor can
+ * take part in every investment into the products on the wishlist. The investors of each product are kept in a heap
+ * with the lowest income on top, so the investors that are raised are polled one by one and the rest of the heap is
+ * never looked at. Only the investors that received a part of the investment move in the heaps of their products.
+ *
+ * The time complexity is O(m log m + m * j * p * log n), where m is the number of investments, n is the number of
+ * investors, j is the number of investors that share an investment and p is the number of different products a
+ * single investor wants.
+ */
+public class WaterFillingAlgorithm implements AbstractAlgorithm {
+
+    private static final Logger logger = LoggerFactory.getLogger(WaterFillingAlgorithm.class);
+
+    /**
+     * The method that splits every investment among the investors with the lowest incomes
+     * @param investors a heap of investors looking to invest
+     * @param investments a list of investments available for investors
+     * @return AlgorithmResult containing the execution results and the split fractions of every funded investment
+     * @throws RuntimeException if something horrible happens
+     */
+    @Override
+    public AlgorithmResult run(InvestorHeap investors, List<Investment> investments) throws RuntimeException {
+        logger.info("The water-filling algorithm has started");
+        List<Investment> unusedInvestments = new LinkedList<>();
+        Map<Investment, Map<Investor, Double>> splitFractions = new LinkedHashMap<>();
+
+        // Product index ---> heap of the investors that want the product, the lowest income on top
+        InvestorHeap[] eligible = new InvestorHeap[ProductDictionary.countProducts(investors, investments)];
+        for (Investor investor : investors) {
+            for (int i = 0; i < investor.getWishedProductCount(); i++) {
+                int product = investor.getWishedProduct(i);
+                if (eligible[product] == null) {
+                    eligible[product] = new InvestorHeap();
+                }
+                eligible[product].add(investor);
+            }
+        }
+
+        InvestmentSorter.sort(investments);
+        for (Investment investment : investments) {
+            int product = investment.getProductIndex();
+            InvestorHeap productInvestors = product < eligible.length ? eligible[product] : null;
+            if (productInvestors == null || productInvestors.isEmpty()) {
+                unusedInvestments.add(investment);
+                continue;
+            }
+            Map<Investor, Double> fractions = fill(productInvestors, investment);
+            for (Map.Entry<Investor, Double> entry : fractions.entrySet()) {
+                Investor investor = entry.getKey();
+                investor.addInvestment(investment, entry.getValue());
+                investors.update(investor);
+                // The investor was polled from the heap of this product, add() puts it back
+                for (int i = 0; i < investor.getWishedProductCount(); i++) {
+                    eligible[investor.getWishedProduct(i)].add(investor);
+                }
+            }
+            splitFractions.put(investment, fractions);
+        }
+        logger.info("The water-filling algorithm has finished. Returning the result.");
+        return new AlgorithmResult(investors, unusedInvestments, splitFractions);
+    }
+
+    /**
+     * Find the common level to which the investors with the lowest incomes are raised and the part of the
+     * investment each of them funds. The investors that get a part are polled from the heap and must be added back
+     * once their income is updated.
+     * @param productInvestors the heap of the investors that want the product
+     * @param investment the investment which to split
+     * @return investor ---> the part of the investment the investor funds. The parts add up to 1.
+     */
+    private Map<Investor, Double> fill(InvestorHeap productInvestors, Investment investment) {
+        Map<Investor, Double> fractions = new LinkedHashMap<>();
+        double yield = investment.getAnnualYield();
+        if (yield <= 0) {
+            // There is nothing to pour, so the investment goes to the investor with the lowest income
+            fractions.put(productInvestors.poll(), 1.0);
+            return fractions;
+        }
+
+        // Raise the lowest investors together until the level reaches the income of the next one
+        List<Investor> raised = new ArrayList<>();
+        double sum = 0;
+        double level;
+        do {
+            Investor investor = productInvestors.poll();
+            raised.add(investor);
+            sum += investor.getAnnualYield();
+            level = (yield + sum) / raised.size();
+        } while (!productInvestors.isEmpty() && level > productInvestors.peek().getAnnualYield());
+
+        double total = 0;
+        for (Investor investor : raised) {
+            double share = level - investor.getAnnualYield();
+            if (share > 0) {
+                fractions.put(investor, share);
+                total += share;
+            } else {
+                // The income does not change, so the investor goes back to the same place
+                productInvestors.add(investor);
+            }
+        }
+        // Normalise, so that rounding errors do not leave a part of the investment unfunded
+        for (Map.Entry<Investor, Double> entry : fractions.entrySet()) {
+            entry.setValue(entry.getValue() / total);
+        }
+        return fractions;
+    }
+}
@@ -36,12 +36,31 @@ public interface AbstractChromosome {
      */
     void setGeneAtIndex(int index, int gene);
 
+    /**
+     * Overwrite the genes of this chromosome with the genes of another chromosome of the same problem
+     * @param other the chromosome whose genes to copy
+     */
+    void copyFrom(AbstractChromosome other);
+
     /**
      * Get the length of the chromosome aka how many genes there are
      * @return the chromosome length
      */
     int getLength();
 
+    /**
+     * Get the matrix that holds the fitness of this chromosome, so that a population can scan the fitness values of
+     * its chromosomes in a single array
+     * @return the matrix
+     */
+    GeneMatrix getMatrix();
+
+    /**
+     * Get the row of this chromosome in its matrix
+     * @return the row
+     */
+    int getRow();
+
     /**
      * Return if the chromosome is valid
      * @return true if it is a valid chromosome, false otherwise.
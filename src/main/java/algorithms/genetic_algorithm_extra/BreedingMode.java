@@ -0,0 +1,11 @@
+package algorithms.genetic_algorithm_extra;
+
+/**
+ * Tells how a Generator produces the next generation
+ */
+public enum BreedingMode {
+    // The two fittest chromosomes produce one offspring that replaces the least fit chromosome
+    STEADY_STATE,
+    // A whole new population is bred from parents chosen by tournaments, keeping the best chromosomes (elites)
+    GENERATIONAL;
+}
@@ -0,0 +1,281 @@
+package algorithms.genetic_algorithm_extra;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A compact binary snapshot of a run of the GeneticAlgorithm, from which the run can be resumed after the process
+ * was stopped.
+ *
+ * The file holds a header followed by every island. The header has the generation count, the number of restarts,
+ * the improvement window of the ConvergenceMonitor, the dimensions of the islands and the fingerprint of the
+ * FitnessKernel, so a checkpoint of another problem is rejected even if it has the same dimensions. Every island has
+ * the seed of its random number generators, the fittest chromosome found so far with its fitness and the genes of
+ * the whole population. A HardBoundaryChromosome is stored as one int per gene and a SoftBoundaryChromosome as its
+ * fractions. The fitness of the population is not stored, it is recalculated from the genes when the checkpoint is
+ * restored. Only the time budget of the run is not stored, it always counts from the start of the current process.
+ *
+ * The file is written through a buffered FileChannel into a temporary file that is then atomically moved over the
+ * old checkpoint, so a process killed while writing leaves the previous checkpoint intact. It is read through a
+ * memory-mapped buffer. The whole file, including the range of every gene, is checked before anything is changed.
+ */
+public final class Checkpoint {
+
+    // "GACP"
+    private static final int magic = 0x47414350;
+    private static final int version = 2;
+    private static final int headerSize = 10 * Integer.BYTES + Long.BYTES + 1 + Double.BYTES;
+    private static final int bufferSize = 1 << 16;
+
+    private final int generation;
+    private final int restarts;
+
+    private Checkpoint(int generation, int restarts) {
+        this.generation = generation;
+        this.restarts = restarts;
+    }
+
+    /**
+     * Get the number of generations that had run when the checkpoint was written
+     * @return the generation count
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Get the number of restarts that had happened when the checkpoint was written
+     * @return the number of restarts
+     */
+    public int getRestarts() {
+        return restarts;
+    }
+
+    /**
+     * Write the state of the islands into a file. The random number generators of the islands are reseeded, so the
+     * run continues exactly as a run restored from this checkpoint would.
+     * @param path the file which to write
+     * @param model the islands
+     * @param monitor the monitor of the run
+     * @param generation the number of generations that have run
+     * @param restarts the number of restarts that have happened
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, IslandModel model, ConvergenceMonitor monitor, int generation, int restarts)
+            throws IOException {
+        Generator[] islands = model.getIslands();
+        AbstractChromosome[] first = islands[0].getPopulation().getChromosomes();
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+            buffer.putInt(magic).putInt(version).putInt(generation).putInt(restarts)
+                    .putInt(islands[0].getChromosomeType().ordinal()).putInt(islands.length)
+                    .putInt(first.length).putInt(first[0].getLength())
+                    .putInt(model.getProblem().getFitnessKernel().getInvestorCount())
+                    .putInt(monitor.getLastImprovement())
+                    .putLong(model.getProblem().getFitnessKernel().getFingerprint())
+                    .put((byte) (monitor.hasBestFitness() ? 1 : 0)).putDouble(monitor.getBestFitness());
+            for (Generator island : islands) {
+                ensure(channel, buffer, Long.BYTES + 1 + Double.BYTES);
+                buffer.putLong(island.reseed());
+                AbstractChromosome fittest = island.getFittestChromosome();
+                buffer.put((byte) (fittest == null ? 0 : 1));
+                buffer.putDouble(fittest == null ? 0 : island.getFittestChromosomeFitness());
+                if (fittest != null) {
+                    writeGenes(channel, buffer, fittest);
+                }
+                for (AbstractChromosome chromosome : island.getPopulation().getChromosomes()) {
+                    writeGenes(channel, buffer, chromosome);
+                }
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Restore the state of the islands and of the monitor from a file. The islands must have been created for the
+     * same problem and with the same settings as the ones that wrote the checkpoint.
+     * @param path the file which to read
+     * @param model the islands which to restore
+     * @param monitor the monitor which to restore
+     * @return the generation count and the number of restarts of the checkpoint
+     * @throws IOException if the file cannot be read, is damaged or was written for another problem or other islands
+     */
+    public static Checkpoint restore(Path path, IslandModel model, ConvergenceMonitor monitor) throws IOException {
+        Generator[] islands = model.getIslands();
+        FitnessKernel kernel = model.getProblem().getFitnessKernel();
+        AbstractChromosome[] first = islands[0].getPopulation().getChromosomes();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < headerSize) {
+                throw new IOException("The checkpoint " + path + " is too short");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != magic || buffer.getInt() != version) {
+                throw new IOException("The file " + path + " is not a checkpoint of this version");
+            }
+            int generation = buffer.getInt();
+            int restarts = buffer.getInt();
+            if (buffer.getInt() != islands[0].getChromosomeType().ordinal() || buffer.getInt() != islands.length
+                    || buffer.getInt() != first.length || buffer.getInt() != first[0].getLength()
+                    || buffer.getInt() != kernel.getInvestorCount()) {
+                throw new IOException("The checkpoint " + path + " was written for other settings");
+            }
+            int lastImprovement = buffer.getInt();
+            if (buffer.getLong() != kernel.getFingerprint()) {
+                throw new IOException("The checkpoint " + path + " was written for another problem");
+            }
+            boolean hasBestFitness = buffer.get() != 0;
+            double bestFitness = buffer.getDouble();
+            // Check the whole layout before anything is changed, so a bad file leaves the islands untouched
+            long position = headerSize;
+            for (int i = 0; i < islands.length && position + Long.BYTES + 1 + Double.BYTES <= channel.size(); i++) {
+                boolean hasFittest = buffer.get((int) position + Long.BYTES) != 0;
+                position += Long.BYTES + 1 + Double.BYTES + (long) (first.length + (hasFittest ? 1 : 0)) * geneBytes(first[0]);
+            }
+            if (position != channel.size()) {
+                throw new IOException("The checkpoint " + path + " is damaged");
+            }
+            ByteBuffer check = buffer.duplicate();
+            for (int i = 0; i < islands.length; i++) {
+                check.getLong();
+                boolean hasFittest = check.get() != 0;
+                check.getDouble();
+                for (int c = 0; c < first.length + (hasFittest ? 1 : 0); c++) {
+                    checkGenes(check, first[0], kernel, path);
+                }
+            }
+
+            for (Generator island : islands) {
+                island.restoreRandom(buffer.getLong());
+                boolean hasFittest = buffer.get() != 0;
+                double fitness = buffer.getDouble();
+                AbstractChromosome[] chromosomes = island.getPopulation().getChromosomes();
+                if (hasFittest) {
+                    AbstractChromosome fittest = island.copyChromosome(chromosomes[0]);
+                    readGenes(buffer, fittest);
+                    island.restoreFittestChromosome(fittest, fitness);
+                }
+                for (AbstractChromosome chromosome : chromosomes) {
+                    readGenes(buffer, chromosome);
+                }
+                island.getPopulation().calculateAllFitness();
+            }
+            monitor.restore(lastImprovement, hasBestFitness, bestFitness);
+            return new Checkpoint(generation, restarts);
+        }
+    }
+
+    /**
+     * Get the number of bytes the genes of a chromosome take in the file
+     * @param chromosome the chromosome
+     * @return the number of bytes
+     */
+    private static long geneBytes(AbstractChromosome chromosome) {
+        if (chromosome instanceof SoftBoundaryChromosome) {
+            return (long) chromosome.getLength() * ((SoftBoundaryChromosome) chromosome).getInvestorCount() * Double.BYTES;
+        }
+        return (long) chromosome.getLength() * Integer.BYTES;
+    }
+
+    /**
+     * Append the genes of a chromosome to the buffer, writing the buffer into the channel whenever it is full
+     * @param channel the channel of the file
+     * @param buffer the buffer
+     * @param chromosome the chromosome
+     * @throws IOException if the file cannot be written
+     */
+    private static void writeGenes(FileChannel channel, ByteBuffer buffer, AbstractChromosome chromosome) throws IOException {
+        if (chromosome instanceof SoftBoundaryChromosome) {
+            for (double fraction : ((SoftBoundaryChromosome) chromosome).getFractionMatrix()) {
+                ensure(channel, buffer, Double.BYTES);
+                buffer.putDouble(fraction);
+            }
+        } else {
+            for (int i = 0; i < chromosome.getLength(); i++) {
+                ensure(channel, buffer, Integer.BYTES);
+                buffer.putInt(chromosome.getGeneAtIndex(i));
+            }
+        }
+    }
+
+    /**
+     * Check that the next genes of the buffer belong to the domains of the investments: a gene is -1 or an investor
+     * that wants the product, and a fraction is a non-negative number that is 0 for everybody else
+     * @param buffer the buffer, moved past the genes
+     * @param chromosome a chromosome of the islands, which gives the type and the size of the genes
+     * @param kernel the fitness kernel of the problem
+     * @param path the file, for the message of the exception
+     * @throws IOException if a gene is out of range
+     */
+    private static void checkGenes(ByteBuffer buffer, AbstractChromosome chromosome, FitnessKernel kernel, Path path)
+            throws IOException {
+        int investorCount = kernel.getInvestorCount();
+        for (int i = 0; i < chromosome.getLength(); i++) {
+            if (chromosome instanceof SoftBoundaryChromosome) {
+                for (int j = 0; j < investorCount; j++) {
+                    double fraction = buffer.getDouble();
+                    // The blends of the crossover can exceed 1 by a rounding error
+                    boolean inDomain = kernel.getDomainPosition(i, j) >= 0;
+                    if (!(fraction >= 0 && fraction <= 1 + 1e-9) || (fraction > 0 && !inDomain)) {
+                        throw new IOException("The checkpoint " + path + " has an invalid fraction of investment " + i);
+                    }
+                }
+            } else {
+                int gene = buffer.getInt();
+                if (gene != -1 && (gene < 0 || gene >= investorCount || kernel.getDomainPosition(i, gene) < 0)) {
+                    throw new IOException("The checkpoint " + path + " has an invalid gene of investment " + i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Overwrite the genes of a chromosome with the next genes of the buffer
+     * @param buffer the buffer
+     * @param chromosome the chromosome
+     */
+    private static void readGenes(ByteBuffer buffer, AbstractChromosome chromosome) {
+        if (chromosome instanceof SoftBoundaryChromosome) {
+            SoftBoundaryChromosome soft = (SoftBoundaryChromosome) chromosome;
+            buffer.asDoubleBuffer().get(soft.getFractionMatrix());
+            buffer.position(buffer.position() + soft.getFractionMatrix().length * Double.BYTES);
+            soft.markChanged();
+        } else {
+            for (int i = 0; i < chromosome.getLength(); i++) {
+                int gene = buffer.getInt();
+                if (chromosome.getGeneAtIndex(i) != gene) {
+                    chromosome.setGeneAtIndex(i, gene);
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the buffer into the channel if it does not have enough space left
+     * @param channel the channel of the file
+     * @param buffer the buffer
+     * @param bytes the number of bytes that will be put next
+     * @throws IOException if the file cannot be written
+     */
+    private static void ensure(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -1,25 +1,62 @@
 package algorithms.genetic_algorithm_extra;
 
-import entities.Investment;
-import entities.Investor;
-
-import java.util.*;
+import java.util.SplittableRandom;
 
 /**
  * Used to build chromosomes of various types
  */
 public class ChromosomeFactory {
 
-    private final Random random = new Random();
-    private final Data data = Data.getInstance();
+    private SplittableRandom random;
+    private final ProblemInstance problem;
     private final ChromosomeType type;
+    private final FitnessCache cache;
+    private final FeasibleGenes feasibleGenes;
+    private final GeneticOperators operators;
+
+    /**
+     * Get a ChromosomeFactory that produces chromosomes of a particular type
+     * @param problem The problem whose chromosomes to produce
+     * @param type The type of the chromosome
+     */
+    public ChromosomeFactory(ProblemInstance problem, ChromosomeType type) {
+        this(problem, type, new SplittableRandom());
+    }
 
     /**
      * Get a ChromosomeFactory that produces chromosomes of a particular type
+     * @param problem The problem whose chromosomes to produce
      * @param type The type of the chromosome
+     * @param random The random number generator used to build random chromosomes
      */
-    public ChromosomeFactory(ChromosomeType type) {
+    public ChromosomeFactory(ProblemInstance problem, ChromosomeType type, SplittableRandom random) {
+        this(problem, type, random, null);
+    }
+
+    /**
+     * Get a ChromosomeFactory that produces chromosomes of a particular type
+     * @param problem The problem whose chromosomes to produce
+     * @param type The type of the chromosome
+     * @param random The random number generator used to build random chromosomes
+     * @param cache The fitness cache given to every chromosome or null to not use any
+     */
+    public ChromosomeFactory(ProblemInstance problem, ChromosomeType type, SplittableRandom random, FitnessCache cache) {
+        this.problem = problem;
         this.type = type;
+        this.random = random;
+        this.cache = cache;
+        this.feasibleGenes = new FeasibleGenes(problem.getFitnessKernel());
+        switch (type) {
+            case HARD_BOUNDARY:
+                this.operators = new HardBoundaryOperators(feasibleGenes);
+                break;
+            case SOFT_BOUNDARY:
+                this.operators = new SoftBoundaryOperators(problem.getFitnessKernel());
+                break;
+            default:
+                // Should never be accessed
+                throw new IllegalArgumentException("Invalid chromosome type: " + type);
+        }
     }
 
     /**
@@ -30,6 +67,60 @@ public class ChromosomeFactory {
         switch (type) {
             case HARD_BOUNDARY:
                 return buildRandomHardBoundaryChromosome();
+            case SOFT_BOUNDARY:
+                return buildRandomSoftBoundaryChromosome(new GeneMatrix(1, 0), 0);
+            default:
+                // Should never be accessed
+                throw new IllegalArgumentException("Invalid chromosome type: " + type);
+        }
+    }
+
+    /**
+     * Used to build a whole population of random chromosomes that share one GeneMatrix
+     * @param size the number of chromosomes
+     * @return the new chromosomes
+     */
+    public AbstractChromosome[] createRandomPopulation(int size) {
+        switch (type) {
+            case HARD_BOUNDARY:
+                return buildRandomHardBoundaryPopulation(size);
+            case SOFT_BOUNDARY:
+                AbstractChromosome[] randomChromosomes = new AbstractChromosome[size];
+                GeneMatrix fitnessMatrix = new GeneMatrix(size, 0);
+                for (int i = 0; i < size; i++) {
+                    randomChromosomes[i] = buildRandomSoftBoundaryChromosome(fitnessMatrix, i);
+                }
+                return randomChromosomes;
+            default:
+                // Should never be accessed
+                throw new IllegalArgumentException("Invalid chromosome type: " + type);
+        }
+    }
+
+    /**
+     * Return chromosomes with empty slots arrays that share one GeneMatrix. Used as the buffer of the next generation.
+     * @param size the number of chromosomes
+     * @return the new chromosomes
+     */
+    public AbstractChromosome[] createEmptyPopulation(int size) {
+        switch (type) {
+            case HARD_BOUNDARY:
+                FitnessKernel kernel = problem.getFitnessKernel();
+                GeneMatrix matrix = new GeneMatrix(size, kernel.getInvestmentCount());
+                AbstractChromosome[] chromosomes = new AbstractChromosome[size];
+                for (int row = 0; row < size; row++) {
+                    HardBoundaryChromosome chromosome = new HardBoundaryChromosome(kernel, matrix, row);
+                    chromosome.setFitnessCache(cache);
+                    chromosomes[row] = chromosome;
+                }
+                return chromosomes;
+            case SOFT_BOUNDARY:
+                AbstractChromosome[] emptyChromosomes = new AbstractChromosome[size];
+                GeneMatrix fitnessMatrix = new GeneMatrix(size, 0);
+                for (int i = 0; i < size; i++) {
+                    emptyChromosomes[i] = new SoftBoundaryChromosome(problem.getFitnessKernel(), fitnessMatrix, i);
+                }
+                return emptyChromosomes;
             default:
                 // Should never be accessed
                 throw new IllegalArgumentException("Invalid chromosome type: " + type);
@@ -43,33 +134,82 @@ public class ChromosomeFactory {
     public AbstractChromosome createEmptyChromosome() {
         switch (type) {
             case HARD_BOUNDARY:
-                return new HardBoundaryChromosome(data.getInvestorMap(), data.getInvestmentMap());
+                HardBoundaryChromosome chromosome = new HardBoundaryChromosome(problem.getFitnessKernel());
+                chromosome.setFitnessCache(cache);
+                return chromosome;
+            case SOFT_BOUNDARY:
+                return new SoftBoundaryChromosome(problem.getFitnessKernel());
             default:
                 // Should never be accessed
                 throw new IllegalArgumentException("Invalid chromosome type: " + type);
         }
     }
 
+    /**
+     * Replace the random number generator used to build random chromosomes, e.g. when a checkpoint is restored
+     * @param random the new random number generator
+     */
+    void setRandom(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * Get the operators that keep the genes feasible
+     * @return the operators of the current problem
+     */
+    public FeasibleGenes getFeasibleGenes() {
+        return feasibleGenes;
+    }
+
+    /**
+     * Get the crossover and the mutation of the chromosome type
+     * @return the operators of the current problem and chromosome type
+     */
+    public GeneticOperators getOperators() {
+        return operators;
+    }
+
     /**
      * Used to create a HardBoundaryChromosome. For each position in the slots array where each
-     * position resembles an investment, assign one investor's id or -1 meaning that the investment
-     * is not allocated to any investor.
+     * position resembles an investment, assign the id of one investor that wants the product or -1 meaning that the
+     * investment is not allocated to any investor. No investor gets more investments than it wants.
      * @return a new HardBoundaryChromosome
      */
     private HardBoundaryChromosome buildRandomHardBoundaryChromosome() {
-        Map<Integer, Investor> investors = data.getInvestorMap();
-        Map<Integer, Investment> investments = data.getInvestmentMap();
-
-        int[] slots = new int[investments.size()];
-        var keySet = investors.keySet();
-        List<Integer> keyList = new ArrayList<>(keySet);
-        keyList.add(-1); // Add -1 to the key list
-
-        Collections.shuffle(keyList, random);
-        for (int i = 0; i < slots.length; i++) {
-            int randomIndex = random.nextInt(keyList.size());
-            slots[i] = keyList.get(randomIndex);
+        HardBoundaryChromosome chromosome = new HardBoundaryChromosome(problem.getFitnessKernel());
+        getFeasibleGenes().fillRandom(chromosome, random);
+        chromosome.setFitnessCache(cache);
+        return chromosome;
+    }
+
+    /**
+     * Used to create HardBoundaryChromosomes that are views of the rows of a single GeneMatrix. The genes are
+     * chosen in the same way as in buildRandomHardBoundaryChromosome().
+     * @param size the number of chromosomes
+     * @return the new chromosomes
+     */
+    private HardBoundaryChromosome[] buildRandomHardBoundaryPopulation(int size) {
+        FitnessKernel kernel = problem.getFitnessKernel();
+        GeneMatrix matrix = new GeneMatrix(size, kernel.getInvestmentCount());
+        HardBoundaryChromosome[] chromosomes = new HardBoundaryChromosome[size];
+        for (int row = 0; row < size; row++) {
+            chromosomes[row] = new HardBoundaryChromosome(kernel, matrix, row);
+            getFeasibleGenes().fillRandom(chromosomes[row], random);
+            chromosomes[row].setFitnessCache(cache);
         }
-        return new HardBoundaryChromosome(investors, investments, slots);
+        return chromosomes;
+    }
+
+    /**
+     * Used to create a SoftBoundaryChromosome. Every investment is split randomly between the investors that want
+     * the product. An investment that nobody wants is not funded.
+     * @param matrix the matrix that holds the fitness
+     * @param row the row of the chromosome in the matrix
+     * @return a new SoftBoundaryChromosome
+     */
+    private SoftBoundaryChromosome buildRandomSoftBoundaryChromosome(GeneMatrix matrix, int row) {
+        SoftBoundaryChromosome chromosome = new SoftBoundaryChromosome(problem.getFitnessKernel(), matrix, row);
+        ((SoftBoundaryOperators) operators).fillRandom(chromosome, random);
+        return chromosome;
     }
 }
@@ -4,5 +4,8 @@ package algorithms.genetic_algorithm_extra;
  * The type of the chromosome. Used with chromosome factory to create chromosomes of a specific type
  */
 public enum ChromosomeType {
-    HARD_BOUNDARY;
+    // Every investment goes to a single investor (or to nobody)
+    HARD_BOUNDARY,
+    // Every investment is split between the investors that want its product
+    SOFT_BOUNDARY;
 }
\ No newline at end of file
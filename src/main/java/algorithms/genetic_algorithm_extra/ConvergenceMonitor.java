@@ -0,0 +1,136 @@
+package algorithms.genetic_algorithm_extra;
+
+/**
+ * Decides when the GeneticAlgorithm stops. The algorithm always runs at least minGenerations generations (unless the
+ * time budget runs out) and at most maxGenerations. In between it stops as soon as the best fitness has not improved
+ * for stallGenerations generations or the diversity of the population drops below minDiversity. The caller can
+ * restart the search instead of stopping, in which case the improvement window starts again.
+ */
+public class ConvergenceMonitor {
+
+    // Smaller relative changes of the best fitness are rounding noise, not an improvement
+    private static final double relativeTolerance = 1e-9;
+    private final GeneticAlgorithmSettings settings;
+    private final boolean minimisationAlgorithm;
+    private final long deadline;
+    private double bestFitness;
+    private boolean hasBestFitness = false;
+    private int lastImprovement = 0;
+
+    /**
+     * Start monitoring a run that starts now
+     * @param settings the generation limits, the improvement window, the minimum diversity and the time budget
+     * @param minimisationAlgorithm if this is a minimisation problem or maximisation
+     */
+    public ConvergenceMonitor(GeneticAlgorithmSettings settings, boolean minimisationAlgorithm) {
+        this(settings, minimisationAlgorithm, System.nanoTime());
+    }
+
+    /**
+     * Start monitoring a run
+     * @param settings the generation limits, the improvement window, the minimum diversity and the time budget
+     * @param minimisationAlgorithm if this is a minimisation problem or maximisation
+     * @param startNanos the System.nanoTime() at which the run started
+     */
+    public ConvergenceMonitor(GeneticAlgorithmSettings settings, boolean minimisationAlgorithm, long startNanos) {
+        this.settings = settings;
+        this.minimisationAlgorithm = minimisationAlgorithm;
+        long budget = settings.getTimeBudgetMillis();
+        this.deadline = budget == 0 ? Long.MAX_VALUE : startNanos + budget * 1_000_000L;
+    }
+
+    /**
+     * Record the best fitness found so far
+     * @param generation the number of generations that have run
+     * @param fitness the best fitness after these generations
+     */
+    public void record(int generation, double fitness) {
+        double tolerance = relativeTolerance * (1 + Math.abs(fitness));
+        if (!hasBestFitness || (minimisationAlgorithm ? fitness < bestFitness - tolerance : fitness > bestFitness + tolerance)) {
+            bestFitness = fitness;
+            hasBestFitness = true;
+            lastImprovement = generation;
+        }
+    }
+
+    /**
+     * Start a new improvement window, e.g. after the population was restarted
+     * @param generation the number of generations that have run
+     */
+    public void restart(int generation) {
+        lastImprovement = generation;
+    }
+
+    /**
+     * Check if the run should continue
+     * @param generation the number of generations that have run
+     * @param diversity the current diversity of the population, see Population.getDiversity()
+     * @return RUNNING or the reason to stop
+     */
+    public ConvergenceState check(int generation, double diversity) {
+        return check(generation, diversity, System.nanoTime());
+    }
+
+    /**
+     * Check if the run should continue
+     * @param generation the number of generations that have run
+     * @param diversity the current diversity of the population, see Population.getDiversity()
+     * @param nowNanos the current System.nanoTime()
+     * @return RUNNING or the reason to stop
+     */
+    public ConvergenceState check(int generation, double diversity, long nowNanos) {
+        if (generation >= settings.getMaxGenerations()) {
+            return ConvergenceState.MAX_GENERATIONS;
+        }
+        if (nowNanos - deadline >= 0) {
+            return ConvergenceState.TIME_BUDGET;
+        }
+        if (generation < settings.getMinGenerations()) {
+            return ConvergenceState.RUNNING;
+        }
+        if (settings.getStallGenerations() > 0 && generation - lastImprovement >= settings.getStallGenerations()) {
+            return ConvergenceState.STAGNATED;
+        }
+        if (diversity < settings.getMinDiversity()) {
+            return ConvergenceState.DIVERSITY_LOST;
+        }
+        return ConvergenceState.RUNNING;
+    }
+
+    /**
+     * Get the best fitness recorded so far
+     * @return the best fitness, only meaningful if hasBestFitness()
+     */
+    public double getBestFitness() {
+        return bestFitness;
+    }
+
+    /**
+     * Check if any fitness was recorded
+     * @return true if record was called at least once
+     */
+    public boolean hasBestFitness() {
+        return hasBestFitness;
+    }
+
+    /**
+     * Continue the improvement window of an earlier run, e.g. one restored from a Checkpoint. The time budget is not
+     * restored, it always counts from the start of the current process.
+     * @param lastImprovement the generation of the last improvement
+     * @param hasBestFitness if any fitness was recorded
+     * @param bestFitness the best fitness recorded
+     */
+    public void restore(int lastImprovement, boolean hasBestFitness, double bestFitness) {
+        this.lastImprovement = lastImprovement;
+        this.hasBestFitness = hasBestFitness;
+        this.bestFitness = bestFitness;
+    }
+
+    /**
+     * Get the number of generations after which the best fitness last improved
+     * @return the generation of the last improvement
+     */
+    public int getLastImprovement() {
+        return lastImprovement;
+    }
+}
@@ -0,0 +1,17 @@
+package algorithms.genetic_algorithm_extra;
+
+/**
+ * Tells whether the GeneticAlgorithm should keep evolving and, if not, why it stopped
+ */
+public enum ConvergenceState {
+    // Keep evolving
+    RUNNING,
+    // The maximum number of generations was reached
+    MAX_GENERATIONS,
+    // The time budget ran out
+    TIME_BUDGET,
+    // The best fitness did not improve during the last stallGenerations generations
+    STAGNATED,
+    // The chromosomes became too similar to each other
+    DIVERSITY_LOST;
+}
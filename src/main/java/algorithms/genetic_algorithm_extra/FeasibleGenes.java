@@ -0,0 +1,128 @@
+package algorithms.genetic_algorithm_extra;
+
+import java.util.SplittableRandom;
+
+/**
+ * Operators that keep HardBoundaryChromosome genes inside the feasible space: every investment goes either to an
+ * investor that wants its product or to nobody (-1), and no investor gets more investments into a product than it
+ * wants. The random creation and the mutation only choose investors from the domain of the investment, and the
+ * repair fixes the over-subscribed wishes that crossover produces.
+ */
+public class FeasibleGenes {
+
+    private final FitnessKernel kernel;
+
+    /**
+     * Create the operators of a problem
+     * @param kernel the fitness kernel, which holds the domains and the capacities
+     */
+    public FeasibleGenes(FitnessKernel kernel) {
+        this.kernel = kernel;
+    }
+
+    /**
+     * Get the fitness kernel that holds the domains and the capacities
+     * @return the fitness kernel
+     */
+    public FitnessKernel getKernel() {
+        return kernel;
+    }
+
+    /**
+     * Fill a chromosome with random feasible genes. Every investment gets a random value from its domain or -1. If
+     * the investor has no capacity left, the next investor in the domain that has some takes it.
+     * @param chromosome the chromosome which to fill
+     * @param random the random number generator
+     */
+    public void fillRandom(AbstractChromosome chromosome, SplittableRandom random) {
+        int[] used = new int[kernel.getPairCount()];
+        for (int i = 0; i < chromosome.getLength(); i++) {
+            int size = kernel.getDomainSize(i);
+            // The last choice (size) means that the investment is not allocated
+            int choice = random.nextInt(size + 1);
+            chromosome.setGeneAtIndex(i, choice == size ? -1 : takeFrom(i, choice, used));
+        }
+    }
+
+    /**
+     * Choose a different value for a gene: another investor from the domain of the investment or -1
+     * @param index the investment
+     * @param gene the current value of the gene
+     * @param random the random number generator
+     * @return the new value, or the old one if there is no other choice
+     */
+    public int mutate(int index, int gene, SplittableRandom random) {
+        int size = kernel.getDomainSize(index);
+        // The choices are the domain and -1 (at position size), without the current value
+        int current = gene == -1 ? size : kernel.getDomainPosition(index, gene);
+        int choices = current == -1 ? size + 1 : size;
+        if (choices == 0) {
+            return gene;
+        }
+        int choice = random.nextInt(choices);
+        if (current != -1 && choice >= current) {
+            choice++;
+        }
+        return choice == size ? -1 : kernel.getDomainInvestor(index, choice);
+    }
+
+    /**
+     * Make the genes feasible. Investments given to an investor that does not want them, or beyond the capacity of
+     * the investor, are moved to a random investor of the domain that still has capacity, or left unallocated.
+     * @param chromosome the chromosome which to repair
+     * @param random the random number generator
+     * @return the number of genes that were changed
+     */
+    public int repair(AbstractChromosome chromosome, SplittableRandom random) {
+        int length = chromosome.getLength();
+        int[] used = new int[kernel.getPairCount()];
+        boolean[] conflicts = null;
+        for (int i = 0; i < length; i++) {
+            int investor = chromosome.getGeneAtIndex(i);
+            if (investor == -1) {
+                continue;
+            }
+            int pair = kernel.getPair(investor, i);
+            if (pair == -1 || used[pair] == kernel.getPairCapacity(pair)) {
+                if (conflicts == null) {
+                    conflicts = new boolean[length];
+                }
+                conflicts[i] = true;
+            } else {
+                used[pair]++;
+            }
+        }
+        if (conflicts == null) {
+            return 0;
+        }
+        int changed = 0;
+        for (int i = 0; i < length; i++) {
+            if (conflicts[i]) {
+                int size = kernel.getDomainSize(i);
+                chromosome.setGeneAtIndex(i, size == 0 ? -1 : takeFrom(i, random.nextInt(size), used));
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Find an investor with spare capacity, starting at a position of the domain and going round
+     * @param index the investment
+     * @param start the first position which to try
+     * @param used pair ---> how many investments into the product the investor already has
+     * @return the investor, whose usage is increased, or -1 if nobody has spare capacity
+     */
+    private int takeFrom(int index, int start, int[] used) {
+        int size = kernel.getDomainSize(index);
+        for (int k = 0; k < size; k++) {
+            int investor = kernel.getDomainInvestor(index, (start + k) % size);
+            int pair = kernel.getPair(investor, index);
+            if (used[pair] < kernel.getPairCapacity(pair)) {
+                used[pair]++;
+                return investor;
+            }
+        }
+        return -1;
+    }
+}
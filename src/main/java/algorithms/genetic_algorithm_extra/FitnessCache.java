@@ -0,0 +1,227 @@
+package algorithms.genetic_algorithm_extra;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of fitness values, shared by all chromosomes of a run. Crossover of the same two parents and low
+ * mutation rates produce many identical chromosomes, which then do not have to be evaluated again.
+ *
+ * A chromosome is identified by two independent 64-bit hashes of its genes. Both are the XOR of a value per
+ * (index, gene) pair, so a chromosome updates them in O(1) when a single gene changes. The first hash selects the
+ * entry, the second one confirms it, so a wrong hit needs a collision of 128 bits.
+ *
+ * The entries are split into segments with a lock each, so the chromosomes of a population can use the cache from
+ * several threads. When a segment is full, an entry is evicted with the CLOCK algorithm: the hand skips (and clears)
+ * the entries that were hit since it last passed them and evicts the first one that was not.
+ */
+public class FitnessCache {
+
+    private static final int segmentCount = 16;
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Create an empty cache
+     * @param capacity the maximum number of entries
+     * @throws IllegalArgumentException if the capacity is smaller than 1
+     */
+    public FitnessCache(int capacity) throws IllegalArgumentException {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity of the cache must be at least 1, but was " + capacity);
+        }
+        int count = Math.min(segmentCount, capacity);
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            // Spread the capacity over the segments, the first ones get the remainder
+            segments[i] = new Segment(capacity / count + (i < capacity % count ? 1 : 0));
+        }
+    }
+
+    /**
+     * Get the value of a gene for the first hash of a chromosome
+     * @param index the position of the gene
+     * @param gene the value of the gene
+     * @return the value which to XOR into the hash
+     */
+    public static long hash(int index, int gene) {
+        return mix(((long) index << 32 | (gene & 0xffffffffL)) * 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * Get the value of a gene for the second (confirming) hash of a chromosome
+     * @param index the position of the gene
+     * @param gene the value of the gene
+     * @return the value which to XOR into the hash
+     */
+    public static long check(int index, int gene) {
+        return mix(((long) gene << 32 | (index & 0xffffffffL)) ^ 0xC2B2AE3D27D4EB4FL);
+    }
+
+    /**
+     * Look up the fitness of a chromosome
+     * @param hash the first hash of the genes
+     * @param check the second hash of the genes
+     * @return the entry or null if the chromosome is not in the cache
+     */
+    public Entry get(long hash, long check) {
+        Entry entry = segmentOf(hash).get(hash, check);
+        if (entry == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return entry;
+    }
+
+    /**
+     * Save the fitness of a chromosome, evicting another entry if the cache is full
+     * @param hash the first hash of the genes
+     * @param check the second hash of the genes
+     * @param fitness the fitness of the chromosome
+     * @param valid if the chromosome is a valid solution
+     */
+    public void put(long hash, long check, double fitness, boolean valid) {
+        if (segmentOf(hash).put(new Entry(hash, check, fitness, valid))) {
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Get the number of lookups that found the chromosome
+     * @return the number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the number of lookups that did not find the chromosome
+     * @return the number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Get the number of entries that were evicted to make room for new ones
+     * @return the number of evictions
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Get the segment that holds a hash. The low bits are used by the maps inside the segments, so take the high ones.
+     * @param hash the first hash of the genes
+     * @return the segment
+     */
+    private Segment segmentOf(long hash) {
+        return segments[(int) ((hash >>> 32) % segments.length)];
+    }
+
+    /**
+     * The finaliser of SplitMix64, which spreads every input bit over the whole result
+     * @param z the input
+     * @return the mixed value
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * The fitness of one chromosome
+     */
+    public static final class Entry {
+        private final long hash;
+        private final long check;
+        private final double fitness;
+        private final boolean valid;
+
+        private Entry(long hash, long check, double fitness, boolean valid) {
+            this.hash = hash;
+            this.check = check;
+            this.fitness = fitness;
+            this.valid = valid;
+        }
+
+        /**
+         * Get the fitness of the chromosome
+         * @return the fitness
+         */
+        public double getFitness() {
+            return fitness;
+        }
+
+        /**
+         * Return if the chromosome is a valid solution
+         * @return true if it is, false otherwise
+         */
+        public boolean isValid() {
+            return valid;
+        }
+    }
+
+    /**
+     * A part of the cache with its own lock and its own CLOCK hand
+     */
+    private static final class Segment {
+        private final Entry[] entries;
+        private final boolean[] referenced;
+        // First hash ---> the position of its entry
+        private final Map<Long, Integer> positions;
+        private int size = 0;
+        private int hand = 0;
+
+        private Segment(int capacity) {
+            entries = new Entry[capacity];
+            referenced = new boolean[capacity];
+            positions = new HashMap<>(capacity * 2);
+        }
+
+        private synchronized Entry get(long hash, long check) {
+            Integer position = positions.get(hash);
+            if (position == null || entries[position].check != check) {
+                return null;
+            }
+            referenced[position] = true;
+            return entries[position];
+        }
+
+        /**
+         * Add or replace an entry
+         * @param entry the new entry
+         * @return true if another entry was evicted
+         */
+        private synchronized boolean put(Entry entry) {
+            Integer position = positions.get(entry.hash);
+            if (position != null) {
+                entries[position] = entry;
+                return false;
+            }
+            if (size < entries.length) {
+                place(size++, entry);
+                return false;
+            }
+            while (referenced[hand]) {
+                referenced[hand] = false;
+                hand = (hand + 1) % entries.length;
+            }
+            positions.remove(entries[hand].hash);
+            place(hand, entry);
+            hand = (hand + 1) % entries.length;
+            return true;
+        }
+
+        private void place(int position, Entry entry) {
+            entries[position] = entry;
+            referenced[position] = false;
+            positions.put(entry.hash, position);
+        }
+    }
+}
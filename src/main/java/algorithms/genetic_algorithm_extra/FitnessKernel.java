@@ -0,0 +1,407 @@
+package algorithms.genetic_algorithm_extra;
+
+import entities.Investment;
+import entities.Investor;
+import helpers.MathOperator;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Calculates the fitness of HardBoundaryChromosome genes on primitive arrays that are prepared once per problem:
+ * the annual yield and the product of every investment, and the capacity of every (investor, product) pair, i.e.
+ * how many investments into the product the investor wants.
+ *
+ * The fitness is the standard deviation of the average incomes of all investors. An investor that received an
+ * investment it does not want (or more investments into a product than it wants) is invalid and its average income
+ * is replaced by a penalty. The V invalid investors get the penalties -5000, -10000, ..., -5000 * V. The standard
+ * deviation does not depend on which investor gets which penalty, so the sum and the sum of squares of the
+ * penalties have a closed form.
+ *
+ * The kernel also holds the domain of every investment: the investors that want its product, in ascending order. The
+ * domains of all products are stored in two flat arrays (the start of each product and the investors one after
+ * another), so the random creation, the mutation and the repair only choose investors that can take the investment.
+ *
+ * Every chromosome keeps a State with the running sums, counts and overflows of every investor. When a single gene
+ * changes, only the two investors involved are updated and the new fitness is known in O(1).
+ */
+public class FitnessKernel {
+
+    private static final double penaltyStep = -5000;
+
+    private final int investorCount;
+    private final int productCount;
+    // Investment ID ---> annual yield and dense product index
+    private final double[] yields;
+    private final int[] products;
+    // investor * productCount + product ---> dense ID of the wanted pair, or -1 if the investor does not want it
+    private final int[] pairIndex;
+    // Pair ID ---> how many investments into the product the investor wants
+    private final int[] pairCapacity;
+    // Product ---> its investors are domainInvestors[domainStart[product] .. domainStart[product + 1] - 1]
+    private final int[] domainStart;
+    private final int[] domainInvestors;
+    // A hash of everything above, identifies the problem e.g. in a Checkpoint
+    private final long fingerprint;
+    // The fitness evaluations of all chromosomes of the problem, bumped concurrently by the breeding threads
+    private final LongAdder evaluations = new LongAdder();
+
+    /**
+     * Prepare the arrays of a problem. The IDs of the investors and investments are the keys of the maps and are
+     * expected to be 0, 1, 2, ...
+     * @param investorMap Unique ID ---> Investor
+     * @param investmentMap Unique ID ---> Investment
+     */
+    public FitnessKernel(Map<Integer, Investor> investorMap, Map<Integer, Investment> investmentMap) {
+        investorCount = investorMap.size();
+        int investmentCount = investmentMap.size();
+        yields = new double[investmentCount];
+        products = new int[investmentCount];
+
+        // Give the products of the investments dense indices, so the matrix only has columns that are used
+        Map<Integer, Integer> denseProducts = new HashMap<>();
+        for (int i = 0; i < investmentCount; i++) {
+            Investment investment = investmentMap.get(i);
+            yields[i] = investment.getAnnualYield();
+            products[i] = denseProducts.computeIfAbsent(investment.getProductIndex(), k -> denseProducts.size());
+        }
+        productCount = denseProducts.size();
+
+        pairIndex = new int[investorCount * productCount];
+        int[] capacities = new int[investorCount * productCount];
+        int pairs = 0;
+        for (int investor = 0; investor < investorCount; investor++) {
+            Investor entity = investorMap.get(investor);
+            for (Map.Entry<Integer, Integer> product : denseProducts.entrySet()) {
+                int cell = investor * productCount + product.getValue();
+                int wishes = entity.getWishCount(product.getKey());
+                if (wishes > 0) {
+                    capacities[pairs] = wishes;
+                    pairIndex[cell] = pairs++;
+                } else {
+                    pairIndex[cell] = -1;
+                }
+            }
+        }
+        pairCapacity = Arrays.copyOf(capacities, pairs);
+
+        domainStart = new int[productCount + 1];
+        for (int cell = 0; cell < pairIndex.length; cell++) {
+            if (pairIndex[cell] != -1) {
+                domainStart[cell % productCount + 1]++;
+            }
+        }
+        for (int product = 0; product < productCount; product++) {
+            domainStart[product + 1] += domainStart[product];
+        }
+        domainInvestors = new int[pairs];
+        int[] next = Arrays.copyOf(domainStart, productCount);
+        for (int investor = 0; investor < investorCount; investor++) {
+            for (int product = 0; product < productCount; product++) {
+                if (pairIndex[investor * productCount + product] != -1) {
+                    domainInvestors[next[product]++] = investor;
+                }
+            }
+        }
+        fingerprint = calculateFingerprint();
+    }
+
+    /**
+     * Create an empty state for a chromosome of this problem
+     * @return a new State
+     */
+    public State createState() {
+        return new State(investorCount, pairCapacity.length);
+    }
+
+    /**
+     * Recalculate a state from scratch. O(investments + investors)
+     * @param state the state which to overwrite
+     * @param genes Index ---> investment, value at offset + index ---> investor or -1 if the investment is not allocated
+     * @param offset the position of the first gene
+     * @param length the number of genes
+     */
+    public void rebuild(State state, int[] genes, int offset, int length) {
+        Arrays.fill(state.sums, 0);
+        Arrays.fill(state.counts, 0);
+        Arrays.fill(state.overflow, 0);
+        Arrays.fill(state.used, 0);
+        for (int i = 0; i < length; i++) {
+            int investor = genes[offset + i];
+            if (investor != -1) {
+                add(state, i, investor);
+            }
+        }
+        state.invalidCount = 0;
+        state.validSum = 0;
+        state.validSumOfSquares = 0;
+        for (int investor = 0; investor < investorCount; investor++) {
+            addContribution(state, investor, 1);
+        }
+        state.changesSinceRebuild = 0;
+    }
+
+    /**
+     * Update a state after one gene changed its investor. O(1)
+     * @param state the state of the chromosome
+     * @param index the position of the gene, i.e. the investment
+     * @param oldInvestor the investor before the change or -1
+     * @param newInvestor the investor after the change or -1
+     */
+    public void change(State state, int index, int oldInvestor, int newInvestor) {
+        if (oldInvestor == newInvestor) {
+            return;
+        }
+        if (oldInvestor != -1) {
+            addContribution(state, oldInvestor, -1);
+            remove(state, index, oldInvestor);
+            addContribution(state, oldInvestor, 1);
+        }
+        if (newInvestor != -1) {
+            addContribution(state, newInvestor, -1);
+            add(state, index, newInvestor);
+            addContribution(state, newInvestor, 1);
+        }
+        state.changesSinceRebuild++;
+    }
+
+    /**
+     * Get the fitness of a state. O(1)
+     * @param state the state of the chromosome
+     * @return the standard deviation of the average incomes, with the penalties of the invalid investors
+     */
+    public double getFitness(State state) {
+        double v = state.invalidCount;
+        // -5000 * (1 + 2 + ... + V) and 5000^2 * (1^2 + 2^2 + ... + V^2)
+        double penaltySum = penaltyStep * v * (v + 1) / 2;
+        double penaltySumOfSquares = penaltyStep * penaltyStep * v * (v + 1) * (2 * v + 1) / 6;
+        return MathOperator.getStandardDeviation(state.validSum + penaltySum,
+                state.validSumOfSquares + penaltySumOfSquares, investorCount);
+    }
+
+    /**
+     * Get the annual yield of an investment
+     * @param index the investment
+     * @return the annual yield
+     */
+    public double getYield(int index) {
+        return yields[index];
+    }
+
+    /**
+     * Get the number of investors that want the product of an investment
+     * @param index the investment
+     * @return the size of the domain
+     */
+    public int getDomainSize(int index) {
+        int product = products[index];
+        return domainStart[product + 1] - domainStart[product];
+    }
+
+    /**
+     * Get an investor that wants the product of an investment
+     * @param index the investment
+     * @param k the position in the domain, from 0 to getDomainSize(index) - 1
+     * @return the investor ID
+     */
+    public int getDomainInvestor(int index, int k) {
+        return domainInvestors[domainStart[products[index]] + k];
+    }
+
+    /**
+     * Get the position of an investor in the domain of an investment
+     * @param index the investment
+     * @param investor the investor ID
+     * @return the position or -1 if the investor does not want the product
+     */
+    public int getDomainPosition(int index, int investor) {
+        int product = products[index];
+        int found = Arrays.binarySearch(domainInvestors, domainStart[product], domainStart[product + 1], investor);
+        return found < 0 ? -1 : found - domainStart[product];
+    }
+
+    /**
+     * Get the (investor, product) pair of an investor and the product of an investment
+     * @param investor the investor ID
+     * @param index the investment
+     * @return the pair ID or -1 if the investor does not want the product
+     */
+    public int getPair(int investor, int index) {
+        return pairIndex[investor * productCount + products[index]];
+    }
+
+    /**
+     * Get the number of (investor, product) pairs
+     * @return the number of pairs
+     */
+    public int getPairCount() {
+        return pairCapacity.length;
+    }
+
+    /**
+     * Get how many investments into the product of a pair the investor wants
+     * @param pair the pair ID
+     * @return the capacity of the pair
+     */
+    public int getPairCapacity(int pair) {
+        return pairCapacity[pair];
+    }
+
+    /**
+     * Get the number of investments, which is the length of the genes
+     * @return the number of investments
+     */
+    public int getInvestmentCount() {
+        return yields.length;
+    }
+
+    /**
+     * Get the number of investors
+     * @return the number of investors
+     */
+    public int getInvestorCount() {
+        return investorCount;
+    }
+
+    /**
+     * Get a hash of the problem: the number of investors, the yields and products of the investments and the
+     * capacities of the investors. Two kernels of different problems almost certainly have different fingerprints.
+     * @return the fingerprint
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Count a fitness evaluation of a chromosome of this problem
+     */
+    public void countEvaluation() {
+        evaluations.increment();
+    }
+
+    /**
+     * Get the number of fitness evaluations since the kernel was created. A chromosome that did not change since its
+     * last evaluation or that found its fitness in the FitnessCache does not count.
+     * @return the number of evaluations
+     */
+    public long getEvaluationCount() {
+        return evaluations.sum();
+    }
+
+    /**
+     * Hash the arrays of the kernel
+     * @return the fingerprint
+     */
+    private long calculateFingerprint() {
+        long hash = 1125899906842597L;
+        hash = 31 * hash + investorCount;
+        hash = 31 * hash + productCount;
+        for (double yield : yields) {
+            hash = 31 * hash + Double.doubleToLongBits(yield);
+        }
+        for (int product : products) {
+            hash = 31 * hash + product;
+        }
+        for (int pair : pairIndex) {
+            hash = 31 * hash + pair;
+        }
+        for (int capacity : pairCapacity) {
+            hash = 31 * hash + capacity;
+        }
+        return hash;
+    }
+
+    /**
+     * Give an investment to an investor, without updating the totals
+     * @param state the state of the chromosome
+     * @param index the investment
+     * @param investor the investor
+     */
+    private void add(State state, int index, int investor) {
+        state.counts[investor]++;
+        state.sums[investor] += yields[index];
+        int pair = pairIndex[investor * productCount + products[index]];
+        if (pair == -1 || ++state.used[pair] > pairCapacity[pair]) {
+            state.overflow[investor]++;
+        }
+    }
+
+    /**
+     * Take an investment away from an investor, without updating the totals
+     * @param state the state of the chromosome
+     * @param index the investment
+     * @param investor the investor
+     */
+    private void remove(State state, int index, int investor) {
+        state.counts[investor]--;
+        state.sums[investor] -= yields[index];
+        if (state.counts[investor] == 0) {
+            // Do not let rounding errors leave a tiny income behind
+            state.sums[investor] = 0;
+        }
+        int pair = pairIndex[investor * productCount + products[index]];
+        if (pair == -1 || state.used[pair]-- > pairCapacity[pair]) {
+            state.overflow[investor]--;
+        }
+    }
+
+    /**
+     * Add or subtract the contribution of one investor to the totals
+     * @param state the state of the chromosome
+     * @param investor the investor
+     * @param sign 1 to add, -1 to subtract
+     */
+    private void addContribution(State state, int investor, int sign) {
+        if (state.counts[investor] == 0) {
+            return;
+        }
+        if (state.overflow[investor] > 0) {
+            state.invalidCount += sign;
+        } else {
+            double average = state.sums[investor] / state.counts[investor];
+            state.validSum += sign * average;
+            state.validSumOfSquares += sign * average * average;
+        }
+    }
+
+    /**
+     * The running totals of one chromosome
+     */
+    public static final class State {
+        // Investor ---> the sum of the annual yields, the number of investments and the number of unwanted ones
+        private final double[] sums;
+        private final int[] counts;
+        private final int[] overflow;
+        // Pair ID ---> how many investments into the product the investor received
+        private final int[] used;
+        private int invalidCount;
+        private double validSum;
+        private double validSumOfSquares;
+        private int changesSinceRebuild;
+
+        private State(int investorCount, int pairCount) {
+            sums = new double[investorCount];
+            counts = new int[investorCount];
+            overflow = new int[investorCount];
+            used = new int[pairCount];
+        }
+
+        /**
+         * Check if no investor received an investment it does not want
+         * @return true if the genes are valid
+         */
+        public boolean isValid() {
+            return invalidCount == 0;
+        }
+
+        /**
+         * Get the number of single-gene changes since the state was last recalculated from scratch
+         * @return the number of changes
+         */
+        public int getChangesSinceRebuild() {
+            return changesSinceRebuild;
+        }
+    }
+}
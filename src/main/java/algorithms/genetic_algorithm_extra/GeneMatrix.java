@@ -0,0 +1,102 @@
+package algorithms.genetic_algorithm_extra;
+
+import java.util.Arrays;
+
+/**
+ * The genes and the fitness values of a whole population in two flat arrays. Row r of the gene matrix holds the genes
+ * of chromosome r at positions r * length ... r * length + length - 1, and fitness[r] holds its fitness. Scanning the
+ * population therefore walks through contiguous memory instead of jumping between separate chromosome objects.
+ *
+ * The chromosomes are lightweight views of a single row (see HardBoundaryChromosome). A SoftBoundaryChromosome keeps
+ * its fractions itself and only its fitness in a matrix of length 0, so the Population scans the fitness values of
+ * both types in one array.
+ */
+public class GeneMatrix {
+
+    private final int rows;
+    private final int length;
+    private final int[] genes;
+    private final double[] fitness;
+
+    /**
+     * Create a matrix of zero genes
+     * @param rows the number of chromosomes
+     * @param length the number of genes of a chromosome
+     */
+    public GeneMatrix(int rows, int length) {
+        this.rows = rows;
+        this.length = length;
+        genes = new int[rows * length];
+        fitness = new double[rows];
+    }
+
+    /**
+     * Create a matrix with a single row that uses the given array as its genes (no copy is made)
+     * @param genes the genes of the only chromosome
+     */
+    public GeneMatrix(int[] genes) {
+        this.rows = 1;
+        this.length = genes.length;
+        this.genes = genes;
+        fitness = new double[1];
+    }
+
+    /**
+     * Get the number of chromosomes
+     * @return the number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Get the number of genes of a chromosome
+     * @return the length of a row
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Get the backing array of all genes. Row r starts at r * getLength().
+     * @return the gene matrix
+     */
+    int[] getGenes() {
+        return genes;
+    }
+
+    /**
+     * Get the backing array of all fitness values. Row r ---> fitness[r].
+     * @return the fitness values
+     */
+    double[] getFitnessValues() {
+        return fitness;
+    }
+
+    /**
+     * Get the fitness of a chromosome
+     * @param row the chromosome
+     * @return the fitness
+     */
+    public double getFitness(int row) {
+        return fitness[row];
+    }
+
+    /**
+     * Set the fitness of a chromosome
+     * @param row the chromosome
+     * @param value the fitness
+     */
+    public void setFitness(int row, double value) {
+        fitness[row] = value;
+    }
+
+    /**
+     * Get a copy of the genes of a chromosome
+     * @param row the chromosome
+     * @return a new array with the genes
+     */
+    public int[] copyRow(int row) {
+        return Arrays.copyOfRange(genes, row * length, row * length + length);
+    }
+}
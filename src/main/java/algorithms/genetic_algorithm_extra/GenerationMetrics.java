@@ -0,0 +1,157 @@
+package algorithms.genetic_algorithm_extra;
+
+import java.util.Locale;
+
+/**
+ * The metrics of a single generation of the GeneticAlgorithm, handed to a TelemetrySink. The statistics of the
+ * fitness are taken over the chromosomes of all islands.
+ */
+public final class GenerationMetrics {
+
+    private final int generation;
+    private final long elapsedMillis;
+    private final double bestFitness;
+    private final double meanFitness;
+    private final double worstFitness;
+    private final double diversity;
+    private final double validRatio;
+    private final long evaluations;
+    private final double evaluationsPerSecond;
+    private final long allocatedBytes;
+
+    /**
+     * Create the metrics of a generation
+     * @param generation the number of generations that have run
+     * @param elapsedMillis the time since the run started
+     * @param bestFitness the fitness of the fittest chromosome of the populations
+     * @param meanFitness the average fitness of the populations
+     * @param worstFitness the fitness of the least fit chromosome of the populations
+     * @param diversity the average diversity of the populations, see Population.getDiversity()
+     * @param validRatio the share of the chromosomes that are valid, between 0 and 1
+     * @param evaluations the fitness evaluations since the previous metrics, see FitnessKernel.getEvaluationCount()
+     * @param evaluationsPerSecond the fitness evaluations per second since the previous metrics
+     * @param allocatedBytes the bytes allocated since the previous metrics, or -1 if the JVM cannot measure them
+     */
+    public GenerationMetrics(int generation, long elapsedMillis, double bestFitness, double meanFitness,
+                             double worstFitness, double diversity, double validRatio, long evaluations,
+                             double evaluationsPerSecond, long allocatedBytes) {
+        this.generation = generation;
+        this.elapsedMillis = elapsedMillis;
+        this.bestFitness = bestFitness;
+        this.meanFitness = meanFitness;
+        this.worstFitness = worstFitness;
+        this.diversity = diversity;
+        this.validRatio = validRatio;
+        this.evaluations = evaluations;
+        this.evaluationsPerSecond = evaluationsPerSecond;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    /**
+     * Get the number of generations that have run
+     * @return the generation count
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Get the time since the run started
+     * @return the time in milliseconds
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Get the fitness of the fittest chromosome of the populations
+     * @return the best fitness
+     */
+    public double getBestFitness() {
+        return bestFitness;
+    }
+
+    /**
+     * Get the average fitness of the populations
+     * @return the mean fitness
+     */
+    public double getMeanFitness() {
+        return meanFitness;
+    }
+
+    /**
+     * Get the fitness of the least fit chromosome of the populations
+     * @return the worst fitness
+     */
+    public double getWorstFitness() {
+        return worstFitness;
+    }
+
+    /**
+     * Get the average diversity of the populations, see Population.getDiversity()
+     * @return the diversity between 0 and 1
+     */
+    public double getDiversity() {
+        return diversity;
+    }
+
+    /**
+     * Get the share of the chromosomes that are valid
+     * @return the ratio between 0 and 1
+     */
+    public double getValidRatio() {
+        return validRatio;
+    }
+
+    /**
+     * Get the fitness evaluations since the previous metrics. Chromosomes that did not change since their last
+     * evaluation and hits of the fitness cache are not counted.
+     * @return the number of evaluations
+     */
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * Get the fitness evaluations per second since the previous metrics
+     * @return the evaluations per second
+     */
+    public double getEvaluationsPerSecond() {
+        return evaluationsPerSecond;
+    }
+
+    /**
+     * Get the bytes allocated since the previous metrics
+     * @return the bytes or -1 if the JVM cannot measure them
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Get the metrics as a single line of JSON
+     * @return the JSON object
+     */
+    public String toJson() {
+        return String.format(Locale.ROOT, "{\"generation\":%d,\"elapsedMillis\":%d,\"bestFitness\":%s,"
+                        + "\"meanFitness\":%s,\"worstFitness\":%s,\"diversity\":%s,\"validRatio\":%s,"
+                        + "\"evaluations\":%d,\"evaluationsPerSecond\":%s,\"allocatedBytes\":%d}",
+                generation, elapsedMillis, number(bestFitness), number(meanFitness), number(worstFitness),
+                number(diversity), number(validRatio), evaluations, number(evaluationsPerSecond),
+                allocatedBytes);
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+
+    /**
+     * Get a double as a JSON number. JSON has no infinity or NaN, so they become null.
+     * @param value the value
+     * @return the JSON value
+     */
+    private static String number(double value) {
+        return Double.isFinite(value) ? Double.toString(value) : "null";
+    }
+}
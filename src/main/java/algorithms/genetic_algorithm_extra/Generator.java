@@ -3,36 +3,102 @@ package algorithms.genetic_algorithm_extra;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public class Generator {
     // ----- RESULT -----
-    private int[] fittestChromosomeGlobal;
+    // A copy of the fittest chromosome, so that the chromosomes of the population can keep changing
+    private AbstractChromosome fittestChromosomeGlobal;
     private Double fittestChromosomeFitness;
     // ----- ------ -----
 
     private static final Logger logger = LoggerFactory.getLogger(Generator.class);
-    private final Population population;
+    private Population population;
     private AbstractChromosome fittestChromosome;
     private AbstractChromosome secondFittestChromosome;
     private AbstractChromosome offSpringChromosome;
+    // The position the offspring replaces, found by the selection
+    private int leastFittestIndex;
     private final int populationSize;
+    private final ChromosomeType chromosomeType;
     private final ChromosomeFactory factory;
-    private final Data data = Data.getInstance();
-    private final Random random = new Random();
+    private final GeneticOperators operators;
+    private SplittableRandom random;
     private final boolean minimisationAlgorithm;
+    private final GeneticAlgorithmSettings settings;
+    // The chromosomes into which the next generation is bred (GENERATIONAL only), created on first use
+    private AbstractChromosome[] nextGeneration = null;
 
     /**
      * The constructor
+     * @param problem the investors and investments of this run
      * @param populationSize how many chromosomes to create
      * @param chromosomeType the type of the chromosomes
      * @param minimisationAlgorithm if this is going to be a minimisation problem or maximisation
      */
-    public Generator(int populationSize, ChromosomeType chromosomeType, boolean minimisationAlgorithm){
+    public Generator(ProblemInstance problem, int populationSize, ChromosomeType chromosomeType, boolean minimisationAlgorithm){
+        this(problem, new GeneticAlgorithmSettings().setPopulationSize(populationSize), chromosomeType,
+                minimisationAlgorithm, null);
+    }
+
+    /**
+     * The constructor
+     * @param problem the investors and investments of this run
+     * @param settings the population size and the seed of the random number generators
+     * @param chromosomeType the type of the chromosomes
+     * @param minimisationAlgorithm if this is going to be a minimisation problem or maximisation
+     * @param pool the pool that calculates the fitness of the population or null to calculate it on the calling thread
+     */
+    public Generator(ProblemInstance problem, GeneticAlgorithmSettings settings, ChromosomeType chromosomeType,
+                     boolean minimisationAlgorithm, ForkJoinPool pool){
+        this(problem, settings, chromosomeType, minimisationAlgorithm, pool, 0);
+    }
+
+    /**
+     * The constructor of one island of the island model
+     * @param problem the investors and investments of this run
+     * @param settings the population size and the seed of the random number generators
+     * @param chromosomeType the type of the chromosomes
+     * @param minimisationAlgorithm if this is going to be a minimisation problem or maximisation
+     * @param pool the pool that calculates the fitness of the population or null to calculate it on the calling thread
+     * @param island the number of the island, so that every island draws different random numbers
+     */
+    public Generator(ProblemInstance problem, GeneticAlgorithmSettings settings, ChromosomeType chromosomeType,
+                     boolean minimisationAlgorithm, ForkJoinPool pool, int island){
+        this(problem, settings, chromosomeType, minimisationAlgorithm, pool, island, null);
+    }
+
+    /**
+     * The constructor of one island of the island model
+     * @param problem the investors and investments of this run
+     * @param settings the population size and the seed of the random number generators
+     * @param chromosomeType the type of the chromosomes
+     * @param minimisationAlgorithm if this is going to be a minimisation problem or maximisation
+     * @param pool the pool that calculates the fitness of the population or null to calculate it on the calling thread
+     * @param island the number of the island, so that every island draws different random numbers
+     * @param cache the fitness cache shared by the islands or null to not use any
+     */
+    public Generator(ProblemInstance problem, GeneticAlgorithmSettings settings, ChromosomeType chromosomeType,
+                     boolean minimisationAlgorithm, ForkJoinPool pool, int island, FitnessCache cache){
         logger.info("Creating a new generator");
-        this.populationSize = populationSize;
-        factory = new ChromosomeFactory(chromosomeType);
+        this.populationSize = settings.getPopulationSize();
+        this.settings = settings;
+        this.chromosomeType = chromosomeType;
+        // All random numbers of an island are drawn on one thread, so a fixed seed gives the same run on any pool
+        random = settings.createRandom(2 * island);
+        factory = new ChromosomeFactory(problem, chromosomeType, settings.createRandom(2 * island + 1), cache);
+        operators = factory.getOperators();
         logger.info("Creating a new population of " + chromosomeType + ". Population size: " + populationSize);
-        population = generateNewPopulation(minimisationAlgorithm);
+        population = generateNewPopulation(minimisationAlgorithm, pool);
+        int seeds = (int) Math.round(settings.getGreedySeedFraction() * populationSize);
+        if (seeds > 0) {
+            logger.info("Seeding " + seeds + " chromosomes from the greedy allocation");
+            // In the split model of the SoftBoundaryChromosome a wish is not used up
+            GreedySeeder seeder = new GreedySeeder(problem, chromosomeType == ChromosomeType.HARD_BOUNDARY);
+            seeder.seed(population.getChromosomes(), seeds, operators,
+                    settings.getSeedPerturbationRate(), random);
+        }
         this.minimisationAlgorithm = minimisationAlgorithm;
         fittestChromosomeGlobal = null;
         fittestChromosomeFitness = null;
@@ -41,75 +107,167 @@ public class Generator {
 
     /**
      * If n is the size of the population, then create n random chromosomes
+     * @param minimisationAlgorithm if this is going to be a minimisation problem or maximisation
+     * @param pool the pool that calculates the fitness of the population or null
      * @return a new Population
      */
-    private Population generateNewPopulation(boolean minimisationAlgorithm) {
-        AbstractChromosome[] chromosomes = new AbstractChromosome[populationSize];
-        for(int i = 0; i < populationSize; i++) {
-            chromosomes[i] = factory.createRandomChromosome();
+    private Population generateNewPopulation(boolean minimisationAlgorithm, ForkJoinPool pool) {
+        AbstractChromosome[] chromosomes = factory.createRandomPopulation(populationSize);
+        return new Population(populationSize, minimisationAlgorithm, chromosomes, pool);
+    }
+
+    /**
+     * Replace the population with random chromosomes and the best chromosome found so far
+     */
+    public void restart() {
+        population = generateNewPopulation(minimisationAlgorithm, population.getPool());
+        population.calculateAllFitness();
+        if (fittestChromosomeGlobal != null) {
+            population.replace(0, fittestChromosomeGlobal);
+        }
+    }
+
+    /**
+     * Perform the operations of a single generation
+     * @param mutationRate The probability that a gene in a chromosome will be mutated
+     */
+    public void nextGeneration(double mutationRate) {
+        if (settings.getBreedingMode() == BreedingMode.GENERATIONAL) {
+            breedGeneration(mutationRate);
+            return;
+        }
+        // Perform selection
+        selection();
+        // Perform crossover
+        crossover();
+        // Perform mutation
+        mutation(mutationRate);
+        // Add the fittest offspring to the population in the place of the weakest entry
+        addOffSpring();
+        // Calculate new fitness value
+        population.calculateAllFitness();
+    }
+
+    /**
+     * Replace the whole population with a new generation. The population is ranked once. The elites are copied,
+     * every other offspring gets two parents chosen by tournaments, crossover and mutation. The offspring
+     * are bred and evaluated in parallel if the population has a pool.
+     * @param mutationRate The probability that a gene of an offspring will be mutated
+     */
+    private void breedGeneration(double mutationRate) {
+        AbstractChromosome[] parents = population.getChromosomes();
+        int[] ranking = population.rank();
+        int[] rankOf = new int[ranking.length];
+        for (int r = 0; r < ranking.length; r++) {
+            rankOf[ranking[r]] = r;
         }
-        return new Population(populationSize, minimisationAlgorithm, chromosomes);
+        updateFittestChromosome(parents[ranking[0]]);
+        if (nextGeneration == null) {
+            nextGeneration = factory.createEmptyPopulation(populationSize);
+        }
+        // Every offspring gets its own stream, seeded here, so the result does not depend on the threads
+        long[] seeds = new long[populationSize];
+        for (int j = 0; j < populationSize; j++) {
+            seeds[j] = random.nextLong();
+        }
+        BreedingTask task = new BreedingTask(parents, ranking, rankOf, seeds, mutationRate, 0, populationSize);
+        if (population.getPool() == null) {
+            task.compute();
+        } else {
+            population.getPool().invoke(task);
+        }
+        nextGeneration = population.swapChromosomes(nextGeneration);
+    }
+
+    /**
+     * Breed a single offspring of the next generation and calculate its fitness
+     * @param parents the current population
+     * @param ranking the positions of the parents, the fittest first
+     * @param rankOf position of a parent ---> its rank
+     * @param j the position of the offspring
+     * @param seed the seed of the offspring
+     * @param mutationRate The probability that a gene will be mutated
+     */
+    private void breed(AbstractChromosome[] parents, int[] ranking, int[] rankOf, int j, long seed, double mutationRate) {
+        AbstractChromosome offspring = nextGeneration[j];
+        if (j < Math.min(settings.getEliteCount(), populationSize)) {
+            offspring.copyFrom(parents[ranking[j]]);
+        } else {
+            SplittableRandom offspringRandom = new SplittableRandom(seed);
+            AbstractChromosome father = parents[tournament(rankOf, offspringRandom)];
+            AbstractChromosome mother = parents[tournament(rankOf, offspringRandom)];
+            operators.crossover(father, mother, offspring, offspringRandom);
+            operators.mutate(offspring, new MutationSampler(mutationRate), offspringRandom);
+            if (settings.getLocalSearchSteps() > 0) {
+                operators.improve(offspring, settings.getLocalSearchSteps(), minimisationAlgorithm, offspringRandom);
+            }
+        }
+        offspring.calcFitness();
     }
 
     /**
-     * Select the two fittest chromosomes
+     * Choose a parent: the best of a few randomly drawn chromosomes
+     * @param rankOf position of a chromosome ---> its rank
+     * @param random the random number generator of the offspring
+     * @return the position of the winner
+     */
+    private int tournament(int[] rankOf, SplittableRandom random) {
+        int winner = random.nextInt(rankOf.length);
+        for (int t = 1; t < settings.getTournamentSize(); t++) {
+            int candidate = random.nextInt(rankOf.length);
+            if (rankOf[candidate] < rankOf[winner]) {
+                winner = candidate;
+            }
+        }
+        return winner;
+    }
+
+    /**
+     * Select the two fittest chromosomes, and the least fit one which the offspring replaces, in a single pass over
+     * the population. The mutation does not recalculate the fitness, so the least fit chromosome is still the same
+     * when the offspring is added.
      */
     public void selection(){
-        fittestChromosome = population.getFittestChromosome();
-        secondFittestChromosome = population.getSecondFittestChromosome();
+        int[] selected = population.selectExtremes();
+        AbstractChromosome[] chromosomes = population.getChromosomes();
+        fittestChromosome = chromosomes[selected[0]];
+        secondFittestChromosome = chromosomes[selected[1]];
+        leastFittestIndex = selected[2];
         updateFittestChromosome(fittestChromosome);
     }
 
     /**
-     * Perform crossover operator on the population
-     * Uniform Crossover Operator
+     * Perform the crossover operator of the chromosome type on the two fittest chromosomes
      */
     public void crossover(){
         AbstractChromosome offSpring = factory.createEmptyChromosome();
         AbstractChromosome father = fittestChromosome;
         AbstractChromosome mother = secondFittestChromosome;
 
-        // Choose each gene for the child randomly from parent genes
-        for(int i=0;i<fittestChromosome.getLength();i++) {
-            int fatherGene = father.getGeneAtIndex(i);
-            int motherGene = mother.getGeneAtIndex(i);
-            double rand = Math.random();
-            if(rand < 0.5){
-                offSpring.setGeneAtIndex(i, fatherGene);
-            } else {
-                offSpring.setGeneAtIndex(i, motherGene);
-            }
+        operators.crossover(father, mother, offSpring, random);
+        if (settings.getLocalSearchSteps() > 0) {
+            operators.improve(offSpring, settings.getLocalSearchSteps(), minimisationAlgorithm, random);
         }
         offSpringChromosome = offSpring;
     }
 
     /**
-     * Perform the random mutation on each of the chromosomes in the population
+     * Perform the mutation operator of the chromosome type on each of the chromosomes in the population. Only the
+     * positions that mutate are drawn.
      * @param mutationRate The probability that a gene in a chromosome will be mutated
      */
     public void mutation(double mutationRate){
-        Set<Integer> valuesThatGeneCanTake = data.getInvestorMap().keySet();
-        for(AbstractChromosome chromosome : population.getChromosomes()) {
-            // For each gene within the chromosome
-            for(int i = 0; i < chromosome.getLength(); i++) {
-                // Check if the gene should be mutated based on mutation rate
-                if(random.nextDouble() < mutationRate) {
-                    int oldValue = chromosome.getGeneAtIndex(i);
-                    List<Integer> possibleNewValues = new ArrayList<>(valuesThatGeneCanTake);
-                    possibleNewValues.remove(Integer.valueOf(oldValue)); // remove the old value from the possible new values
-                    int newValue = possibleNewValues.get(random.nextInt(possibleNewValues.size())); // select a new value randomly
-                    chromosome.setGeneAtIndex(i, newValue); // update the chromosome with the new gene
-                }
-            }
+        MutationSampler sampler = new MutationSampler(mutationRate);
+        for (AbstractChromosome chromosome : population.getChromosomes()) {
+            operators.mutate(chromosome, sampler, random);
         }
     }
 
     /**
-     * Put the new offspring into the place of the least-fittest chromosome
+     * Put the new offspring into the place of the least-fittest chromosome found by the selection
      */
     public void addOffSpring(){
-        int leastFittestIndex = population.getLeastFittestIndex();
-        population.getChromosomes()[leastFittestIndex] = offSpringChromosome;
+        population.replace(leastFittestIndex, offSpringChromosome);
     }
 
     /**
@@ -125,9 +283,70 @@ public class Generator {
      * @return the fittest chromosome
      */
     public int[] getFittestChromosomeAllocations() {
+        return fittestChromosomeGlobal == null ? null : fittestChromosomeGlobal.getSlots();
+    }
+
+    /**
+     * Used to retrieve a copy of the fittest chromosome over the whole generation, e.g. to read the fractions of a
+     * SoftBoundaryChromosome
+     * @return the fittest chromosome or null if no generation has run yet
+     */
+    public AbstractChromosome getFittestChromosome() {
         return fittestChromosomeGlobal;
     }
 
+    /**
+     * Get the type of the chromosomes
+     * @return the chromosome type
+     */
+    public ChromosomeType getChromosomeType() {
+        return chromosomeType;
+    }
+
+    /**
+     * Draw a new seed and restart both random number generators from it. A checkpoint stores the seed, because the
+     * state of a SplittableRandom cannot be read, so a run restored from the checkpoint draws the same numbers.
+     * @return the new seed
+     */
+    long reseed() {
+        long seed = random.nextLong();
+        restoreRandom(seed);
+        return seed;
+    }
+
+    /**
+     * Restart both random number generators from a seed returned by reseed()
+     * @param seed the seed
+     */
+    void restoreRandom(long seed) {
+        random = new SplittableRandom(seed);
+        factory.setRandom(random.split());
+    }
+
+    /**
+     * Replace the fittest chromosome found so far, e.g. when a checkpoint is restored
+     * @param chromosome the chromosome which to copy
+     * @param fitness its fitness
+     */
+    void restoreFittestChromosome(AbstractChromosome chromosome, double fitness) {
+        if (fittestChromosomeGlobal == null) {
+            fittestChromosomeGlobal = factory.createEmptyChromosome();
+        }
+        fittestChromosomeGlobal.copyFrom(chromosome);
+        fittestChromosomeFitness = fitness;
+    }
+
+    /**
+     * Copy a chromosome into a new chromosome that does not belong to any population
+     * @param chromosome the chromosome which to copy
+     * @return the copy
+     */
+    public AbstractChromosome copyChromosome(AbstractChromosome chromosome) {
+        AbstractChromosome copy = factory.createEmptyChromosome();
+        copy.copyFrom(chromosome);
+        return copy;
+    }
+
     /**
      * Get the fitness of the fittest valid chromosome
      * @return return the fitness value of the chromosome
@@ -149,8 +368,8 @@ public class Generator {
                 updateFittestChromosomeForMaximisation(chromosome);
             }
         } else {
-            fittestChromosomeGlobal = chromosome.getSlots();
-            fittestChromosomeFitness = chromosome.getFitness();
+            fittestChromosomeGlobal = factory.createEmptyChromosome();
+            storeFittestChromosome(chromosome);
         }
     }
 
@@ -160,8 +379,7 @@ public class Generator {
      */
     private void updateFittestChromosomeForMinimisation(AbstractChromosome chromosome) {
         if(chromosome.getFitness() <= fittestChromosomeFitness) {
-            fittestChromosomeGlobal = chromosome.getSlots();
-            fittestChromosomeFitness = chromosome.getFitness();
+            storeFittestChromosome(chromosome);
         }
     }
 
@@ -171,9 +389,56 @@ public class Generator {
      */
     private void updateFittestChromosomeForMaximisation(AbstractChromosome chromosome) {
         if(chromosome.getFitness() >= fittestChromosomeFitness) {
-            fittestChromosomeGlobal = chromosome.getSlots();
-            fittestChromosomeFitness = chromosome.getFitness();
+            storeFittestChromosome(chromosome);
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Copy a chromosome into the fittest chromosome
+     * @param chromosome Chromosome to copy
+     */
+    private void storeFittestChromosome(AbstractChromosome chromosome) {
+        // The copy keeps its genes while the chromosome keeps changing in the later generations
+        fittestChromosomeGlobal.copyFrom(chromosome);
+        fittestChromosomeFitness = chromosome.getFitness();
+    }
+
+    /**
+     * Breeds a range of the offspring, splitting the range in halves until it is small enough
+     */
+    private final class BreedingTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private static final int batchSize = 4;
+        private final AbstractChromosome[] parents;
+        private final int[] ranking;
+        private final int[] rankOf;
+        private final long[] seeds;
+        private final double mutationRate;
+        private final int from;
+        private final int to;
+
+        private BreedingTask(AbstractChromosome[] parents, int[] ranking, int[] rankOf, long[] seeds,
+                             double mutationRate, int from, int to) {
+            this.parents = parents;
+            this.ranking = ranking;
+            this.rankOf = rankOf;
+            this.seeds = seeds;
+            this.mutationRate = mutationRate;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= batchSize) {
+                for (int j = from; j < to; j++) {
+                    breed(parents, ranking, rankOf, j, seeds[j], mutationRate);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new BreedingTask(parents, ranking, rankOf, seeds, mutationRate, from, middle),
+                    new BreedingTask(parents, ranking, rankOf, seeds, mutationRate, middle, to));
+        }
+    }
+}
@@ -0,0 +1,593 @@
+package algorithms.genetic_algorithm_extra;
+
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The hyperparameters and the execution settings of the GeneticAlgorithm. The defaults are the values the algorithm
+ * has always used, except that it may stop after minGenerations once the best fitness stops improving. Every setter
+ * returns the settings, so they can be chained.
+ */
+public class GeneticAlgorithmSettings {
+
+    // HYPER PARAMETERS
+    private int populationSize = 200;
+    private int minGenerations = 50;
+    private int maxGenerations = 200;
+    private double mutationRate = 0.05;
+
+    // STOPPING
+    private int stallGenerations = 50;
+    private double minDiversity = 0;
+    private long timeBudgetMillis = 0;
+    private int maxRestarts = 0;
+
+    // FITNESS CACHE
+    private int fitnessCacheSize = 4096;
+
+    // BREEDING
+    private BreedingMode breedingMode = BreedingMode.STEADY_STATE;
+    private int eliteCount = 2;
+    private int tournamentSize = 3;
+
+    // MEMETIC
+    private double greedySeedFraction = 0;
+    private double seedPerturbationRate = 0.1;
+    private int localSearchSteps = 0;
+
+    // CHECKPOINTS
+    private Path checkpointPath = null;
+    private int checkpointInterval = 50;
+
+    // TELEMETRY
+    private TelemetrySink telemetrySink = null;
+    private int telemetryInterval = 1;
+
+    // ISLAND MODEL
+    private int islandCount = 1;
+    private int migrationInterval = 10;
+    private MigrationTopology migrationTopology = MigrationTopology.RING;
+
+    // EXECUTION
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private ForkJoinPool pool = null;
+    private Long seed = null;
+
+    /**
+     * Get the number of chromosomes in the population
+     * @return the population size
+     */
+    public int getPopulationSize() {
+        return populationSize;
+    }
+
+    /**
+     * Set the number of chromosomes in the population
+     * @param populationSize the population size
+     * @return these settings
+     */
+    public GeneticAlgorithmSettings setPopulationSize(int populationSize) {
+        this.populationSize = populationSize;
+        return this;
+    }
+
+    /**
+     * Get the minimum number of generations
+     * @return the minimum number of generations
+     */
+    public int getMinGenerations() {
+        return minGenerations;
+    }
+
+    /**
+     * Set the minimum number of generations
+     * @param minGenerations the minimum number of generations
+     * @return these settings
+     */
+    public GeneticAlgorithmSettings setMinGenerations(int minGenerations) {
+        this.minGenerations = minGenerations;
+        return this;
+    }
+
+    /**
+     * Get the maximum number of generations
+     * @return the maximum number of generations
+     */
+    public int getMaxGenerations() {
+        return maxGenerations;
+    }
+
+    /**
+     * Set the maximum number of generations
+     * @param maxGenerations the maximum number of generations
+     * @return these settings
+     */
+    public GeneticAlgorithmSettings setMaxGenerations(int maxGenerations) {
+        this.maxGenerations = maxGenerations;
+        return this;
+    }
+
+    /**
+     * Get the probability that a gene is mutated
+     * @return the mutation rate
+     */
+    public double getMutationRate() {
+        return mutationRate;
+    }
+
+    /**
+     * Set the probability that a gene is mutated
+     * @param mutationRate the mutation rate
+     * @return these settings
+     */
+    public GeneticAlgorithmSettings setMutationRate(double mutationRate) {
+        this.mutationRate = mutationRate;
+        return this;
+    }
+
+    /**
+     * Get the number of generations without an improvement of the best fitness after which the algorithm stops
+     * @return the length of the improvement window, 0 if the window is not used
+     */
+    public int getStallGenerations() {
+        return stallGenerations;
+    }
+
+    /**
+     * Set the number of generations without an improvement of the best fitness after which the algorithm stops
+     * (or restarts). Only checked after minGenerations.
+     * @param stallGenerations the length of the improvement window, 0 to always run maxGenerations
+     * @return these settings
+     * @throws IllegalArgumentException if the number is negative
+     */
+    public GeneticAlgorithmSettings setStallGenerations(int stallGenerations) throws IllegalArgumentException {
+        if (stallGenerations < 0) {
+            throw new IllegalArgumentException("The number of stall generations cannot be negative, but was " + stallGenerations);
+        }
+        this.stallGenerations = stallGenerations;
+        return this;
+    }
+
+    /**
+     * Get the diversity below which the algorithm stops
+     * @return the minimum diversity, 0 if it is not checked
+     */
+    public double getMinDiversity() {
+        return minDiversity;
+    }
+
+    /**
+     * Set the diversity below which the algorithm stops (or restarts). The diversity is the share of the genes that
+     * differ from the genes of the fittest chromosome. Only checked after minGenerations.
+     * @param minDiversity the minimum diversity between 0 and 1, 0 to never check it
+     * @return these settings
+     * @throws IllegalArgumentException if the value is not between 0 and 1
+     */
+    public GeneticAlgorithmSettings setMinDiversity(double minDiversity) throws IllegalArgumentException {
+        if (minDiversity < 0 || minDiversity > 1) {
+            throw new IllegalArgumentException("The minimum diversity must be between 0 and 1, but was " + minDiversity);
+        }
+        this.minDiversity = minDiversity;
+        return this;
+    }
+
+    /**
+     * Get the wall-clock time after which the algorithm stops
+     * @return the time budget in milliseconds, 0 if there is none
+     */
+    public long getTimeBudgetMillis() {
+        return timeBudgetMillis;
+    }
+
+    /**
+     * Set the wall-clock time after which the algorithm stops, even before minGenerations. The budget is checked
+     * between migrations, so the run can take a little longer.
+     * @param timeBudgetMillis the time budget in milliseconds, 0 for no budget
+     * @return these settings
+     * @throws IllegalArgumentException if the budget is negative
+     */
+    public GeneticAlgorithmSettings setTimeBudgetMillis(long timeBudgetMillis) throws IllegalArgumentException {
+        if (timeBudgetMillis < 0) {
+            throw new IllegalArgumentException("The time budget cannot be negative, but was " + timeBudgetMillis);
+        }
+        this.timeBudgetMillis = timeBudgetMillis;
+        return this;
+    }
+
+    /**
+     * Get how many times the populations may be restarted when the search stagnates
+     * @return the maximum number of restarts
+     */
+    public int getMaxRestarts() {
+        return maxRestarts;
+    }
+
+    /**
+     * Set how many times the populations may be restarted when the search stagnates or loses its diversity. A
+     * restart replaces every population with random chromosomes and the best chromosome found so far.
+     * @param maxRestarts the maximum number of restarts, 0 to stop instead
+     * @return these settings
+     * @throws IllegalArgumentException if the number is negative
+     */
+    public GeneticAlgorithmSettings setMaxRestarts(int maxRestarts) throws IllegalArgumentException {
+        if (maxRestarts < 0) {
+            throw new IllegalArgumentException("The number of restarts cannot be negative, but was " + maxRestarts);
+        }
+        this.maxRestarts = maxRestarts;
+        return this;
+    }
+
+    /**
+     * Get the maximum number of fitness values kept in the fitness cache
+     * @return the capacity of the cache, 0 if there is no cache
+     */
+    public int getFitnessCacheSize() {
+        return fitnessCacheSize;
+    }
+
+    /**
+     * Set the maximum number of fitness values kept in the fitness cache. A HardBoundaryChromosome asks the cache
+     * when a quarter or more of its genes changed since its last evaluation, i.e. the random chromosomes of a new
+     * population, crossover offspring and offspring copied into the population. Chromosomes changed by a mutation or
+     * a local search step are updated by deltas, which is cheaper than a lookup.
+     * @param fitnessCacheSize the capacity of the cache, 0 to not cache the fitness
+     * @return these settings
+     * @throws IllegalArgumentException if the size is negative
+     */
+    public GeneticAlgorithmSettings setFitnessCacheSize(int fitnessCacheSize) throws IllegalArgumentException {
+        if (fitnessCacheSize < 0) {
+            throw new IllegalArgumentException("The size of the fitness cache cannot be negative, but was " + fitnessCacheSize);
+        }
+        this.fitnessCacheSize = fitnessCacheSize;
+        return this;
+    }
+
+    /**
+     * Get how the next generation is produced
+     * @return the breeding mode
+     */
+    public BreedingMode getBreedingMode() {
+        return breedingMode;
+    }
+
+    /**
+     * Set how the next generation is produced
+     * @param breedingMode the breeding mode
+     * @return these settings
+     */
+    public GeneticAlgorithmSettings setBreedingMode(BreedingMode breedingMode) {
+        this.breedingMode = breedingMode;
+        return this;
+    }
+
+    /**
+     * Get the number of the best chromosomes that are copied unchanged into the next generation (GENERATIONAL only)
+     * @return the number of elites
+     */
+    public int getEliteCount() {
+        return eliteCount;
+    }
+
+    /**
+     * Set the number of the best chromosomes that are copied unchanged into the next generation (GENERATIONAL only)
+     * @param eliteCount the number of elites, at least 0
+     * @return these settings
+     * @throws IllegalArgumentException if the number is negative
+     */
+    public GeneticAlgorithmSettings setEliteCount(int eliteCount) throws IllegalArgumentException {
+        if (eliteCount < 0) {
+            throw new IllegalArgumentException("The number of elites cannot be negative, but was " + eliteCount);
+        }
+        this.eliteCount = eliteCount;
+        return this;
+    }
+
+    /**
+     * Get the number of chromosomes that compete in a tournament for becoming a parent (GENERATIONAL only)
+     * @return the tournament size
+     */
+    public int getTournamentSize() {
+        return tournamentSize;
+    }
+
+    /**
+     * Set the number of chromosomes that compete in a tournament for becoming a parent (GENERATIONAL only)
+     * @param tournamentSize the tournament size, at least 1
+     * @return these settings
+     * @throws IllegalArgumentException if the size is smaller than 1
+     */
+    public GeneticAlgorithmSettings setTournamentSize(int tournamentSize) throws IllegalArgumentException {
+        if (tournamentSize < 1) {
+            throw new IllegalArgumentException("The tournament size must be at least 1, but was " + tournamentSize);
+        }
+        this.tournamentSize = tournamentSize;
+        return this;
+    }
+
+    /**
+     * Get the part of the initial population that is seeded from the greedy allocation
+     * @return the fraction between 0 and 1
+     */
+    public double getGreedySeedFraction() {
+        return greedySeedFraction;
+    }
+
+    /**
+     * Set the part of the initial population that is seeded from the greedy allocation. The first seed is the greedy
+     * allocation itself, the others are perturbed copies of it. The rest of the population is random.
+     * @param greedySeedFraction the fraction between 0 (no seeds) and 1 (no random chromosomes)
+     * @return these settings
+     * @throws IllegalArgumentException if the fraction is not between 0 and 1
+     */
+    public GeneticAlgorithmSettings setGreedySeedFraction(double greedySeedFraction) throws IllegalArgumentException {
+        if (!(greedySeedFraction >= 0 && greedySeedFraction <= 1)) {
+            throw new IllegalArgumentException("The greedy seed fraction must be between 0 and 1, but was " + greedySeedFraction);
+        }
+        this.greedySeedFraction = greedySeedFraction;
+        return this;
+    }
+
+    /**
+     * Get the probability that a gene of a perturbed greedy seed is mutated
+     * @return the perturbation rate
+     */
+    public double getSeedPerturbationRate() {
+        return seedPerturbationRate;
+    }
+
+    /**
+     * Set the probability that a gene of a perturbed greedy seed is mutated
+     * @param seedPerturbationRate the perturbation rate between 0 and 1
+     * @return these settings
+     * @throws IllegalArgumentException if the rate is not between 0 and 1
+     */
+    public GeneticAlgorithmSettings setSeedPerturbationRate(double seedPerturbationRate) throws IllegalArgumentException {
+        if (!(seedPerturbationRate >= 0 && seedPerturbationRate <= 1)) {
+            throw new IllegalArgumentException("The seed perturbation rate must be between 0 and 1, but was " + seedPerturbationRate);
+        }
+        this.seedPerturbationRate = seedPerturbationRate;
+        return this;
+    }
+
+    /**
+     * Get the number of local improvement steps every offspring gets
+     * @return the number of steps, 0 if the offspring are not improved
+     */
+    public int getLocalSearchSteps() {
+        return localSearchSteps;
+    }
+
+    /**
+     * Set the number of local improvement steps every offspring gets. A step tries to improve a single random
+     * investment, see GeneticOperators.improve.
+     * @param localSearchSteps the number of steps, 0 to not improve the offspring
+     * @return these settings
+     * @throws IllegalArgumentException if the number is negative
+     */
+    public GeneticAlgorithmSettings setLocalSearchSteps(int localSearchSteps) throws IllegalArgumentException {
+        if (localSearchSteps < 0) {
+            throw new IllegalArgumentException("The number of local search steps cannot be negative, but was " + localSearchSteps);
+        }
+        this.localSearchSteps = localSearchSteps;
+        return this;
+    }
+
+    /**
+     * Get the file into which the state of the run is checkpointed
+     * @return the path or null if no checkpoints are written
+     */
+    public Path getCheckpointPath() {
+        return checkpointPath;
+    }
+
+    /**
+     * Set the file into which the state of the run is checkpointed. Every run adds the fingerprint of its problem to
+     * the name (run.checkpoint becomes run-<fingerprint>.checkpoint), so runs of different problems that share these
+     * settings write different files. If the file exists when a run starts, the run resumes from it. The file is
+     * deleted when the run finishes.
+     * @param checkpointPath the path or null to not write checkpoints
+     * @return these settings
+     */
+    public GeneticAlgorithmSettings setCheckpointPath(Path checkpointPath) {
+        this.checkpointPath = checkpointPath;
+        return this;
+    }
+
+    /**
+     * Get the minimum number of generations between two checkpoints
+     * @return the checkpoint interval
+     */
+    public int getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    /**
+     * Set the minimum number of generations between two checkpoints. A checkpoint is only written between two
+     * migrations, so the actual interval is rounded up to the migration interval.
+     * @param checkpointInterval the checkpoint interval, at least 1
+     * @return these settings
+     * @throws IllegalArgumentException if the interval is smaller than 1
+     */
+    public GeneticAlgorithmSettings setCheckpointInterval(int checkpointInterval) throws IllegalArgumentException {
+        if (checkpointInterval < 1) {
+            throw new IllegalArgumentException("The checkpoint interval must be at least 1, but was " + checkpointInterval);
+        }
+        this.checkpointInterval = checkpointInterval;
+        return this;
+    }
+
+    /**
+     * Get the sink that receives the metrics of the generations
+     * @return the sink or null if no metrics are recorded
+     */
+    public TelemetrySink getTelemetrySink() {
+        return telemetrySink;
+    }
+
+    /**
+     * Set the sink that receives the metrics of the generations, e.g. a JsonLinesTelemetrySink or a
+     * RingBufferTelemetrySink
+     * @param telemetrySink the sink or null to not record any metrics
+     * @return these settings
+     */
+    public GeneticAlgorithmSettings setTelemetrySink(TelemetrySink telemetrySink) {
+        this.telemetrySink = telemetrySink;
+        return this;
+    }
+
+    /**
+     * Get the number of generations between two metrics
+     * @return the telemetry interval
+     */
+    public int getTelemetryInterval() {
+        return telemetryInterval;
+    }
+
+    /**
+     * Set the number of generations between two metrics. The metrics are also recorded before every migration.
+     * @param telemetryInterval the telemetry interval, at least 1
+     * @return these settings
+     * @throws IllegalArgumentException if the interval is smaller than 1
+     */
+    public GeneticAlgorithmSettings setTelemetryInterval(int telemetryInterval) throws IllegalArgumentException {
+        if (telemetryInterval < 1) {
+            throw new IllegalArgumentException("The telemetry interval must be at least 1, but was " + telemetryInterval);
+        }
+        this.telemetryInterval = telemetryInterval;
+        return this;
+    }
+
+    /**
+     * Get the number of islands, each of them with its own population
+     * @return the number of islands
+     */
+    public int getIslandCount() {
+        return islandCount;
+    }
+
+    /**
+     * Set the number of islands. With more than one island, the islands evolve in parallel and the fitness of each
+     * population is calculated on the thread of its island.
+     * @param islandCount the number of islands, at least 1
+     * @return these settings
+     * @throws IllegalArgumentException if the number of islands is smaller than 1
+     */
+    public GeneticAlgorithmSettings setIslandCount(int islandCount) throws IllegalArgumentException {
+        if (islandCount < 1) {
+            throw new IllegalArgumentException("The number of islands must be at least 1, but was " + islandCount);
+        }
+        this.islandCount = islandCount;
+        return this;
+    }
+
+    /**
+     * Get the number of generations between two migrations
+     * @return the migration interval
+     */
+    public int getMigrationInterval() {
+        return migrationInterval;
+    }
+
+    /**
+     * Set the number of generations between two migrations
+     * @param migrationInterval the migration interval, at least 1
+     * @return these settings
+     * @throws IllegalArgumentException if the interval is smaller than 1
+     */
+    public GeneticAlgorithmSettings setMigrationInterval(int migrationInterval) throws IllegalArgumentException {
+        if (migrationInterval < 1) {
+            throw new IllegalArgumentException("The migration interval must be at least 1, but was " + migrationInterval);
+        }
+        this.migrationInterval = migrationInterval;
+        return this;
+    }
+
+    /**
+     * Get which islands exchange their best chromosomes
+     * @return the migration topology
+     */
+    public MigrationTopology getMigrationTopology() {
+        return migrationTopology;
+    }
+
+    /**
+     * Set which islands exchange their best chromosomes
+     * @param migrationTopology the migration topology
+     * @return these settings
+     */
+    public GeneticAlgorithmSettings setMigrationTopology(MigrationTopology migrationTopology) {
+        this.migrationTopology = migrationTopology;
+        return this;
+    }
+
+    /**
+     * Get the number of threads that calculate the fitness of the population, or that evolve the islands if there
+     * is more than one. 1 means that everything runs on the calling thread.
+     * @return the parallelism
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Set the number of threads that calculate the fitness of the population, or that evolve the islands if there
+     * is more than one. Ignored if a pool is given.
+     * @param parallelism the number of threads, at least 1
+     * @return these settings
+     * @throws IllegalArgumentException if the parallelism is smaller than 1
+     */
+    public GeneticAlgorithmSettings setParallelism(int parallelism) throws IllegalArgumentException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism must be at least 1, but was " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Get the pool that calculates the fitness of the population
+     * @return the pool or null if the algorithm creates its own one
+     */
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Use an existing pool to calculate the fitness of the population. The pool is not shut down by the algorithm.
+     * @param pool the pool
+     * @return these settings
+     */
+    public GeneticAlgorithmSettings setPool(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    /**
+     * Get the seed of the random number generators
+     * @return the seed or null if the results do not have to be reproducible
+     */
+    public Long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Fix the seed of the random number generators. Two runs with the same seed and the same input return the same
+     * result, no matter how many threads calculate the fitness.
+     * @param seed the seed
+     * @return these settings
+     */
+    public GeneticAlgorithmSettings setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Create the random number generator of a component of the algorithm
+     * @param stream a number that tells the components apart, so that they do not draw the same numbers
+     * @return a seeded generator if the seed is fixed, an unseeded one otherwise
+     */
+    public SplittableRandom createRandom(int stream) {
+        return seed == null ? new SplittableRandom() : new SplittableRandom(seed ^ (0x9E3779B97F4A7C15L * (stream + 1)));
+    }
+}
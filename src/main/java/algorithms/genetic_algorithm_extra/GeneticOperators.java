@@ -0,0 +1,40 @@
+package algorithms.genetic_algorithm_extra;
+
+import java.util.SplittableRandom;
+
+/**
+ * The crossover and the mutation of one type of chromosome. The Generator only selects the parents, the operators
+ * decide how their genes are combined and changed.
+ */
+public interface GeneticOperators {
+
+    /**
+     * Combine the genes of two parents into an offspring
+     * @param father the first parent
+     * @param mother the second parent
+     * @param offspring the chromosome that receives the genes
+     * @param random the random number generator
+     */
+    void crossover(AbstractChromosome father, AbstractChromosome mother, AbstractChromosome offspring,
+                   SplittableRandom random);
+
+    /**
+     * Mutate the genes chosen by the sampler
+     * @param chromosome the chromosome which to mutate
+     * @param sampler chooses the genes that mutate
+     * @param random the random number generator
+     * @return true if any gene changed
+     */
+    boolean mutate(AbstractChromosome chromosome, MutationSampler sampler, SplittableRandom random);
+
+    /**
+     * Improve a chromosome by a short local search. Every step looks at a single random investment and only keeps
+     * a change that makes the chromosome fitter. The fitness of the chromosome is calculated.
+     * @param chromosome the chromosome which to improve
+     * @param steps the number of steps
+     * @param minimisation if the fitness is minimised or maximised
+     * @param random the random number generator
+     * @return the number of changes that were kept
+     */
+    int improve(AbstractChromosome chromosome, int steps, boolean minimisation, SplittableRandom random);
+}
@@ -0,0 +1,90 @@
+package algorithms.genetic_algorithm_extra;
+
+import entities.Investment;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Seeds a part of the initial population with the allocation of the GreedyAlgorithm and with perturbed copies of it,
+ * so the GA does not have to spend its first generations rediscovering what the greedy finds in milliseconds.
+ *
+ * The greedy allocation is calculated on the arrays of the FitnessKernel, so the Investor objects of the problem are
+ * not changed: the investments are taken from the most expensive to the least and every investment goes to the
+ * investor with the smallest annual income that still wants its product. In the split model of the
+ * SoftBoundaryChromosome a wish is not used up, so the capacities can be ignored.
+ */
+public class GreedySeeder {
+
+    // Investment ---> the investor chosen by the greedy, or -1
+    private final int[] greedyGenes;
+
+    /**
+     * Calculate the greedy allocation of a problem
+     * @param problem the investors and investments of this run
+     * @param useCapacities if an investor gets at most as many investments into a product as it wants
+     */
+    public GreedySeeder(ProblemInstance problem, boolean useCapacities) {
+        FitnessKernel kernel = problem.getFitnessKernel();
+        Map<Integer, Investment> investmentMap = problem.getInvestmentMap();
+        int length = kernel.getInvestmentCount();
+        // The same order as the GreedyAlgorithm, the most expensive at the beginning
+        Integer[] order = new Integer[length];
+        for (int i = 0; i < length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (one, two) -> investmentMap.get(one).compareTo(investmentMap.get(two)));
+
+        greedyGenes = new int[length];
+        double[] incomes = new double[kernel.getInvestorCount()];
+        int[] used = new int[kernel.getPairCount()];
+        for (int i : order) {
+            int best = -1;
+            for (int k = 0; k < kernel.getDomainSize(i); k++) {
+                int investor = kernel.getDomainInvestor(i, k);
+                int pair = kernel.getPair(investor, i);
+                boolean free = !useCapacities || used[pair] < kernel.getPairCapacity(pair);
+                if (free && (best == -1 || incomes[investor] < incomes[best])) {
+                    best = investor;
+                }
+            }
+            greedyGenes[i] = best;
+            if (best != -1) {
+                used[kernel.getPair(best, i)]++;
+                incomes[best] += kernel.getYield(i);
+            }
+        }
+    }
+
+    /**
+     * Overwrite the first chromosomes with the greedy allocation (the first one) and perturbed copies of it
+     * @param chromosomes the chromosomes of the population
+     * @param count the number of chromosomes which to seed
+     * @param operators the operators whose mutation perturbs the copies
+     * @param perturbationRate the probability that a gene of a perturbed copy is mutated
+     * @param random the random number generator
+     */
+    public void seed(AbstractChromosome[] chromosomes, int count, GeneticOperators operators, double perturbationRate,
+                     SplittableRandom random) {
+        MutationSampler sampler = new MutationSampler(perturbationRate);
+        for (int c = 0; c < Math.min(count, chromosomes.length); c++) {
+            for (int i = 0; i < greedyGenes.length; i++) {
+                if (chromosomes[c].getGeneAtIndex(i) != greedyGenes[i]) {
+                    chromosomes[c].setGeneAtIndex(i, greedyGenes[i]);
+                }
+            }
+            if (c > 0) {
+                operators.mutate(chromosomes[c], sampler, random);
+            }
+        }
+    }
+
+    /**
+     * Get the greedy allocation
+     * @return investment ---> investor, or -1 if the investment is not allocated
+     */
+    public int[] getGreedyGenes() {
+        return greedyGenes.clone();
+    }
+}
@@ -2,25 +2,56 @@ package algorithms.genetic_algorithm_extra;
 
 import entities.Investment;
 import entities.Investor;
-import helpers.MathOperator;
 
-import java.util.*;
+import java.util.Map;
 
 /**
  * The idea of this chromosome is to have an array of genes (int[] slots), where each position in the array
  * means an investment. Each value at the index position is an id of an investor. The fitness of the chromosome is
  * the standard deviation of all investor earnings. The smaller the deviation, the better the fitness.
+ *
+ * The chromosome is a view of one row of a GeneMatrix, which holds the genes and the fitness values of the whole
+ * population. A chromosome created from its own slots array gets a matrix with a single row.
+ *
+ * The fitness is calculated by a FitnessKernel that is shared by all chromosomes of the same problem. After the first
+ * calculation the chromosome keeps the running totals of every investor, so changing a gene with setGeneAtIndex
+ * updates the fitness in O(1). The genes must therefore only be changed through setGeneAtIndex.
+ *
+ * A chromosome whose genes did not change since the last calculation is not evaluated again. Once a quarter of the
+ * genes changed since the last calculation (e.g. the genes of a crossover offspring, or a whole chromosome copied
+ * with copyFrom), the chromosome stops updating its running totals: it is practically a new chromosome, and
+ * calculating the totals from scratch costs about as much as the remaining updates. Such a chromosome first looks for
+ * an identical one in the FitnessCache. A hit gives the fitness without touching the totals, which are only
+ * recalculated when a later calculation misses the cache. The values of the cache are always calculated from scratch,
+ * so a run gives exactly the same fitness values with and without a cache.
  */
 public class HardBoundaryChromosome implements AbstractChromosome {
 
-    // Index ---> investment, value at index ---> investor
-    private final int[] slots;
-    private final Map<Integer, Investor> investorMap;
-    private final Map<Integer, Investment> investmentMap;
-    private double fitnessScore;
+    // After this many single-gene changes the totals are recalculated from scratch, so rounding errors cannot pile up
+    private static final int rebuildInterval = 1024;
+    // After this share of the genes changed since the last calculation, the running totals are no longer updated
+    private static final int staleDivisor = 4;
+
+    private final FitnessKernel kernel;
+    private final GeneMatrix matrix;
+    private final int row;
+    // Index ---> investment, value at genes[offset + index] ---> investor
+    private final int[] genes;
+    private final int offset;
     private final int length;
+    // The running totals, or null until they are calculated for the first time
+    private FitnessKernel.State state = null;
+    // True if the running totals do not belong to the genes and have to be recalculated from scratch
+    private boolean stale = true;
+    private int changesSinceEvaluation = 0;
+    private final int staleThreshold;
     private boolean validSolution = true;
-    private double penaltyScore = -5000;
+    // False if a gene changed since the fitness was last calculated
+    private boolean evaluated = false;
+    // The shared cache (or null) and the two hashes of the genes it uses
+    private FitnessCache cache = null;
+    private long hash;
+    private long check;
 
     /**
      * Create a chromosome with a predefined gene collection
@@ -29,12 +60,7 @@ public class HardBoundaryChromosome implements AbstractChromosome {
      * @param slots the genes
      */
     public HardBoundaryChromosome(Map<Integer, Investor> investorMap, Map<Integer, Investment> investmentMap, int[] slots){
-
-        this.investmentMap = investmentMap;
-        this.investorMap = investorMap;
-        this.slots = slots;
-        fitnessScore = 0;
-        length = investmentMap.size();
+        this(new FitnessKernel(investorMap, investmentMap), slots);
     }
 
     /**
@@ -43,13 +69,40 @@ public class HardBoundaryChromosome implements AbstractChromosome {
      * @param investmentMap reference to the investment map
      */
     public HardBoundaryChromosome(Map<Integer, Investor> investorMap, Map<Integer, Investment> investmentMap){
+        this(new FitnessKernel(investorMap, investmentMap));
+    }
+
+    /**
+     * Create a chromosome with a predefined gene collection
+     * @param kernel the fitness kernel of the problem
+     * @param slots the genes
+     */
+    public HardBoundaryChromosome(FitnessKernel kernel, int[] slots) {
+        this(kernel, new GeneMatrix(slots), 0);
+    }
 
-        this.investmentMap = investmentMap;
-        this.investorMap = investorMap;
-        length = investmentMap.size();
-        this.slots = new int[length];
-        fitnessScore = 0;
+    /**
+     * Create a chromosome without any genes. Used when offsprings are created. Then parent genes are added.
+     * @param kernel the fitness kernel of the problem
+     */
+    public HardBoundaryChromosome(FitnessKernel kernel) {
+        this(kernel, new GeneMatrix(1, kernel.getInvestmentCount()), 0);
+    }
 
+    /**
+     * Create a view of one row of a population matrix
+     * @param kernel the fitness kernel of the problem
+     * @param matrix the genes and the fitness values of the population
+     * @param row the row of this chromosome
+     */
+    public HardBoundaryChromosome(FitnessKernel kernel, GeneMatrix matrix, int row) {
+        this.kernel = kernel;
+        this.matrix = matrix;
+        this.row = row;
+        genes = matrix.getGenes();
+        length = matrix.getLength();
+        offset = row * length;
+        staleThreshold = Math.max(1, length / staleDivisor);
     }
 
     /**
@@ -59,19 +112,39 @@ public class HardBoundaryChromosome implements AbstractChromosome {
      */
     @Override
     public void calcFitness(){
-
-        Map<Investor, List<Investment>> map = prepareInvestorInvestmentMap();
-        addInvestorsWithoutInvestments(map);
-
-        List<Double> list = new ArrayList<>();
-
-        // Calculate fitness
-        for(Investor investor: map.keySet()) {
-            list.add(calculateSingleInvestorAverageIncome(investor, map.get(investor)));
+        if (evaluated) {
+            return;
         }
-        fitnessScore = MathOperator.getStandardDeviation(list);
-        // Restore the default penaltyScore for next iteration
-        penaltyScore = -5000;
+        evaluated = true;
+        changesSinceEvaluation = 0;
+        if (stale) {
+            if (cache != null) {
+                FitnessCache.Entry entry = cache.get(hash, check);
+                if (entry != null) {
+                    // The running totals stay stale until a calculation misses the cache
+                    matrix.setFitness(row, entry.getFitness());
+                    validSolution = entry.isValid();
+                    return;
+                }
+            }
+            kernel.countEvaluation();
+            if (state == null) {
+                state = kernel.createState();
+            }
+            kernel.rebuild(state, genes, offset, length);
+            stale = false;
+            if (cache != null) {
+                // Only values calculated from scratch are saved, so a hit gives exactly the same value as a miss
+                cache.put(hash, check, kernel.getFitness(state), state.isValid());
+            }
+        } else {
+            kernel.countEvaluation();
+            if (state.getChangesSinceRebuild() >= rebuildInterval) {
+                kernel.rebuild(state, genes, offset, length);
+            }
+        }
+        matrix.setFitness(row, kernel.getFitness(state));
+        validSolution = state.isValid();
     }
 
     @Override
@@ -81,80 +154,80 @@ public class HardBoundaryChromosome implements AbstractChromosome {
 
     @Override
     public double getFitness() {
-        return fitnessScore;
+        return matrix.getFitness(row);
     }
 
+    /**
+     * Get a copy of the genes. Changing the copy does not change the chromosome.
+     * @return the genes
+     */
     @Override
     public int[] getSlots() {
-        return slots;
+        return matrix.copyRow(row);
     }
 
     @Override
     public int getGeneAtIndex(int index) {
-        return slots[index];
+        return genes[offset + index];
     }
 
     @Override
     public void setGeneAtIndex(int index, int gene) {
-        slots[index] = gene;
-    }
-
-    /**
-     * Used to calculate the average income of one investor given the investments.
-     * @param investor The investor
-     * @param investments The list of investments the investor made.
-     * @return the average sum the investor will be earning. If the sum is highly negative, it means that the
-     * chromosome is invalid. The investor is not interested in the investments assigned to him.
-     */
-    private double calculateSingleInvestorAverageIncome(Investor investor, List<Investment> investments) {
-        if(investments != null && investments.size() != 0) {
-            double sum = 0;
-            // Create a copy of the investor's wishlist
-            List<String> wishlist = new ArrayList<>(investor.getWishlist());
-            for (Investment investment : investments) {
-                // If investor really wants the investment
-                if (wishlist.contains(investment.getProductID())) {
-                    sum += investment.getAnnualYield();
-                    wishlist.remove(investment.getProductID());
-                } else {
-                    /* If this was reached, the chromosome is invalid as it contains some investment allocations
-                        to investors that are not looking to invest in that type of product. PENALIZE! */
-                    validSolution = false;
-                    sum = penaltyScore * investments.size();
-                    penaltyScore -= 5000;
-                    break;
-                }
+        int oldGene = genes[offset + index];
+        if (!stale) {
+            if (++changesSinceEvaluation >= staleThreshold) {
+                stale = true;
+            } else {
+                kernel.change(state, index, oldGene, gene);
             }
-            return sum / investments.size();
         }
-        else {
-            return 0.0;
+        if (cache != null) {
+            hash ^= FitnessCache.hash(index, oldGene) ^ FitnessCache.hash(index, gene);
+            check ^= FitnessCache.check(index, oldGene) ^ FitnessCache.check(index, gene);
         }
+        genes[offset + index] = gene;
+        evaluated = false;
     }
 
     /**
-     * From slots, for each investor map a list of his investments. Helps with calculations.
-     * @return a new map of Investor ---> List of his investments
+     * Copy the genes that differ from the other chromosome. A few changes update the running totals, a copy that
+     * changes many genes makes them stale, so the copy is looked up in the cache when its fitness is calculated.
+     * @param other the chromosome whose genes to copy
      */
-    private Map<Investor, List<Investment>> prepareInvestorInvestmentMap() {
-        Map<Investor, List<Investment>> map = new HashMap<>();
-        for (int i = 0; i < slots.length; i++) {
-            if (slots[i] != -1) {
-                Investor investor = investorMap.get(slots[i]);
-                map.computeIfAbsent(investor, k -> new LinkedList<>()).add(investmentMap.get(i));
+    @Override
+    public void copyFrom(AbstractChromosome other) {
+        for (int i = 0; i < length; i++) {
+            int gene = other.getGeneAtIndex(i);
+            if (genes[offset + i] != gene) {
+                setGeneAtIndex(i, gene);
             }
         }
-        return map;
+    }
+
+    @Override
+    public GeneMatrix getMatrix() {
+        return matrix;
+    }
+
+    @Override
+    public int getRow() {
+        return row;
     }
 
     /**
-     * Used to add investors to the map returned by prepareInvestorInvestmentMap() that were not allocated any investments.
-     * @param map the same map
+     * Look up the fitness in a cache before calculating it from scratch
+     * @param cache the cache shared by the chromosomes of the problem, or null to not use any
      */
-    private void addInvestorsWithoutInvestments(Map<Investor, List<Investment>> map) {
-        investorMap.values().stream()
-                .filter(investor -> !map.containsKey(investor))
-                .forEach(investor -> map.put(investor, new ArrayList<>()));
+    public void setFitnessCache(FitnessCache cache) {
+        this.cache = cache;
+        hash = 0;
+        check = 0;
+        if (cache != null) {
+            for (int i = 0; i < length; i++) {
+                hash ^= FitnessCache.hash(i, genes[offset + i]);
+                check ^= FitnessCache.check(i, genes[offset + i]);
+            }
+        }
     }
 
     /**
@@ -164,4 +237,4 @@ public class HardBoundaryChromosome implements AbstractChromosome {
     public boolean isValidChromosome() {
         return validSolution;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,104 @@
+package algorithms.genetic_algorithm_extra;
+
+import java.util.SplittableRandom;
+
+/**
+ * Uniform crossover and domain mutation of HardBoundaryChromosomes. Both are followed by the repair of FeasibleGenes,
+ * so the genes stay feasible.
+ */
+public class HardBoundaryOperators implements GeneticOperators {
+
+    private final FeasibleGenes feasibleGenes;
+
+    /**
+     * Create the operators of a problem
+     * @param feasibleGenes the operators that keep the genes feasible
+     */
+    public HardBoundaryOperators(FeasibleGenes feasibleGenes) {
+        this.feasibleGenes = feasibleGenes;
+    }
+
+    /**
+     * Choose every gene of the offspring from one of the parents with the same probability. One random long gives
+     * the choices of 64 genes. Both parents are feasible, but their mix can give an investor more than it wants, so
+     * the offspring is repaired.
+     */
+    @Override
+    public void crossover(AbstractChromosome father, AbstractChromosome mother, AbstractChromosome offspring,
+                          SplittableRandom random) {
+        long bits = 0;
+        for (int i = 0; i < offspring.getLength(); i++) {
+            if ((i & 63) == 0) {
+                bits = random.nextLong();
+            }
+            int gene = (bits & 1) == 0 ? father.getGeneAtIndex(i) : mother.getGeneAtIndex(i);
+            bits >>>= 1;
+            if (offspring.getGeneAtIndex(i) != gene) {
+                offspring.setGeneAtIndex(i, gene);
+            }
+        }
+        feasibleGenes.repair(offspring, random);
+    }
+
+    /**
+     * A mutated gene gets another investor that wants the product (or -1), and a mutated chromosome is repaired if
+     * an investor got more than it wants
+     */
+    @Override
+    public boolean mutate(AbstractChromosome chromosome, MutationSampler sampler, SplittableRandom random) {
+        int length = chromosome.getLength();
+        boolean mutated = false;
+        for (long i = sampler.next(-1, length, random); i < length; i = sampler.next(i, length, random)) {
+            int index = (int) i;
+            int oldGene = chromosome.getGeneAtIndex(index);
+            int newGene = feasibleGenes.mutate(index, oldGene, random);
+            if (newGene != oldGene) {
+                chromosome.setGeneAtIndex(index, newGene);
+                mutated = true;
+            }
+        }
+        if (mutated) {
+            feasibleGenes.repair(chromosome, random);
+        }
+        return mutated;
+    }
+
+    /**
+     * Every step gives a random investment to the investor of its domain (or to nobody) that improves the fitness
+     * the most. Only valid chromosomes are accepted. The chromosome keeps its running totals, so every candidate is
+     * scored in O(1).
+     */
+    @Override
+    public int improve(AbstractChromosome chromosome, int steps, boolean minimisation, SplittableRandom random) {
+        FitnessKernel kernel = feasibleGenes.getKernel();
+        chromosome.calcFitness();
+        int kept = 0;
+        for (int step = 0; step < steps; step++) {
+            int index = random.nextInt(chromosome.getLength());
+            int oldGene = chromosome.getGeneAtIndex(index);
+            int bestGene = oldGene;
+            double bestFitness = chromosome.getFitness();
+            int size = kernel.getDomainSize(index);
+            // The candidates are the domain and -1 (at position size)
+            for (int k = 0; k <= size; k++) {
+                int gene = k == size ? -1 : kernel.getDomainInvestor(index, k);
+                if (gene == oldGene) {
+                    continue;
+                }
+                chromosome.setGeneAtIndex(index, gene);
+                chromosome.calcFitness();
+                if (chromosome.isValidChromosome() && (minimisation ? chromosome.getFitness() < bestFitness
+                        : chromosome.getFitness() > bestFitness)) {
+                    bestGene = gene;
+                    bestFitness = chromosome.getFitness();
+                }
+            }
+            chromosome.setGeneAtIndex(index, bestGene);
+            chromosome.calcFitness();
+            if (bestGene != oldGene) {
+                kept++;
+            }
+        }
+        return kept;
+    }
+}
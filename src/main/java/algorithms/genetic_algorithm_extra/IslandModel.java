@@ -0,0 +1,248 @@
+package algorithms.genetic_algorithm_extra;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Several independent populations (islands), each with its own Generator. Between two migrations the islands evolve
+ * in parallel without sharing anything. During a migration the best chromosome of every island replaces the least
+ * fit chromosomes of the islands chosen by the MigrationTopology. Small populations that evolve separately keep more
+ * diversity than one large population, while the migrations still spread the good solutions.
+ *
+ * With a single island the model is the classic genetic algorithm and the pool calculates the fitness of its
+ * population instead.
+ */
+public class IslandModel {
+
+    private final ProblemInstance problem;
+    private final Generator[] islands;
+    private final ForkJoinPool pool;
+    private final GeneticAlgorithmSettings settings;
+    private final boolean minimisationAlgorithm;
+    private final FitnessCache cache;
+
+    /**
+     * Create the islands and calculate the initial fitness of their populations
+     * @param problem the investors and investments of this run
+     * @param settings the hyperparameters, the number of islands and the migration settings
+     * @param chromosomeType the type of the chromosomes
+     * @param minimisationAlgorithm if this is going to be a minimisation problem or maximisation
+     * @param pool the pool which to use or null to do everything on the calling thread
+     */
+    public IslandModel(ProblemInstance problem, GeneticAlgorithmSettings settings, ChromosomeType chromosomeType,
+                       boolean minimisationAlgorithm, ForkJoinPool pool) {
+        this.problem = problem;
+        this.settings = settings;
+        this.minimisationAlgorithm = minimisationAlgorithm;
+        this.cache = settings.getFitnessCacheSize() == 0 ? null : new FitnessCache(settings.getFitnessCacheSize());
+        int count = settings.getIslandCount();
+        islands = new Generator[count];
+        if (count == 1) {
+            this.pool = null;
+            islands[0] = new Generator(problem, settings, chromosomeType, minimisationAlgorithm, pool, 0, cache);
+        } else {
+            this.pool = pool;
+            for (int i = 0; i < count; i++) {
+                islands[i] = new Generator(problem, settings, chromosomeType, minimisationAlgorithm, null, i, cache);
+            }
+        }
+        runOnIslands(0);
+    }
+
+    /**
+     * Get the number of generations that can run before the next migration
+     * @param generationCount the number of generations that have already run
+     * @return at least 1
+     */
+    public int getGenerationsUntilMigration(int generationCount) {
+        // A single island does not migrate, but the stopping criteria are still checked at every interval
+        int remaining = settings.getMaxGenerations() - generationCount;
+        return Math.max(1, Math.min(settings.getMigrationInterval(), remaining));
+    }
+
+    /**
+     * Evolve every island for a number of generations, the islands in parallel
+     * @param generations the number of generations
+     */
+    public void evolve(int generations) {
+        runOnIslands(generations);
+    }
+
+    /**
+     * Send the best chromosome of every island to the islands given by the topology
+     */
+    public void migrate() {
+        if (islands.length == 1) {
+            return;
+        }
+        // Take all migrants first, so that a migrant does not travel further within the same migration
+        AbstractChromosome[] migrants = new AbstractChromosome[islands.length];
+        for (int i = 0; i < islands.length; i++) {
+            migrants[i] = islands[i].copyChromosome(islands[i].getPopulation().getFittestChromosome());
+        }
+        for (int source = 0; source < islands.length; source++) {
+            if (settings.getMigrationTopology() == MigrationTopology.RING) {
+                receive((source + 1) % islands.length, migrants[source]);
+            } else {
+                for (int target = 0; target < islands.length; target++) {
+                    if (target != source) {
+                        receive(target, migrants[source]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Replace every population with random chromosomes and the best chromosome the island found so far
+     */
+    public void restart() {
+        for (Generator island : islands) {
+            island.restart();
+        }
+    }
+
+    /**
+     * Get the average diversity of the populations, see Population.getDiversity()
+     * @return the diversity between 0 and 1
+     */
+    public double getDiversity() {
+        double sum = 0;
+        for (Generator island : islands) {
+            sum += island.getPopulation().getDiversity();
+        }
+        return sum / islands.length;
+    }
+
+    /**
+     * Get the genes of the fittest chromosome found on any island
+     * @return the genes or null if no generation has run yet
+     */
+    public int[] getFittestChromosomeAllocations() {
+        Generator best = getBestIsland();
+        return best == null ? null : best.getFittestChromosomeAllocations();
+    }
+
+    /**
+     * Get a copy of the fittest chromosome found on any island
+     * @return the chromosome or null if no generation has run yet
+     */
+    public AbstractChromosome getFittestChromosome() {
+        Generator best = getBestIsland();
+        return best == null ? null : best.getFittestChromosome();
+    }
+
+    /**
+     * Get the fitness of the fittest chromosome found on any island
+     * @return the fitness
+     */
+    public double getFittestChromosomeFitness() {
+        return getBestIsland().getFittestChromosomeFitness();
+    }
+
+    /**
+     * Get the fitness cache shared by the islands
+     * @return the cache or null if the fitness is not cached
+     */
+    public FitnessCache getFitnessCache() {
+        return cache;
+    }
+
+    /**
+     * Get the problem the islands solve
+     * @return the investors and investments of this run
+     */
+    public ProblemInstance getProblem() {
+        return problem;
+    }
+
+    /**
+     * Check if the fitness is minimised
+     * @return true for a minimisation problem, false for maximisation
+     */
+    public boolean isMinimisation() {
+        return minimisationAlgorithm;
+    }
+
+    /**
+     * Get the islands
+     * @return the generator of every island
+     */
+    public Generator[] getIslands() {
+        return islands;
+    }
+
+    /**
+     * Replace the least fit chromosome of an island with a migrant
+     * @param island the island that receives the migrant
+     * @param migrant the migrant
+     */
+    private void receive(int island, AbstractChromosome migrant) {
+        Population population = islands[island].getPopulation();
+        population.replace(population.getLeastFittestIndex(), migrant);
+    }
+
+    /**
+     * Get the island whose fittest chromosome is the best
+     * @return the island or null if no generation has run yet
+     */
+    private Generator getBestIsland() {
+        Generator best = null;
+        for (Generator island : islands) {
+            if (island.getFittestChromosome() == null) {
+                continue;
+            }
+            if (best == null || (minimisationAlgorithm
+                    ? island.getFittestChromosomeFitness() < best.getFittestChromosomeFitness()
+                    : island.getFittestChromosomeFitness() > best.getFittestChromosomeFitness())) {
+                best = island;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Run a number of generations on every island. With 0 generations, only the initial fitness is calculated.
+     * @param generations the number of generations
+     */
+    private void runOnIslands(int generations) {
+        if (pool == null) {
+            for (Generator island : islands) {
+                evolveIsland(island, generations);
+            }
+            return;
+        }
+        RecursiveAction[] tasks = new RecursiveAction[islands.length];
+        for (int i = 0; i < islands.length; i++) {
+            Generator island = islands[i];
+            tasks[i] = new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    evolveIsland(island, generations);
+                }
+            };
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                ForkJoinTask.invokeAll(tasks);
+            }
+        });
+    }
+
+    /**
+     * Run a number of generations on one island
+     * @param island the island
+     * @param generations the number of generations, or 0 to calculate the initial fitness
+     */
+    private void evolveIsland(Generator island, int generations) {
+        if (generations == 0) {
+            island.getPopulation().calculateAllFitness();
+            return;
+        }
+        for (int g = 0; g < generations; g++) {
+            island.nextGeneration(settings.getMutationRate());
+        }
+    }
+}
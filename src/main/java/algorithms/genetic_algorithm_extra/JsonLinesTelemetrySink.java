@@ -0,0 +1,71 @@
+package algorithms.genetic_algorithm_extra;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes the metrics of every generation into a file, one JSON object per line. The lines are buffered and written
+ * when the buffer is full, when a run finishes and when the sink is closed. A failed write is logged once and the
+ * sink stops writing, so the telemetry never stops the algorithm.
+ */
+public class JsonLinesTelemetrySink implements TelemetrySink, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(JsonLinesTelemetrySink.class);
+    private final BufferedWriter writer;
+    private boolean failed = false;
+
+    /**
+     * Create a sink that writes into a file. An existing file is overwritten.
+     * @param path the file which to write
+     * @throws IOException if the file cannot be created
+     */
+    public JsonLinesTelemetrySink(Path path) throws IOException {
+        writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public synchronized void record(GenerationMetrics metrics) {
+        if (failed) {
+            return;
+        }
+        try {
+            writer.write(metrics.toJson());
+            writer.newLine();
+        } catch (IOException exception) {
+            fail(exception);
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (failed) {
+            return;
+        }
+        try {
+            writer.flush();
+        } catch (IOException exception) {
+            fail(exception);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    /**
+     * Stop writing after an error
+     * @param exception the error
+     */
+    private void fail(IOException exception) {
+        failed = true;
+        logger.error("Could not write the telemetry, no more metrics will be written", exception);
+    }
+}
@@ -0,0 +1,11 @@
+package algorithms.genetic_algorithm_extra;
+
+/**
+ * Tells which islands of the island model receive the best chromosome of an island during a migration
+ */
+public enum MigrationTopology {
+    // Island i sends its best chromosome to island i + 1, the last one to the first one
+    RING,
+    // Every island sends its best chromosome to every other island
+    FULLY_CONNECTED;
+}
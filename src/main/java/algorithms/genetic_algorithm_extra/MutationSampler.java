@@ -0,0 +1,53 @@
+package algorithms.genetic_algorithm_extra;
+
+import java.util.SplittableRandom;
+
+/**
+ * Chooses the genes that mutate without drawing a random number for every gene. If every gene mutates with the
+ * probability p, the number of genes skipped before the next mutated one follows the geometric distribution
+ * P(skip = k) = (1 - p)^k * p, which is sampled with a single random number as floor(ln(U) / ln(1 - p)). The cost of
+ * the mutation is therefore proportional to the number of mutations instead of the number of genes.
+ */
+public class MutationSampler {
+
+    private final double mutationRate;
+    private final double logOfNoMutation;
+
+    /**
+     * Create a sampler for a mutation rate
+     * @param mutationRate the probability that a gene mutates, between 0 and 1
+     */
+    public MutationSampler(double mutationRate) {
+        this.mutationRate = mutationRate;
+        this.logOfNoMutation = Math.log1p(-mutationRate);
+    }
+
+    /**
+     * Get the number of genes that do not mutate before the next gene that does
+     * @param random the random number generator
+     * @return the number of skipped genes, Long.MAX_VALUE if no gene ever mutates
+     */
+    public long nextSkip(SplittableRandom random) {
+        if (mutationRate >= 1) {
+            return 0;
+        }
+        if (mutationRate <= 0) {
+            return Long.MAX_VALUE;
+        }
+        // 1 - nextDouble() is in (0, 1], so the logarithm is finite
+        double skip = Math.floor(Math.log(1 - random.nextDouble()) / logOfNoMutation);
+        return skip >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) skip;
+    }
+
+    /**
+     * Get the position of the next mutated gene
+     * @param position the position of the previous mutated gene, or -1 before the first one
+     * @param length the number of genes
+     * @param random the random number generator
+     * @return the position of the next mutated gene, or length if there is none
+     */
+    public long next(long position, long length, SplittableRandom random) {
+        long skip = nextSkip(random);
+        return skip >= length - position - 1 ? length : position + 1 + skip;
+    }
+}
@@ -1,65 +1,306 @@
 package algorithms.genetic_algorithm_extra;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The chromosomes of one island. When chromosome i is row i of a single GeneMatrix (as the ChromosomeFactory builds
+ * them), the selection, the ranking, the telemetry and the diversity scan the fitness values and the genes in the
+ * arrays of the matrix instead of calling every chromosome through the interface.
+ */
 public class Population {
+    // Below this number of chromosomes a fitness task is not split any further
+    private static final int fitnessBatchSize = 4;
     private final int populationSize;
-    private final AbstractChromosome[] population;
+    private AbstractChromosome[] population;
+    // The matrix whose row i is chromosome i and its fitness values, or null if the chromosomes do not share one
+    private GeneMatrix matrix;
+    private double[] fitness;
     private final boolean minimisationAlgorithm;
+    private final ForkJoinPool pool;
 
     public Population(int populationSize, boolean minimisationAlgorithm, AbstractChromosome[] initialPopulation) {
+        this(populationSize, minimisationAlgorithm, initialPopulation, null);
+    }
+
+    /**
+     * Create a population whose fitness is calculated in parallel
+     * @param populationSize the number of chromosomes
+     * @param minimisationAlgorithm if this is a minimisation problem or maximisation
+     * @param initialPopulation the chromosomes
+     * @param pool the pool that calculates the fitness or null to calculate it on the calling thread
+     */
+    public Population(int populationSize, boolean minimisationAlgorithm, AbstractChromosome[] initialPopulation,
+                      ForkJoinPool pool) {
         this.populationSize = populationSize;
-        population = initialPopulation;
         this.minimisationAlgorithm = minimisationAlgorithm;
+        this.pool = pool;
+        setChromosomes(initialPopulation);
     }
 
     public AbstractChromosome getFittestChromosome(){
-        double bestFit = population[0].getFitness();
+        return population[getFittestIndex()];
+    }
+
+    /**
+     * Get the position of the fittest chromosome. Ties go to the last one.
+     * @return the position
+     */
+    private int getFittestIndex() {
+        double bestFit = getFitness(0);
         int bestFitIndex = 0;
         for (int i = 1; i < population.length; i++) {
-            if ((!minimisationAlgorithm && bestFit <= population[i].getFitness()) ||
-                    (minimisationAlgorithm && bestFit >= population[i].getFitness())) {
-                bestFit = population[i].getFitness();
+            double fitness = getFitness(i);
+            if ((!minimisationAlgorithm && bestFit <= fitness) || (minimisationAlgorithm && bestFit >= fitness)) {
+                bestFit = fitness;
                 bestFitIndex = i;
             }
         }
-        return population[bestFitIndex];
+        return bestFitIndex;
     }
 
-    public AbstractChromosome getSecondFittestChromosome() {
-        int bestFit1 = 0;
-        int bestFit2 = 0;
+    /**
+     * Find the two fittest chromosomes and the least fit one in a single pass, for the steady-state selection. The
+     * result is the same as the first two and the last position of rank(): ties go to the smaller position, except
+     * for the least fit, where they go to the larger one.
+     * @return the positions of the fittest, the second fittest and the least fit chromosome. With a single
+     * chromosome all three are 0.
+     */
+    public int[] selectExtremes() {
+        int best = 0;
+        int second = -1;
+        int worst = 0;
+        double bestKey = keyOf(0);
+        double secondKey = 0;
+        double worstKey = bestKey;
         for (int i = 1; i < population.length; i++) {
-            if ((!minimisationAlgorithm && population[i].getFitness() > population[bestFit1].getFitness()) ||
-                    (minimisationAlgorithm && population[i].getFitness() < population[bestFit1].getFitness())) {
-                bestFit2 = bestFit1;
-                bestFit1 = i;
-            } else if ((!minimisationAlgorithm && population[i].getFitness() > population[bestFit2].getFitness()) ||
-                    (minimisationAlgorithm && population[i].getFitness() > population[bestFit2].getFitness())) {
-                bestFit2 = i;
+            double key = keyOf(i);
+            if (Double.compare(key, bestKey) < 0) {
+                second = best;
+                secondKey = bestKey;
+                best = i;
+                bestKey = key;
+            } else if (second == -1 || Double.compare(key, secondKey) < 0) {
+                second = i;
+                secondKey = key;
+            }
+            if (Double.compare(key, worstKey) >= 0) {
+                worst = i;
+                worstKey = key;
             }
         }
-        return population[bestFit2];
+        return new int[]{best, second == -1 ? best : second, worst};
     }
 
     public int getLeastFittestIndex() {
-        double leastFitVal = population[0].getFitness();
+        double leastFitVal = getFitness(0);
         int leastFitIndex = 0;
         for (int i = 1; i < population.length; i++) {
-            if ((minimisationAlgorithm && leastFitVal <= population[i].getFitness()) ||
-                    (!minimisationAlgorithm && leastFitVal >= population[i].getFitness())) {
-                leastFitVal = population[i].getFitness();
+            double fitness = getFitness(i);
+            if ((minimisationAlgorithm && leastFitVal <= fitness) || (!minimisationAlgorithm && leastFitVal >= fitness)) {
+                leastFitVal = fitness;
                 leastFitIndex = i;
             }
         }
         return leastFitIndex;
     }
 
+    /**
+     * Get the fitness of a chromosome, read from the fitness array of the matrix if the population has one
+     * @param position the position of the chromosome
+     * @return the fitness as of its last calculation
+     */
+    public double getFitness(int position) {
+        return fitness != null ? fitness[position] : population[position].getFitness();
+    }
+
+    /**
+     * Calculate the fitness of every chromosome. Chromosomes do not share any state, so with a pool they are
+     * evaluated in parallel and the results are the same as on a single thread.
+     */
     public void calculateAllFitness(){
-        for (AbstractChromosome abstractChromosome : population) {
-            abstractChromosome.calcFitness();
+        if (pool == null) {
+            for (AbstractChromosome abstractChromosome : population) {
+                abstractChromosome.calcFitness();
+            }
+        }
+        else {
+            pool.invoke(new FitnessTask(population, 0, population.length));
         }
     }
 
     public AbstractChromosome[] getChromosomes() {
         return population;
     }
+
+    /**
+     * Get the share of the genes that differ from the genes of the fittest chromosome
+     * @return 0 if all chromosomes are the same, up to 1
+     */
+    public double getDiversity() {
+        int fittestIndex = getFittestIndex();
+        AbstractChromosome fittest = population[fittestIndex];
+        int length = fittest.getLength();
+        if (length == 0 || population.length < 2) {
+            return 0;
+        }
+        long different = 0;
+        if (matrix != null && matrix.getLength() == length) {
+            // Compare the rows of the gene matrix directly
+            int[] genes = matrix.getGenes();
+            int fittestOffset = fittestIndex * length;
+            for (int offset = 0; offset < genes.length; offset += length) {
+                for (int i = 0; i < length; i++) {
+                    if (genes[offset + i] != genes[fittestOffset + i]) {
+                        different++;
+                    }
+                }
+            }
+            return (double) different / ((long) (population.length - 1) * length);
+        }
+        for (AbstractChromosome chromosome : population) {
+            for (int i = 0; i < length; i++) {
+                if (chromosome.getGeneAtIndex(i) != fittest.getGeneAtIndex(i)) {
+                    different++;
+                }
+            }
+        }
+        return (double) different / ((long) (population.length - 1) * length);
+    }
+
+    /**
+     * Sort the chromosomes from the fittest to the least fit. Computed once per generation, so that the selection
+     * does not have to scan the population again and again. The fitness values are copied into a primitive array
+     * once and the positions are sorted by a stable merge sort, so nothing is boxed and every comparison reads a
+     * double instead of calling getFitness() through the interface.
+     * @return the positions of the chromosomes, the fittest first
+     */
+    public int[] rank() {
+        int n = population.length;
+        // Position ---> key
+        double[] keys = new double[n];
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = keyOf(i);
+            order[i] = i;
+        }
+        return sortByKeys(order, new int[n], keys);
+    }
+
+    /**
+     * Get the sort key of a chromosome: its fitness, negated when maximising, so the fittest has the smallest key
+     * @param position the position of the chromosome
+     * @return the key
+     */
+    private double keyOf(int position) {
+        double value = getFitness(position);
+        return minimisationAlgorithm ? value : -value;
+    }
+
+    /**
+     * Stable bottom-up merge sort of positions by their keys, in ascending order of Double.compare
+     * @param order the positions which to sort
+     * @param buffer a spare array of the same length
+     * @param keys position ---> key
+     * @return the array that holds the sorted positions (either order or buffer)
+     */
+    private static int[] sortByKeys(int[] order, int[] buffer, double[] keys) {
+        int n = order.length;
+        for (int width = 1; width < n; width *= 2) {
+            for (int from = 0; from < n; from += 2 * width) {
+                int middle = Math.min(from + width, n);
+                int to = Math.min(from + 2 * width, n);
+                int left = from;
+                int right = middle;
+                for (int k = from; k < to; k++) {
+                    // Taking from the left run on ties keeps the sort stable
+                    if (right >= to || (left < middle && Double.compare(keys[order[left]], keys[order[right]]) <= 0)) {
+                        buffer[k] = order[left++];
+                    } else {
+                        buffer[k] = order[right++];
+                    }
+                }
+            }
+            int[] swap = order;
+            order = buffer;
+            buffer = swap;
+        }
+        return order;
+    }
+
+    /**
+     * Replace all chromosomes at once with the next generation
+     * @param nextGeneration the new chromosomes, as many as there are now
+     * @return the previous chromosomes, which can be reused for the generation after
+     */
+    public AbstractChromosome[] swapChromosomes(AbstractChromosome[] nextGeneration) {
+        AbstractChromosome[] previous = population;
+        setChromosomes(nextGeneration);
+        return previous;
+    }
+
+    /**
+     * Use new chromosomes and find out if chromosome i is row i of a single matrix
+     * @param chromosomes the chromosomes
+     */
+    private void setChromosomes(AbstractChromosome[] chromosomes) {
+        population = chromosomes;
+        matrix = chromosomes.length == 0 ? null : chromosomes[0].getMatrix();
+        for (int i = 0; i < chromosomes.length && matrix != null; i++) {
+            if (chromosomes[i].getMatrix() != matrix || chromosomes[i].getRow() != i) {
+                matrix = null;
+            }
+        }
+        if (matrix != null && matrix.getRows() != chromosomes.length) {
+            matrix = null;
+        }
+        fitness = matrix == null ? null : matrix.getFitnessValues();
+    }
+
+    /**
+     * Get the pool that calculates the fitness
+     * @return the pool or null if the fitness is calculated on the calling thread
+     */
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Overwrite the genes of a chromosome with the genes of another one and recalculate its fitness. The chromosome
+     * stays in its place (e.g. its row of the GeneMatrix).
+     * @param index the position of the chromosome which to overwrite
+     * @param chromosome the chromosome whose genes to copy
+     */
+    public void replace(int index, AbstractChromosome chromosome) {
+        population[index].copyFrom(chromosome);
+        population[index].calcFitness();
+    }
+
+    /**
+     * Calculates the fitness of a range of chromosomes, splitting the range in halves until it is small enough
+     */
+    private static final class FitnessTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final AbstractChromosome[] chromosomes;
+        private final int from;
+        private final int to;
+
+        private FitnessTask(AbstractChromosome[] chromosomes, int from, int to) {
+            this.chromosomes = chromosomes;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= fitnessBatchSize) {
+                for (int i = from; i < to; i++) {
+                    chromosomes[i].calcFitness();
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new FitnessTask(chromosomes, from, middle), new FitnessTask(chromosomes, middle, to));
+        }
+    }
 }
\ No newline at end of file
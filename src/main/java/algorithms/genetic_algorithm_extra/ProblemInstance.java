@@ -0,0 +1,82 @@
+package algorithms.genetic_algorithm_extra;
+
+import entities.Investment;
+import entities.Investor;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The investors and the investments of a single run of the GeneticAlgorithm, together with the FitnessKernel
+ * prepared for them. Every run creates its own instance and passes it to its generators, factories and
+ * chromosomes, so several runs can execute at the same time in one JVM without sharing any state.
+ *
+ * The instance is immutable: the maps cannot be changed and the kernel only holds arrays that are never written
+ * after it is built. The Investor and Investment objects themselves are not copied.
+ */
+public final class ProblemInstance {
+
+    private final Map<Integer, Investor> investorMap;
+    private final Map<Integer, Investment> investmentMap;
+    private final FitnessKernel fitnessKernel;
+
+    /**
+     * Create a problem from maps with constant IDs
+     * @param investorMap Unique ID ---> Investor, the IDs are expected to be 0, 1, 2, ...
+     * @param investmentMap Unique ID ---> Investment, the IDs are expected to be 0, 1, 2, ...
+     */
+    public ProblemInstance(Map<Integer, Investor> investorMap, Map<Integer, Investment> investmentMap) {
+        this.investorMap = Collections.unmodifiableMap(new HashMap<>(investorMap));
+        this.investmentMap = Collections.unmodifiableMap(new HashMap<>(investmentMap));
+        this.fitnessKernel = new FitnessKernel(this.investorMap, this.investmentMap);
+    }
+
+    /**
+     * Create a problem, giving the investors and the investments IDs in the order in which they come
+     * @param investors the investors looking to invest
+     * @param investments the investments available for investors
+     */
+    public ProblemInstance(Collection<Investor> investors, List<Investment> investments) {
+        this(toMap(investors), toMap(investments));
+    }
+
+    /**
+     * Get Investor map. Unique ID ---> Investor
+     * @return investor map, which cannot be changed
+     */
+    public Map<Integer, Investor> getInvestorMap() {
+        return investorMap;
+    }
+
+    /**
+     * Get Investment map. Unique ID ---> Investment
+     * @return investment map, which cannot be changed
+     */
+    public Map<Integer, Investment> getInvestmentMap() {
+        return investmentMap;
+    }
+
+    /**
+     * Get the fitness kernel shared by all chromosomes of the problem
+     * @return the fitness kernel
+     */
+    public FitnessKernel getFitnessKernel() {
+        return fitnessKernel;
+    }
+
+    /**
+     * Give every element an ID, starting at 0
+     * @param elements the elements in the order of their IDs
+     * @return Unique ID ---> element
+     */
+    private static <T> Map<Integer, T> toMap(Collection<T> elements) {
+        Map<Integer, T> map = new HashMap<>();
+        for (T element : elements) {
+            map.put(map.size(), element);
+        }
+        return map;
+    }
+}
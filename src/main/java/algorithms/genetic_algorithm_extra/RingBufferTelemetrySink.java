@@ -0,0 +1,62 @@
+package algorithms.genetic_algorithm_extra;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the metrics of the latest generations in memory. When the buffer is full, the oldest metrics are
+ * overwritten. The metrics can be read by another thread while the algorithm runs.
+ */
+public class RingBufferTelemetrySink implements TelemetrySink {
+
+    private final GenerationMetrics[] buffer;
+    // The number of metrics recorded so far, the next one goes to count % capacity
+    private long count = 0;
+
+    /**
+     * Create a sink that keeps the metrics of the latest generations
+     * @param capacity the number of generations which to keep, at least 1
+     * @throws IllegalArgumentException if the capacity is smaller than 1
+     */
+    public RingBufferTelemetrySink(int capacity) throws IllegalArgumentException {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be at least 1, but was " + capacity);
+        }
+        buffer = new GenerationMetrics[capacity];
+    }
+
+    @Override
+    public synchronized void record(GenerationMetrics metrics) {
+        buffer[(int) (count % buffer.length)] = metrics;
+        count++;
+    }
+
+    /**
+     * Get the metrics that are still in the buffer
+     * @return the metrics, the oldest first
+     */
+    public synchronized List<GenerationMetrics> getMetrics() {
+        int size = (int) Math.min(count, buffer.length);
+        List<GenerationMetrics> metrics = new ArrayList<>(size);
+        for (long i = count - size; i < count; i++) {
+            metrics.add(buffer[(int) (i % buffer.length)]);
+        }
+        return metrics;
+    }
+
+    /**
+     * Get the metrics of the latest generation
+     * @return the metrics or null if nothing was recorded yet
+     */
+    public synchronized GenerationMetrics getLatest() {
+        return count == 0 ? null : buffer[(int) ((count - 1) % buffer.length)];
+    }
+
+    /**
+     * Get the number of metrics recorded so far, including the ones that were overwritten
+     * @return the number of metrics
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,255 @@
+package algorithms.genetic_algorithm_extra;
+
+import helpers.MathOperator;
+
+import java.util.Arrays;
+
+/**
+ * A chromosome for the model in which several investors split one investment. The genes are the fractions of every
+ * investment that every investor funds, stored in a dense row-major matrix: row i holds the fractions of investment i,
+ * one column per investor. The fractions of a row add up to 1, and only the investors that want the product of the
+ * investment get a fraction. An investment that nobody wants has a row of zeros.
+ *
+ * The fitness is the standard deviation of the annual incomes of all investors. The incomes are calculated row by
+ * row as incomes += yield * row, a loop over contiguous doubles without branches that the JIT compiles to SIMD
+ * instructions.
+ *
+ * The int genes of AbstractChromosome are a hard view of the fractions: getGeneAtIndex returns the investor with the
+ * largest fraction and setGeneAtIndex gives the whole investment to one investor.
+ *
+ * The fitness is stored in one row of a GeneMatrix of length 0 that is shared by the population, so the population
+ * scans the fitness values in a single array. The fractions are not part of the matrix: they are a double for every
+ * pair of investment and investor instead of one int per investment.
+ */
+public class SoftBoundaryChromosome implements AbstractChromosome {
+
+    // After this many transfers the incomes are recalculated from scratch, so rounding errors cannot pile up
+    private static final int rebuildInterval = 1024;
+
+    private final FitnessKernel kernel;
+    private final int length;
+    private final int investorCount;
+    // investment * investorCount + investor ---> the fraction of the investment funded by the investor
+    private final double[] fractions;
+    // Investor ---> annual income, reused by every calculation
+    private final double[] incomes;
+    // The fitness is kept in matrix.getFitness(fitnessRow). The rows of the fractions are a different thing.
+    private final GeneMatrix matrix;
+    private final int fitnessRow;
+    // The sum and the sum of squares of the incomes
+    private double sum = 0;
+    private double sumOfSquares = 0;
+    // False if a fraction changed since the fitness was last calculated
+    private boolean evaluated = false;
+    private int transfersSinceRebuild = 0;
+
+    /**
+     * Create a chromosome in which no investment is funded
+     * @param kernel the fitness kernel of the problem
+     */
+    public SoftBoundaryChromosome(FitnessKernel kernel) {
+        this(kernel, new GeneMatrix(1, 0), 0);
+    }
+
+    /**
+     * Create a chromosome in which no investment is funded and whose fitness is kept in a row of a population matrix
+     * @param kernel the fitness kernel of the problem
+     * @param matrix the fitness values of the population, of length 0
+     * @param row the row of this chromosome
+     */
+    public SoftBoundaryChromosome(FitnessKernel kernel, GeneMatrix matrix, int row) {
+        this.kernel = kernel;
+        this.matrix = matrix;
+        this.fitnessRow = row;
+        this.length = kernel.getInvestmentCount();
+        this.investorCount = kernel.getInvestorCount();
+        this.fractions = new double[length * investorCount];
+        this.incomes = new double[investorCount];
+    }
+
+    /**
+     * The fitness calculation function that finds the standard deviation of the annual incomes of all investors
+     */
+    @Override
+    public void calcFitness() {
+        if (evaluated) {
+            return;
+        }
+        kernel.countEvaluation();
+        Arrays.fill(incomes, 0);
+        for (int i = 0; i < length; i++) {
+            double yield = kernel.getYield(i);
+            int row = i * investorCount;
+            for (int j = 0; j < investorCount; j++) {
+                incomes[j] += yield * fractions[row + j];
+            }
+        }
+        sum = 0;
+        sumOfSquares = 0;
+        for (int j = 0; j < investorCount; j++) {
+            sum += incomes[j];
+            sumOfSquares += incomes[j] * incomes[j];
+        }
+        matrix.setFitness(fitnessRow, MathOperator.getStandardDeviation(sum, sumOfSquares, investorCount));
+        evaluated = true;
+        transfersSinceRebuild = 0;
+    }
+
+    @Override
+    public double getFitness() {
+        return matrix.getFitness(fitnessRow);
+    }
+
+    @Override
+    public GeneMatrix getMatrix() {
+        return matrix;
+    }
+
+    @Override
+    public int getRow() {
+        return fitnessRow;
+    }
+
+    /**
+     * Get the investor with the largest fraction of every investment
+     * @return investment ---> investor, or -1 if the investment is not funded
+     */
+    @Override
+    public int[] getSlots() {
+        int[] slots = new int[length];
+        for (int i = 0; i < length; i++) {
+            slots[i] = getGeneAtIndex(i);
+        }
+        return slots;
+    }
+
+    /**
+     * Get the investor with the largest fraction of an investment
+     * @param index the investment
+     * @return the investor, or -1 if the investment is not funded
+     */
+    @Override
+    public int getGeneAtIndex(int index) {
+        int row = index * investorCount;
+        int best = -1;
+        double bestFraction = 0;
+        for (int j = 0; j < investorCount; j++) {
+            if (fractions[row + j] > bestFraction) {
+                bestFraction = fractions[row + j];
+                best = j;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Give a whole investment to one investor
+     * @param index the investment
+     * @param gene the investor or -1 to not fund the investment
+     */
+    @Override
+    public void setGeneAtIndex(int index, int gene) {
+        int row = index * investorCount;
+        Arrays.fill(fractions, row, row + investorCount, 0);
+        if (gene != -1) {
+            fractions[row + gene] = 1;
+        }
+        evaluated = false;
+    }
+
+    @Override
+    public void copyFrom(AbstractChromosome other) {
+        if (other instanceof SoftBoundaryChromosome) {
+            System.arraycopy(((SoftBoundaryChromosome) other).fractions, 0, fractions, 0, fractions.length);
+            evaluated = false;
+        } else {
+            for (int i = 0; i < length; i++) {
+                setGeneAtIndex(i, other.getGeneAtIndex(i));
+            }
+        }
+    }
+
+    @Override
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * The operators only give fractions to investors that want the product, so the chromosome is always valid
+     * @return true
+     */
+    @Override
+    public boolean isValidChromosome() {
+        return true;
+    }
+
+    /**
+     * Get the fraction of an investment funded by an investor
+     * @param index the investment
+     * @param investor the investor
+     * @return the fraction between 0 and 1
+     */
+    public double getFraction(int index, int investor) {
+        return fractions[index * investorCount + investor];
+    }
+
+    /**
+     * Get the annual income of an investor, as of the last fitness calculation
+     * @param investor the investor
+     * @return the sum of the funded fractions of the annual yields
+     */
+    public double getIncome(int investor) {
+        return incomes[investor];
+    }
+
+    /**
+     * Move a part of an investment from one investor to another and update the fitness in O(1). The fitness must
+     * have been calculated. Every rebuildInterval transfers the fitness is calculated from scratch instead.
+     * @param index the investment
+     * @param from the investor that gives the part
+     * @param to the investor that receives it
+     * @param fraction the fraction of the whole investment which to move, at most the fraction of the giver
+     */
+    void transfer(int index, int from, int to, double fraction) {
+        int row = index * investorCount;
+        fractions[row + from] -= fraction;
+        fractions[row + to] += fraction;
+        if (++transfersSinceRebuild >= rebuildInterval) {
+            evaluated = false;
+            calcFitness();
+            return;
+        }
+        double amount = fraction * kernel.getYield(index);
+        double fromOld = incomes[from];
+        double toOld = incomes[to];
+        incomes[from] -= amount;
+        incomes[to] += amount;
+        sum += incomes[from] + incomes[to] - fromOld - toOld;
+        sumOfSquares += incomes[from] * incomes[from] + incomes[to] * incomes[to] - fromOld * fromOld - toOld * toOld;
+        matrix.setFitness(fitnessRow, MathOperator.getStandardDeviation(sum, sumOfSquares, investorCount));
+        kernel.countEvaluation();
+    }
+
+    /**
+     * Get the number of investors, which is the length of a row
+     * @return the number of investors
+     */
+    public int getInvestorCount() {
+        return investorCount;
+    }
+
+    /**
+     * Get the fractions themselves, for the operators. Call markChanged after changing them.
+     * @return the row-major matrix of the fractions
+     */
+    double[] getFractionMatrix() {
+        return fractions;
+    }
+
+    /**
+     * Tell the chromosome that its fractions were changed directly
+     */
+    void markChanged() {
+        evaluated = false;
+    }
+}
@@ -0,0 +1,145 @@
+package algorithms.genetic_algorithm_extra;
+
+import java.util.SplittableRandom;
+
+/**
+ * Operators on the fractions of SoftBoundaryChromosomes. Both keep every row a distribution over the investors that
+ * want the product: the fractions stay non-negative, add up to 1 and are 0 for everybody else.
+ *
+ * The crossover blends the rows of the parents with a random weight per investment. The mutation moves a random
+ * share of a row to one investor of the domain, taking it from all investors in proportion to their fractions.
+ */
+public class SoftBoundaryOperators implements GeneticOperators {
+
+    private final FitnessKernel kernel;
+
+    /**
+     * Create the operators of a problem
+     * @param kernel the fitness kernel, which holds the domains of the investments
+     */
+    public SoftBoundaryOperators(FitnessKernel kernel) {
+        this.kernel = kernel;
+    }
+
+    /**
+     * Fill a chromosome with random fractions. The fractions of every row are uniformly distributed over all the
+     * ways to split the investment between the investors that want its product.
+     * @param chromosome the chromosome which to fill
+     * @param random the random number generator
+     */
+    public void fillRandom(SoftBoundaryChromosome chromosome, SplittableRandom random) {
+        double[] fractions = chromosome.getFractionMatrix();
+        int investorCount = chromosome.getInvestorCount();
+        for (int i = 0; i < chromosome.getLength(); i++) {
+            int row = i * investorCount;
+            int size = kernel.getDomainSize(i);
+            double total = 0;
+            for (int k = 0; k < size; k++) {
+                // Exponential weights, normalised below, give a uniform (Dirichlet) split
+                double weight = -Math.log(1 - random.nextDouble());
+                fractions[row + kernel.getDomainInvestor(i, k)] = weight;
+                total += weight;
+            }
+            for (int k = 0; k < size; k++) {
+                fractions[row + kernel.getDomainInvestor(i, k)] /= total;
+            }
+        }
+        chromosome.markChanged();
+    }
+
+    /**
+     * offspring = w * father + (1 - w) * mother, with a random weight w for every investment
+     */
+    @Override
+    public void crossover(AbstractChromosome father, AbstractChromosome mother, AbstractChromosome offspring,
+                          SplittableRandom random) {
+        double[] one = ((SoftBoundaryChromosome) father).getFractionMatrix();
+        double[] two = ((SoftBoundaryChromosome) mother).getFractionMatrix();
+        SoftBoundaryChromosome child = (SoftBoundaryChromosome) offspring;
+        double[] fractions = child.getFractionMatrix();
+        int investorCount = child.getInvestorCount();
+        for (int i = 0; i < child.getLength(); i++) {
+            double weight = random.nextDouble();
+            int row = i * investorCount;
+            for (int j = row; j < row + investorCount; j++) {
+                fractions[j] = weight * one[j] + (1 - weight) * two[j];
+            }
+        }
+        child.markChanged();
+    }
+
+    /**
+     * row = (1 - s) * row + s * e(b) for a random share s and a random investor b of the domain
+     */
+    @Override
+    public boolean mutate(AbstractChromosome chromosome, MutationSampler sampler, SplittableRandom random) {
+        SoftBoundaryChromosome soft = (SoftBoundaryChromosome) chromosome;
+        double[] fractions = soft.getFractionMatrix();
+        int investorCount = soft.getInvestorCount();
+        int length = soft.getLength();
+        boolean mutated = false;
+        for (long i = sampler.next(-1, length, random); i < length; i = sampler.next(i, length, random)) {
+            int index = (int) i;
+            int size = kernel.getDomainSize(index);
+            if (size < 2) {
+                // A row with a single investor cannot change
+                continue;
+            }
+            int row = index * investorCount;
+            double share = random.nextDouble();
+            for (int k = 0; k < size; k++) {
+                fractions[row + kernel.getDomainInvestor(index, k)] *= 1 - share;
+            }
+            fractions[row + kernel.getDomainInvestor(index, random.nextInt(size))] += share;
+            mutated = true;
+        }
+        if (mutated) {
+            soft.markChanged();
+        }
+        return mutated;
+    }
+
+    /**
+     * Every step moves money of a random investment between two investors of its domain. When minimising, the
+     * richest investor that funds a part of it gives the poorer one as much as brings their incomes closest together.
+     * When maximising, the poorest investor that funds a part of it gives its whole part to the richest one. Both
+     * changes always make the chromosome fitter, unless the investors already have the same income.
+     */
+    @Override
+    public int improve(AbstractChromosome chromosome, int steps, boolean minimisation, SplittableRandom random) {
+        SoftBoundaryChromosome soft = (SoftBoundaryChromosome) chromosome;
+        soft.calcFitness();
+        int kept = 0;
+        for (int step = 0; step < steps; step++) {
+            int index = random.nextInt(soft.getLength());
+            double yield = kernel.getYield(index);
+            int size = kernel.getDomainSize(index);
+            if (size < 2 || yield <= 0) {
+                continue;
+            }
+            // The giver must fund a part of the investment, the receiver can be anybody in the domain
+            int giver = -1;
+            int receiver = -1;
+            for (int k = 0; k < size; k++) {
+                int investor = kernel.getDomainInvestor(index, k);
+                double income = soft.getIncome(investor);
+                if (soft.getFraction(index, investor) > 0 && (giver == -1
+                        || (minimisation ? income > soft.getIncome(giver) : income < soft.getIncome(giver)))) {
+                    giver = investor;
+                }
+                if (receiver == -1 || (minimisation ? income < soft.getIncome(receiver) : income > soft.getIncome(receiver))) {
+                    receiver = investor;
+                }
+            }
+            double gap = soft.getIncome(giver) - soft.getIncome(receiver);
+            if (giver == receiver || (minimisation ? gap <= 0 : gap >= 0)) {
+                continue;
+            }
+            double fraction = minimisation ? Math.min(soft.getFraction(index, giver), gap / (2 * yield))
+                    : soft.getFraction(index, giver);
+            soft.transfer(index, giver, receiver, fraction);
+            kept++;
+        }
+        return kept;
+    }
+}
@@ -0,0 +1,104 @@
+package algorithms.genetic_algorithm_extra;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the islands after a generation and hands the GenerationMetrics to a TelemetrySink.
+ *
+ * The fitness statistics are a single pass over the fitness values, which the populations already hold. The
+ * diversity is a pass over all genes, so with large chromosomes it is worth recording only every few generations
+ * (GeneticAlgorithmSettings.setTelemetryInterval). The evaluations are read from the counter of the FitnessKernel,
+ * which only counts the chromosomes whose fitness was really calculated, from scratch, by a delta or by a transfer of
+ * the local search. The allocated bytes are the sum over the
+ * live threads of the JVM, so the allocations of threads that ended in between are not counted.
+ */
+public class TelemetryRecorder {
+
+    private final TelemetrySink sink;
+    private final long startNanos;
+    private final ThreadMXBean threads;
+    private long lastNanos;
+    private long lastEvaluations;
+    private long lastAllocatedBytes;
+
+    /**
+     * Start measuring a run
+     * @param sink the sink that receives the metrics
+     * @param islands the islands, whose evaluations so far are not counted
+     */
+    public TelemetryRecorder(TelemetrySink sink, IslandModel islands) {
+        this.sink = sink;
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        this.threads = bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported() ? bean : null;
+        this.startNanos = System.nanoTime();
+        this.lastNanos = startNanos;
+        this.lastEvaluations = islands.getProblem().getFitnessKernel().getEvaluationCount();
+        this.lastAllocatedBytes = getAllocatedBytes();
+    }
+
+    /**
+     * Measure the islands and record the metrics
+     * @param generation the number of generations that have run
+     * @param islands the islands
+     */
+    public void record(int generation, IslandModel islands) {
+        long now = System.nanoTime();
+        double best = Double.NaN;
+        double worst = Double.NaN;
+        double sum = 0;
+        long chromosomes = 0;
+        long valid = 0;
+        boolean minimisation = islands.isMinimisation();
+        for (Generator island : islands.getIslands()) {
+            Population population = island.getPopulation();
+            AbstractChromosome[] members = population.getChromosomes();
+            for (int i = 0; i < members.length; i++) {
+                double fitness = population.getFitness(i);
+                if (chromosomes == 0 || (minimisation ? fitness < best : fitness > best)) {
+                    best = fitness;
+                }
+                if (chromosomes == 0 || (minimisation ? fitness > worst : fitness < worst)) {
+                    worst = fitness;
+                }
+                sum += fitness;
+                chromosomes++;
+                if (members[i].isValidChromosome()) {
+                    valid++;
+                }
+            }
+        }
+        double seconds = (now - lastNanos) / 1e9;
+        long evaluationCount = islands.getProblem().getFitnessKernel().getEvaluationCount();
+        long evaluations = evaluationCount - lastEvaluations;
+        double evaluationsPerSecond = seconds > 0 ? evaluations / seconds : 0;
+        long allocated = getAllocatedBytes();
+        long allocatedBytes = allocated < 0 ? -1 : Math.max(0, allocated - lastAllocatedBytes);
+
+        sink.record(new GenerationMetrics(generation, (now - startNanos) / 1_000_000, best, sum / chromosomes,
+                worst, islands.getDiversity(), (double) valid / chromosomes, evaluations, evaluationsPerSecond,
+                allocatedBytes));
+        lastNanos = now;
+        lastEvaluations = evaluationCount;
+        lastAllocatedBytes = allocated;
+    }
+
+    /**
+     * Get the bytes allocated by the live threads since they started
+     * @return the bytes or -1 if the JVM cannot measure them
+     */
+    private long getAllocatedBytes() {
+        if (threads == null || !((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        long total = 0;
+        for (long bytes : ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            // Threads that ended after their IDs were read report -1
+            if (bytes > 0) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+}
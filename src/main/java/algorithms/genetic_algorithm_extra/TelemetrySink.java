@@ -0,0 +1,20 @@
+package algorithms.genetic_algorithm_extra;
+
+/**
+ * Receives the metrics of the generations of the GeneticAlgorithm, see GeneticAlgorithmSettings.setTelemetrySink.
+ * The metrics are recorded on the thread that runs the algorithm, so a sink should return quickly.
+ */
+public interface TelemetrySink {
+
+    /**
+     * Record the metrics of a generation
+     * @param metrics the metrics
+     */
+    void record(GenerationMetrics metrics);
+
+    /**
+     * Make the recorded metrics visible, e.g. write buffered lines into a file. Called when a run finishes.
+     */
+    default void flush() {
+    }
+}
@@ -0,0 +1,113 @@
+package algorithms.greedy_algorithm_extra;
+
+import entities.Investment;
+import entities.Investor;
+import helpers.InvestorHeap;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Keeps one heap of investors per product ID. Each heap holds only the investors that still have the product on
+ * their wishlist, ordered so that the investor with the smallest annual income is on top.
+ *
+ * Finding an investor for an investment is a single lookup in the heap of its product. After an investor receives
+ * or gives back an investment, its position is fixed in every heap it belongs to, which costs O(p log n) where p is
+ * the number of different products the investor wants.
+ */
+public class ProductInvestorIndex {
+
+    // Product index ---> heap of the investors that want the product
+    private InvestorHeap[] heaps = new InvestorHeap[0];
+
+    /**
+     * Build the index from a collection of investors
+     * @param investors The investors looking to invest
+     */
+    public ProductInvestorIndex(Collection<Investor> investors) {
+        for (Investor investor : investors) {
+            for (int i = 0; i < investor.getWishedProductCount(); i++) {
+                heapOf(investor.getWishedProduct(i)).add(investor);
+            }
+        }
+    }
+
+    /**
+     * Get the investor that would receive an investment into the given product next
+     * @param productIndex The interned index of the product
+     * @return the investor or null if nobody wants the product anymore
+     */
+    public Investor peekInvestor(int productIndex) {
+        return productIndex < heaps.length && heaps[productIndex] != null ? heaps[productIndex].peek() : null;
+    }
+
+    /**
+     * Get the investor that would receive an investment into the given product after the next one
+     * @param productIndex The interned index of the product
+     * @return the investor or null if fewer than two investors want the product
+     */
+    public Investor peekSecondInvestor(int productIndex) {
+        return productIndex < heaps.length && heaps[productIndex] != null ? heaps[productIndex].peekSecond() : null;
+    }
+
+    /**
+     * Find the investor with the smallest annual income that wants the investment and allocate the investment.
+     * @param investment The investment to allocate
+     * @return the investor who received the investment or null if nobody wants it
+     */
+    public Investor allocate(Investment investment) {
+        int product = investment.getProductIndex();
+        Investor investor = peekInvestor(product);
+        if (investor != null) {
+            // Add investment to the investor's portfolio and remove from the wishlist
+            investor.removeWish(product);
+            investor.addInvestment(investment);
+            if (!investor.hasWish(product)) {
+                heaps[product].remove(investor);
+            }
+            reposition(investor);
+        }
+        return investor;
+    }
+
+    /**
+     * Take an investment back from an investor. The investor wants the product again and, with a smaller annual
+     * income, moves up in the heaps of all the products still wanted.
+     * @param investor The investor who holds the investment
+     * @param investment The investment to take back
+     * @return true if the investor held the investment, false otherwise
+     */
+    public boolean release(Investor investor, Investment investment) {
+        if (!investor.removeInvestment(investment)) {
+            return false;
+        }
+        investor.addWish(investment.getProductIndex());
+        reposition(investor);
+        return true;
+    }
+
+    /**
+     * Fix the position of the investor in the heap of every product still wanted after the annual income changed
+     * @param investor The investor that changed
+     */
+    private void reposition(Investor investor) {
+        for (int i = 0; i < investor.getWishedProductCount(); i++) {
+            heapOf(investor.getWishedProduct(i)).add(investor);
+        }
+    }
+
+    /**
+     * Get the heap of a product, creating it if it does not exist yet
+     * @param productIndex The interned index of the product
+     * @return the heap of the investors that want the product
+     */
+    private InvestorHeap heapOf(int productIndex) {
+        if (productIndex >= heaps.length) {
+            heaps = Arrays.copyOf(heaps, Math.max(productIndex + 1, 2 * heaps.length));
+        }
+        if (heaps[productIndex] == null) {
+            heaps[productIndex] = new InvestorHeap();
+        }
+        return heaps[productIndex];
+    }
+}
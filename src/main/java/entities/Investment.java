@@ -42,6 +42,14 @@ public class Investment implements Comparable<Investment> {
         return order.getProductID();
     }
 
+    /**
+     * Returns the interned index of the product (see ProductDictionary).
+     * @return The product index for the investment.
+     */
+    public int getProductIndex() {
+        return order.getProductIndex();
+    }
+
     /**
      * Returns the order of a customer that this investment references
      * @return The order for which the investment is made.
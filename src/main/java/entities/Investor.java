@@ -2,50 +2,123 @@ package entities;
 
 import helpers.AbstractInvestorComparator;
 import helpers.AnnualIncomeInvestorComparator;
+import helpers.ProductDictionary;
 
 import java.util.*;
 
 /**
- * Represents an investor.
+ * Represents an investor. An investor is not thread-safe: code that shares investors between threads must guard them,
+ * as ConcurrentAllocator does with the lock of the investor and the locks of the products it wants.
  */
 public class Investor extends Partner implements Comparable<Investor>{
 
-    private final List<String> wishlist;
+    // The dictionary that gives the products of the wishes their indices
+    private final ProductDictionary products;
+
+    // The distinct product indices whose wish count is above zero, in ascending order, and the count of each of them.
+    // An investor wants a handful of products, so a binary search in two small arrays replaces an array indexed by
+    // every product of the dictionary.
+    private int[] wishedProducts;
+    private int[] wishCounts;
+    private int wishedProductCount = 0;
 
     private final List<Investment> investments;
+    // The read-only view returned by getInvestments, so changes cannot bypass the positions
+    private final List<Investment> investmentsView;
+    // Investment ---> its position in investments, so an investment is removed in O(1) by moving the last one into
+    // its place. An investor holds an investment at most once.
+    private final Map<Investment, Integer> positions;
+
+    // Investment ---> the part of it the investor funds. Only split investments are stored, the rest are funded fully.
+    private Map<Investment, Double> fractions = null;
 
     private final AbstractInvestorComparator comparator;
 
     private double annualYield = 0;
 
     /**
-     * Creates a new investor with the given name.
+     * Creates a new investor with the given name, whose products are interned into the shared dictionary.
      * @param name The name of the investor.
      */
     public Investor(String name) {
-        super(name);
-        wishlist = new ArrayList<>();
-        investments = new ArrayList<>();
-        comparator = new AnnualIncomeInvestorComparator();
+        this(name, ProductDictionary.getShared(), new AnnualIncomeInvestorComparator());
     }
 
     /**
-     * Creates a new investor with the given name and a comparator.
+     * Creates a new investor with the given name and a comparator, whose products are interned into the shared
+     * dictionary.
      * @param name The name of the investor.
      * @param comparator The comparator implementation
      */
     public Investor(String name, AbstractInvestorComparator comparator) {
+        this(name, ProductDictionary.getShared(), comparator);
+    }
+
+    /**
+     * Creates a new investor with the given name, whose products are interned into the dictionary of a load.
+     * @param name The name of the investor.
+     * @param products The dictionary of the products
+     */
+    public Investor(String name, ProductDictionary products) {
+        this(name, products, new AnnualIncomeInvestorComparator());
+    }
+
+    /**
+     * Creates a new investor with the given name, dictionary and comparator.
+     * @param name The name of the investor.
+     * @param products The dictionary of the products
+     * @param comparator The comparator implementation
+     */
+    public Investor(String name, ProductDictionary products, AbstractInvestorComparator comparator) {
         super(name);
-        wishlist = new ArrayList<>();
+        this.products = products;
+        wishedProducts = new int[4];
+        wishCounts = new int[4];
         investments = new ArrayList<>();
+        investmentsView = Collections.unmodifiableList(investments);
+        positions = new HashMap<>();
         this.comparator = comparator;
     }
 
     /**
-     * Gets the list of product IDs that the investor is interested in.
+     * Creates a copy of an investor with the same name, dictionary, comparator, wishes and investments. Changing the
+     * copy does not change the investor, e.g. when an algorithm returns its allocation without touching its input.
+     * @param other The investor to copy
+     */
+    public Investor(Investor other) {
+        super(other.getName());
+        this.products = other.products;
+        wishedProducts = Arrays.copyOf(other.wishedProducts, other.wishedProducts.length);
+        wishCounts = Arrays.copyOf(other.wishCounts, other.wishCounts.length);
+        wishedProductCount = other.wishedProductCount;
+        investments = new ArrayList<>(other.investments);
+        investmentsView = Collections.unmodifiableList(investments);
+        positions = new HashMap<>(other.positions);
+        fractions = other.fractions == null ? null : new HashMap<>(other.fractions);
+        this.comparator = other.comparator;
+        annualYield = other.annualYield;
+    }
+
+    /**
+     * Get the dictionary of the products of the investor
+     * @return the dictionary
+     */
+    public ProductDictionary getProductDictionary() {
+        return products;
+    }
+
+    /**
+     * Gets the list of product IDs that the investor is interested in. The list is a snapshot built from the
+     * wish counts, so changing it does not change the investor.
      * @return The wishlist of the investor.
      */
     public List<String> getWishlist() {
+        List<String> wishlist = new ArrayList<>();
+        for (int i = 0; i < wishedProductCount; i++) {
+            for (int j = 0; j < wishCounts[i]; j++) {
+                wishlist.add(products.getProductID(wishedProducts[i]));
+            }
+        }
         return wishlist;
     }
 
@@ -54,15 +127,82 @@ public class Investor extends Partner implements Comparable<Investor>{
      * @param newProduct The ID of the new product to add to the wishlist.
      */
     public void addWish(String newProduct) {
-        wishlist.add(newProduct);
+        addWish(products.intern(newProduct));
+    }
+
+    /**
+     * Adds a new product to the investor's wishlist.
+     * @param productIndex The interned index of the product
+     */
+    public void addWish(int productIndex) {
+        int position = findWish(productIndex);
+        if (position >= 0) {
+            wishCounts[position]++;
+            return;
+        }
+        position = -position - 1;
+        if (wishedProductCount == wishedProducts.length) {
+            wishedProducts = Arrays.copyOf(wishedProducts, wishedProductCount * 2);
+            wishCounts = Arrays.copyOf(wishCounts, wishedProductCount * 2);
+        }
+        System.arraycopy(wishedProducts, position, wishedProducts, position + 1, wishedProductCount - position);
+        System.arraycopy(wishCounts, position, wishCounts, position + 1, wishedProductCount - position);
+        wishedProducts[position] = productIndex;
+        wishCounts[position] = 1;
+        wishedProductCount++;
+    }
+
+    /**
+     * Check how many more investments into a product the investor wants. O(log p)
+     * @param productIndex The interned index of the product
+     * @return the number of wishes for the product
+     */
+    public int getWishCount(int productIndex) {
+        int position = findWish(productIndex);
+        return position >= 0 ? wishCounts[position] : 0;
+    }
+
+    /**
+     * Check if the investor still wants to invest into a product. O(log p)
+     * @param productIndex The interned index of the product
+     * @return true if the product is on the wishlist
+     */
+    public boolean hasWish(int productIndex) {
+        return findWish(productIndex) >= 0;
     }
 
     /**
-     * Get the list of investments
-     * @return investments
+     * Get the number of different products the investor still wants
+     * @return the number of distinct products on the wishlist
+     */
+    public int getWishedProductCount() {
+        return wishedProductCount;
+    }
+
+    /**
+     * Get one of the different products the investor still wants, in ascending order of the indices
+     * @param position position between 0 and getWishedProductCount() - 1
+     * @return the interned index of the product
+     */
+    public int getWishedProduct(int position) {
+        return wishedProducts[position];
+    }
+
+    /**
+     * Find the position of a product among the wished products
+     * @param productIndex The interned index of the product
+     * @return the position, or (-(insertion point) - 1) if the investor does not want the product
+     */
+    private int findWish(int productIndex) {
+        return Arrays.binarySearch(wishedProducts, 0, wishedProductCount, productIndex);
+    }
+
+    /**
+     * Get the list of investments. A removal moves the last investment into the place of the removed one.
+     * @return investments, which cannot be changed through the list
      */
     public List<Investment> getInvestments() {
-        return investments;
+        return investmentsView;
     }
 
     /**
@@ -70,12 +210,61 @@ public class Investor extends Partner implements Comparable<Investor>{
      * @param investment to add
      */
     public void addInvestment(Investment investment) {
+        positions.put(investment, investments.size());
         investments.add(investment);
         annualYield += investment.getAnnualYield();
         /* Update how much money is earned in total every time the investment is added
            Makes the access for comparison O(1) */
     }
 
+    /**
+     * Add a part of an investment that is split among several investors
+     * @param investment to add
+     * @param fraction the part of the investment the investor funds, between 0 and 1
+     */
+    public void addInvestment(Investment investment, double fraction) {
+        if (fraction == 1) {
+            addInvestment(investment);
+            return;
+        }
+        if (fractions == null) {
+            fractions = new HashMap<>();
+        }
+        positions.put(investment, investments.size());
+        investments.add(investment);
+        fractions.put(investment, fraction);
+        annualYield += fraction * investment.getAnnualYield();
+    }
+
+    /**
+     * Get the part of an investment the investor funds
+     * @param investment the investment
+     * @return the fraction, which is 1 for investments that are not split
+     */
+    public double getFraction(Investment investment) {
+        return fractions == null ? 1 : fractions.getOrDefault(investment, 1.0);
+    }
+
+    /**
+     * Remove an investment from the portfolio in O(1). The last investment takes its place. The wishlist is not changed.
+     * @param investment to remove
+     * @return true if the investor held the investment, false otherwise
+     */
+    public boolean removeInvestment(Investment investment) {
+        Integer position = positions.remove(investment);
+        if (position == null) {
+            return false;
+        }
+        Investment last = investments.remove(investments.size() - 1);
+        if (last != investment) {
+            investments.set(position, last);
+            positions.put(last, position);
+        }
+        Double fraction = fractions == null ? null : fractions.remove(investment);
+        annualYield -= (fraction == null ? 1 : fraction) * investment.getAnnualYield();
+        return true;
+    }
+
     /**
      * Get a sum of money that the investor earns from the investments
      * @return the amount of money
@@ -89,7 +278,28 @@ public class Investor extends Partner implements Comparable<Investor>{
      * @param wish The ID of the product to remove from the wishlist.
      */
     public void removeWish(String wish) {
-        wishlist.remove(wish);
+        int productIndex = products.indexOf(wish);
+        if (productIndex != -1) {
+            removeWish(productIndex);
+        }
+    }
+
+    /**
+     * Removes one wish for a product from the investor's wishlist.
+     * @param productIndex The interned index of the product
+     * @return true if the investor wanted the product, false otherwise
+     */
+    public boolean removeWish(int productIndex) {
+        int position = findWish(productIndex);
+        if (position < 0) {
+            return false;
+        }
+        if (--wishCounts[position] == 0) {
+            wishedProductCount--;
+            System.arraycopy(wishedProducts, position + 1, wishedProducts, position, wishedProductCount - position);
+            System.arraycopy(wishCounts, position + 1, wishCounts, position, wishedProductCount - position);
+        }
+        return true;
     }
 
     /**
@@ -1,22 +1,37 @@
 package entities;
 
+import helpers.ProductDictionary;
+
 /**
  * Represents an order placed by a customer.
  */
 public class Order {
 
     private final String productID;
+    private final int productIndex;
     private final double price;
     private final Customer owner;
 
     /**
-     * Constructs an Order object with the specified parameters.
+     * Constructs an Order object whose product is interned into the shared dictionary.
      * @param productID the ID of the product being ordered
      * @param price the price of the product being ordered
      * @param owner the customer who placed the order
      */
     public Order(String productID, double price, Customer owner) {
+        this(productID, price, owner, ProductDictionary.getShared());
+    }
+
+    /**
+     * Constructs an Order object whose product is interned into the dictionary of a load.
+     * @param productID the ID of the product being ordered
+     * @param price the price of the product being ordered
+     * @param owner the customer who placed the order
+     * @param products the dictionary of the products
+     */
+    public Order(String productID, double price, Customer owner, ProductDictionary products) {
         this.productID = productID;
+        this.productIndex = products.intern(productID);
         this.price = price;
         this.owner = owner;
     }
@@ -29,6 +44,14 @@ public class Order {
         return productID;
     }
 
+    /**
+     * Returns the interned index of the product (see ProductDictionary).
+     * @return the product index
+     */
+    public int getProductIndex() {
+        return productIndex;
+    }
+
     /**
      * Returns the price of the product.
      * @return the price of the product
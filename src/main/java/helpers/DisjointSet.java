@@ -0,0 +1,59 @@
+package helpers;
+
+/**
+ * A disjoint-set (union-find) structure over the integers 0 ... n - 1.
+ * Uses union by size and path halving, so both operations run in nearly constant time.
+ */
+public class DisjointSet {
+
+    private final int[] parent;
+    private final int[] size;
+
+    /**
+     * Creates n singleton sets
+     * @param n the number of elements
+     */
+    public DisjointSet(int n) {
+        parent = new int[n];
+        size = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+            size[i] = 1;
+        }
+    }
+
+    /**
+     * Find the representative of the set that contains the element
+     * @param element the element
+     * @return the representative (root) of its set
+     */
+    public int find(int element) {
+        while (parent[element] != element) {
+            parent[element] = parent[parent[element]];
+            element = parent[element];
+        }
+        return element;
+    }
+
+    /**
+     * Merge the sets that contain the two elements
+     * @param one the first element
+     * @param two the second element
+     * @return the representative of the merged set
+     */
+    public int union(int one, int two) {
+        int rootOne = find(one);
+        int rootTwo = find(two);
+        if (rootOne == rootTwo) {
+            return rootOne;
+        }
+        if (size[rootOne] < size[rootTwo]) {
+            int temp = rootOne;
+            rootOne = rootTwo;
+            rootTwo = temp;
+        }
+        parent[rootTwo] = rootOne;
+        size[rootOne] += size[rootTwo];
+        return rootOne;
+    }
+}
@@ -0,0 +1,112 @@
+package helpers;
+
+import entities.Investment;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * Static class that sorts investments in the same order as Investment.compareTo (the most expensive first, then the
+ * one with the highest rate), but without calling compareTo.
+ *
+ * The amount and the rate of every investment are packed into primitive long keys whose unsigned order is the wanted
+ * order. The keys are sorted together with the investment indices by a stable LSD radix sort (11 bits per pass), and
+ * the resulting permutation is applied to the list at the end. Passes in which all keys share the same digit (e.g.
+ * the exponent bits of similar amounts) are skipped, so a typical book needs only a few linear passes over two
+ * primitive arrays instead of O(n log n) comparisons that chase Investment ---> Order ---> amount.
+ */
+public class InvestmentSorter {
+
+    // Below this size the overhead of the radix sort is not worth it
+    private static final int radixThreshold = 256;
+    private static final int digitBits = 11;
+    private static final int bucketCount = 1 << digitBits;
+    private static final int digitMask = bucketCount - 1;
+
+    private InvestmentSorter() {}
+
+    /**
+     * Sort the investments in place, the most expensive at the beginning. The sort is stable.
+     * @param investments the list which to sort
+     */
+    public static void sort(List<Investment> investments) {
+        int n = investments.size();
+        if (n < radixThreshold) {
+            Collections.sort(investments);
+            return;
+        }
+        Investment[] items = investments.toArray(new Investment[0]);
+        long[] amountKeys = new long[n];
+        long[] rateKeys = new long[n];
+        int[] permutation = new int[n];
+        for (int i = 0; i < n; i++) {
+            amountKeys[i] = descendingKey(items[i].getOrder().getAmount());
+            rateKeys[i] = descendingKey(items[i].getRate());
+            permutation[i] = i;
+        }
+
+        // LSD: sort by the secondary key first, then by the primary key. Both passes are stable.
+        int[] spare = new int[n];
+        int[] counts = new int[bucketCount];
+        int[] sorted = radixSort(rateKeys, permutation, spare, counts);
+        spare = sorted == permutation ? spare : permutation;
+        permutation = radixSort(amountKeys, sorted, spare, counts);
+
+        ListIterator<Investment> iterator = investments.listIterator();
+        for (int i = 0; i < n; i++) {
+            iterator.next();
+            iterator.set(items[permutation[i]]);
+        }
+    }
+
+    /**
+     * Map a double to a long whose unsigned order is the reversed order of Double.compare
+     * @param value the value
+     * @return the key
+     */
+    private static long descendingKey(double value) {
+        long bits = Double.doubleToLongBits(value);
+        // Flip all bits of negative numbers and only the sign bit of positive ones ---> ascending unsigned order
+        long ascending = bits ^ ((bits >> 63) | Long.MIN_VALUE);
+        return ~ascending;
+    }
+
+    /**
+     * Stable LSD radix sort of the indices by their unsigned keys
+     * @param keys the keys of all investments, indexed by investment
+     * @param permutation the current order of the investment indices
+     * @param buffer a spare array of the same length
+     * @param counts a spare array of bucketCount ints
+     * @return the array that holds the sorted order (either permutation or buffer)
+     */
+    private static int[] radixSort(long[] keys, int[] permutation, int[] buffer, int[] counts) {
+        int n = permutation.length;
+        for (int shift = 0; shift < 64; shift += digitBits) {
+            Arrays.fill(counts, 0);
+            // The histogram does not depend on the order, so the keys are read sequentially
+            for (int i = 0; i < n; i++) {
+                counts[(int) (keys[i] >>> shift) & digitMask]++;
+            }
+            // Skip the pass if every key has the same digit
+            if (counts[(int) (keys[0] >>> shift) & digitMask] == n) {
+                continue;
+            }
+            int total = 0;
+            for (int b = 0; b < bucketCount; b++) {
+                int count = counts[b];
+                counts[b] = total;
+                total += count;
+            }
+            for (int i = 0; i < n; i++) {
+                int index = permutation[i];
+                buffer[counts[(int) (keys[index] >>> shift) & digitMask]++] = index;
+            }
+            int[] swap = permutation;
+            permutation = buffer;
+            buffer = swap;
+        }
+        return permutation;
+    }
+}
@@ -0,0 +1,321 @@
+package helpers;
+
+import entities.Investor;
+
+import java.util.*;
+
+/**
+ * A binary min-heap of investors that knows where each investor sits inside it.
+ * Investors are ordered by their own comparator (Investor.compareTo). Ties are broken by the order in which the
+ * investors were added, which makes the heap deterministic.
+ *
+ * Because the position of every investor is tracked, an investor whose annual yield has changed can be moved to
+ * its new place with update(investor) in O(log n), instead of draining and refilling the whole heap.
+ *
+ * The heap is a Queue, so it is used directly by AbstractAlgorithm and AlgorithmResult. Every investor can be in the
+ * heap only once. The iterator visits the investors in no particular order and does not support removal.
+ */
+public class InvestorHeap extends AbstractQueue<Investor> {
+
+    private Node[] heap;
+    private int size = 0;
+    private long insertions = 0;
+    private int modifications = 0;
+    private final Map<Investor, Node> nodes = new IdentityHashMap<>();
+
+    /**
+     * Creates an empty heap.
+     */
+    public InvestorHeap() {
+        heap = new Node[16];
+    }
+
+    /**
+     * Creates a heap that contains the given investors. The heap is built in O(n).
+     * @param investors The investors to add
+     */
+    public InvestorHeap(Collection<? extends Investor> investors) {
+        heap = new Node[Math.max(16, investors.size())];
+        for (Investor investor : investors) {
+            if (!nodes.containsKey(investor)) {
+                Node node = new Node(investor, insertions++);
+                nodes.put(investor, node);
+                node.position = size;
+                heap[size++] = node;
+            }
+        }
+        for (int position = (size >>> 1) - 1; position >= 0; position--) {
+            siftDown(position);
+        }
+    }
+
+    /**
+     * Adds an investor to the heap. If the investor is already present, its position is updated instead.
+     * @param investor The investor to add
+     * @return true if the investor was added, false if it was already in the heap
+     */
+    @Override
+    public boolean add(Investor investor) {
+        return offer(investor);
+    }
+
+    /**
+     * Adds an investor to the heap. If the investor is already present, its position is updated instead.
+     * @param investor The investor to add
+     * @return true if the investor was added, false if it was already in the heap
+     */
+    @Override
+    public boolean offer(Investor investor) {
+        Objects.requireNonNull(investor);
+        Node node = nodes.get(investor);
+        if (node != null) {
+            siftAfterChange(node.position);
+            return false;
+        }
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        node = new Node(investor, insertions++);
+        nodes.put(investor, node);
+        heap[size] = node;
+        node.position = size;
+        size++;
+        modifications++;
+        siftUp(node.position);
+        return true;
+    }
+
+    /**
+     * Returns the investor at the top of the heap without removing it.
+     * @return the investor with the smallest key or null if the heap is empty
+     */
+    @Override
+    public Investor peek() {
+        return size == 0 ? null : heap[0].investor;
+    }
+
+    /**
+     * Returns the investor that would be on top of the heap if the current top was removed. O(1)
+     * @return the investor with the second-smallest key or null if there are fewer than two investors
+     */
+    public Investor peekSecond() {
+        if (size < 2) {
+            return null;
+        }
+        if (size == 2 || less(heap[1], heap[2])) {
+            return heap[1].investor;
+        }
+        return heap[2].investor;
+    }
+
+    /**
+     * Removes and returns the investor at the top of the heap.
+     * @return the investor with the smallest key or null if the heap is empty
+     */
+    @Override
+    public Investor poll() {
+        if (size == 0) {
+            return null;
+        }
+        Investor top = heap[0].investor;
+        removeAt(0);
+        return top;
+    }
+
+    /**
+     * Removes an investor from the heap in O(log n).
+     * @param investor The investor to remove
+     * @return true if the investor was in the heap, false otherwise
+     */
+    @Override
+    public boolean remove(Object investor) {
+        Node node = nodes.get(investor);
+        if (node == null) {
+            return false;
+        }
+        removeAt(node.position);
+        return true;
+    }
+
+    /**
+     * Moves an investor to its correct place after its key (e.g. the annual yield) has changed.
+     * @param investor The investor whose key has changed
+     * @return true if the investor was in the heap, false otherwise
+     */
+    public boolean update(Investor investor) {
+        Node node = nodes.get(investor);
+        if (node == null) {
+            return false;
+        }
+        siftAfterChange(node.position);
+        return true;
+    }
+
+    /**
+     * Check if the investor is in the heap
+     * @param investor The investor
+     * @return true if it is, false otherwise
+     */
+    @Override
+    public boolean contains(Object investor) {
+        return nodes.containsKey(investor);
+    }
+
+    /**
+     * Get the number of investors in the heap
+     * @return the size of the heap
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check if the heap is empty
+     * @return true if there are no investors in the heap
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all investors from the heap
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(heap, 0, size, null);
+        nodes.clear();
+        size = 0;
+        modifications++;
+    }
+
+    /**
+     * Get an iterator over the investors in heap order (not sorted)
+     * @return the iterator
+     */
+    @Override
+    public Iterator<Investor> iterator() {
+        return new Iterator<>() {
+            private final int expectedModifications = modifications;
+            private int position = 0;
+
+            @Override
+            public boolean hasNext() {
+                return position < size;
+            }
+
+            @Override
+            public Investor next() {
+                if (expectedModifications != modifications) {
+                    throw new ConcurrentModificationException();
+                }
+                if (position >= size) {
+                    throw new NoSuchElementException();
+                }
+                return heap[position++].investor;
+            }
+        };
+    }
+
+    // ===================   HEAP INTERNALS   ===================
+
+    /**
+     * Remove the node at the given position and restore the heap order
+     * @param position position of the node in the heap array
+     */
+    private void removeAt(int position) {
+        Node removed = heap[position];
+        nodes.remove(removed.investor);
+        size--;
+        modifications++;
+        if (position != size) {
+            heap[position] = heap[size];
+            heap[position].position = position;
+            heap[size] = null;
+            siftAfterChange(position);
+        } else {
+            heap[size] = null;
+        }
+    }
+
+    /**
+     * Move the node at the given position up or down, depending on where it now belongs
+     * @param position position of the node in the heap array
+     */
+    private void siftAfterChange(int position) {
+        if (position > 0 && less(heap[position], heap[(position - 1) >>> 1])) {
+            siftUp(position);
+        } else {
+            siftDown(position);
+        }
+    }
+
+    /**
+     * Move the node towards the root while it is smaller than its parent
+     * @param position position of the node in the heap array
+     */
+    private void siftUp(int position) {
+        Node node = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!less(node, heap[parent])) {
+                break;
+            }
+            heap[position] = heap[parent];
+            heap[position].position = position;
+            position = parent;
+        }
+        heap[position] = node;
+        node.position = position;
+    }
+
+    /**
+     * Move the node towards the leaves while one of its children is smaller
+     * @param position position of the node in the heap array
+     */
+    private void siftDown(int position) {
+        Node node = heap[position];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < size && less(heap[right], heap[child])) {
+                child = right;
+            }
+            if (!less(heap[child], node)) {
+                break;
+            }
+            heap[position] = heap[child];
+            heap[position].position = position;
+            position = child;
+        }
+        heap[position] = node;
+        node.position = position;
+    }
+
+    /**
+     * Compare two nodes by their investors and then by insertion order
+     * @param one the first node
+     * @param two the second node
+     * @return true if the first node should be closer to the root
+     */
+    private static boolean less(Node one, Node two) {
+        int compare = one.investor.compareTo(two.investor);
+        return compare < 0 || (compare == 0 && one.order < two.order);
+    }
+
+    /**
+     * An entry of the heap that remembers its own position
+     */
+    private static final class Node {
+        private final Investor investor;
+        private final long order;
+        private int position;
+
+        private Node(Investor investor, long order) {
+            this.investor = investor;
+            this.order = order;
+        }
+    }
+}
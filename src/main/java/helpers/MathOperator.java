@@ -41,4 +41,31 @@ public class MathOperator {
 
         return standardDeviation;
     }
+
+    /**
+     * Get the standard deviation from running totals, so that it can be updated in O(1) when a single number changes
+     * @param sum the sum of the numbers
+     * @param sumOfSquares the sum of the squares of the numbers
+     * @param n how many numbers there are
+     * @return standard deviation as a double
+     */
+    public static double getStandardDeviation(double sum, double sumOfSquares, int n) {
+        return Math.sqrt(getVariance(sum, sumOfSquares, n));
+    }
+
+    /**
+     * Get the variance from running totals
+     * @param sum the sum of the numbers
+     * @param sumOfSquares the sum of the squares of the numbers
+     * @param n how many numbers there are
+     * @return variance as a double (never negative)
+     */
+    public static double getVariance(double sum, double sumOfSquares, int n) {
+        if(n == 0) {
+            return 0;
+        }
+        double mean = sum / n;
+        // Rounding can make the difference slightly negative when all numbers are equal
+        return Math.max(0, sumOfSquares / n - mean * mean);
+    }
 }
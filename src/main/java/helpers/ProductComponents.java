@@ -0,0 +1,101 @@
+package helpers;
+
+import entities.Investment;
+import entities.Investor;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Splits the investor-product graph into connected components. Two products are in the same component if some
+ * investor wants or holds both of them (directly or through a chain of investors). Investments into products of
+ * different components can never compete for the same investor, so the components can be allocated independently.
+ */
+public class ProductComponents {
+
+    // Product index ---> dense component ID, or -1 if no investor wants the product
+    private final int[] components;
+    private final int componentCount;
+
+    /**
+     * Find the components of the products wanted by the investors
+     * @param investors The investors looking to invest
+     */
+    public ProductComponents(Collection<Investor> investors) {
+        int productCount = ProductDictionary.countProducts(investors, List.of());
+        DisjointSet sets = new DisjointSet(productCount);
+        boolean[] wanted = new boolean[productCount];
+        for (Investor investor : investors) {
+            int first = firstProductOf(investor);
+            for (int i = 0; i < investor.getWishedProductCount(); i++) {
+                int product = investor.getWishedProduct(i);
+                wanted[product] = true;
+                sets.union(first, product);
+            }
+            // A held investment can be given back, after which the investor wants its product again
+            for (Investment investment : investor.getInvestments()) {
+                int product = investment.getProductIndex();
+                wanted[product] = true;
+                sets.union(first, product);
+            }
+        }
+
+        // Give the roots dense IDs in the order of the products
+        components = new int[productCount];
+        int[] rootToComponent = new int[productCount];
+        Arrays.fill(rootToComponent, -1);
+        int count = 0;
+        for (int product = 0; product < productCount; product++) {
+            if (!wanted[product]) {
+                components[product] = -1;
+                continue;
+            }
+            int root = sets.find(product);
+            if (rootToComponent[root] == -1) {
+                rootToComponent[root] = count++;
+            }
+            components[product] = rootToComponent[root];
+        }
+        componentCount = count;
+    }
+
+    /**
+     * Get the component of a product
+     * @param productIndex The interned index of the product
+     * @return the component ID or -1 if no investor wants the product
+     */
+    public int componentOf(int productIndex) {
+        return productIndex < components.length ? components[productIndex] : -1;
+    }
+
+    /**
+     * Get the component of an investor. All products the investor wants or holds are in the same component.
+     * @param investor The investor
+     * @return the component ID or -1 if the investor neither wants nor holds anything
+     */
+    public int componentOf(Investor investor) {
+        int product = firstProductOf(investor);
+        return product == -1 ? -1 : componentOf(product);
+    }
+
+    /**
+     * Get the number of components
+     * @return the number of components
+     */
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    /**
+     * Get any product the investor wants or holds
+     * @param investor The investor
+     * @return the interned index of the product or -1 if there is none
+     */
+    private static int firstProductOf(Investor investor) {
+        if (investor.getWishedProductCount() > 0) {
+            return investor.getWishedProduct(0);
+        }
+        return investor.getInvestments().isEmpty() ? -1 : investor.getInvestments().get(0).getProductIndex();
+    }
+}
@@ -0,0 +1,119 @@
+package helpers;
+
+import entities.Investment;
+import entities.Investor;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns product IDs into a dense int dictionary (0, 1, 2, ...). Once a product ID gets an index, the index never
+ * changes, so the hot paths of the algorithms can work with primitive ints and arrays instead of hashing Strings.
+ *
+ * A dictionary belongs to one load of data: the Executor creates one and CSVReader interns the products from
+ * products.csv first, so the catalogue of products gets the smallest indices. Product IDs that are met only later
+ * (e.g. in a wishlist) are appended at the end. The investors and orders of the load keep the dictionary, so it lives
+ * exactly as long as they do, and the indices of two loads are independent. Investors and orders that are created
+ * without a dictionary (e.g. by hand in the tests) share the one returned by getShared().
+ *
+ * The dictionary is safe to use from several threads.
+ */
+public class ProductDictionary {
+
+    private static final ProductDictionary shared = new ProductDictionary();
+
+    private final Map<String, Integer> indices = new ConcurrentHashMap<>();
+    private volatile String[] productIDs = new String[16];
+    private volatile int size = 0;
+
+    /**
+     * Get the dictionary of the investors and orders that are created without one
+     * @return the shared dictionary
+     */
+    public static ProductDictionary getShared() {
+        return shared;
+    }
+
+    /**
+     * Get the index of a product ID, giving it the next free index if it was not seen before
+     * @param productID The ID of the product
+     * @return the index of the product
+     */
+    public int intern(String productID) {
+        Integer index = indices.get(productID);
+        if (index != null) {
+            return index;
+        }
+        synchronized (this) {
+            index = indices.get(productID);
+            if (index != null) {
+                return index;
+            }
+            String[] ids = productIDs;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            int newIndex = size;
+            ids[newIndex] = productID;
+            productIDs = ids;
+            size = newIndex + 1;
+            indices.put(productID, newIndex);
+            return newIndex;
+        }
+    }
+
+    /**
+     * Get the index of a product ID without interning it
+     * @param productID The ID of the product
+     * @return the index of the product or -1 if it was never interned
+     */
+    public int indexOf(String productID) {
+        Integer index = indices.get(productID);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Get the product ID behind an index
+     * @param index The index of the product
+     * @return the product ID
+     */
+    public String getProductID(int index) {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Unknown product index: " + index);
+        }
+        return productIDs[index];
+    }
+
+    /**
+     * Get the number of interned products. Every index is smaller than this value.
+     * @return the number of products
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the number of product indices a group of investors and investments uses, i.e. the largest index + 1. The
+     * algorithms size their per-product arrays with it, so the arrays do not depend on what else the dictionary holds.
+     * @param investors the investors, with their wishes and held investments
+     * @param investments the investments
+     * @return the number of product indices
+     */
+    public static int countProducts(Collection<Investor> investors, Collection<Investment> investments) {
+        int count = 0;
+        for (Investor investor : investors) {
+            for (int i = 0; i < investor.getWishedProductCount(); i++) {
+                count = Math.max(count, investor.getWishedProduct(i) + 1);
+            }
+            for (Investment investment : investor.getInvestments()) {
+                count = Math.max(count, investment.getProductIndex() + 1);
+            }
+        }
+        for (Investment investment : investments) {
+            count = Math.max(count, investment.getProductIndex() + 1);
+        }
+        return count;
+    }
+}
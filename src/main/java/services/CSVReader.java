@@ -3,6 +3,8 @@ package services;
 import entities.Customer;
 import entities.Investor;
 import entities.Order;
+import helpers.InvestorHeap;
+import helpers.ProductDictionary;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
@@ -22,13 +24,14 @@ public class CSVReader {
     private static final Logger logger = LoggerFactory.getLogger(CSVReader.class);
 
     /**
-     * Reads investor data from a CSV file and returns a list of Investor objects.
+     * Reads investor data from a CSV file and returns a heap of Investor objects.
      *
      * @param filename the name of the CSV file containing the investor data
-     * @return a list of Investor objects containing the data from the CSV file
+     * @param products the dictionary of the products of this load
+     * @return a heap of Investor objects containing the data from the CSV file
      * @throws IOException if there is an error reading the file
      */
-    public static Queue<Investor> readInvestors(String filename) throws IOException {
+    public static InvestorHeap readInvestors(String filename, ProductDictionary products) throws IOException {
         CSVParser parser = readFile(filename);
         // Store references to investors temporarily
         Map<String, Investor> investorsMap = new HashMap<>();
@@ -40,7 +43,7 @@ public class CSVReader {
 
             Investor investor = investorsMap.get(name);
             if (investor == null) {
-                investor = new Investor(name);
+                investor = new Investor(name, products);
                 investorsMap.put(name, investor);
             }
 
@@ -48,17 +51,18 @@ public class CSVReader {
         }
 
         // Finally return the complete list of investors
-        return new PriorityQueue<>(investorsMap.values());
+        return new InvestorHeap(investorsMap.values());
     }
 
     /**
      * Reads customer data from a CSV file and returns a list of Customer objects.
      *
      * @param filename the name of the CSV file to read from
+     * @param products the dictionary of the products of this load
      * @return a list of Customer objects representing the data in the file
      * @throws IOException if the file cannot be read
      */
-    public static List<Customer> readCustomers(String filename) throws IOException {
+    public static List<Customer> readCustomers(String filename, ProductDictionary products) throws IOException {
         CSVParser parser = readFile(filename);
         // Store references to customers temporarily
         Map<String, Customer> customersMap = new HashMap<>();
@@ -73,7 +77,7 @@ public class CSVReader {
                 customersMap.put(name, customer);
             }
 
-            customer.addOrder(new Order(entry.get(1), Double.parseDouble(entry.get(2)), customer));
+            customer.addOrder(new Order(entry.get(1), Double.parseDouble(entry.get(2)), customer, products));
         }
 
         // Finally return the complete list of investors
@@ -81,16 +85,20 @@ public class CSVReader {
     }
 
     /**
-     * Read products from a file and return a map containing (productID, interest) pairs
+     * Read products from a file and return a map containing (productID, interest) pairs.
+     * The product IDs are interned into the dictionary of the load in the order of the file, so the products of the
+     * catalogue get the dense indices 0, 1, 2, ... Read this file before the investors and customers.
      * @param filename The name of the file
+     * @param dictionary the dictionary of the products of this load, usually a new one
      * @return A map of (productID, interest) pairs
      * @throws IOException if the file cannot be read
      */
-    public static Map<String, Double> readProducts(String filename) throws IOException {
+    public static Map<String, Double> readProducts(String filename, ProductDictionary dictionary) throws IOException {
         CSVParser parser = readFile(filename);
         Map<String, Double> products = new TreeMap<>();
         for (CSVRecord entry : parser) {
             String name = entry.get(0);
+            dictionary.intern(name);
             double value = Double.parseDouble(entry.get(1).replaceAll("%", ""));
             products.put(name, value);
         }
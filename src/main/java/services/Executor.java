@@ -2,13 +2,20 @@ package services;
 
 import algorithms.AbstractAlgorithm;
 import algorithms.AlgorithmResult;
+import algorithms.ComponentParallelAlgorithm;
 import algorithms.GeneticAlgorithm;
 import algorithms.GreedyAlgorithm;
+import algorithms.LocalSearchAlgorithm;
+import algorithms.OnlineAllocator;
+import algorithms.RegretGreedyAlgorithm;
+import algorithms.WaterFillingAlgorithm;
 import algorithms.genetic_algorithm_extra.ChromosomeType;
 import entities.Customer;
 import entities.Investment;
 import entities.Investor;
 import entities.Order;
+import helpers.InvestorHeap;
+import helpers.ProductDictionary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,7 +29,7 @@ import java.util.*;
 public class Executor {
 
     private static final Logger logger = LoggerFactory.getLogger(Executor.class);
-    private Queue<Investor> investors = null;
+    private InvestorHeap investors = null;
     private List<Customer> customers = null;
     private Map<String, Double> productInterest = null;
     private final Properties properties;
@@ -36,7 +43,7 @@ public class Executor {
     }
 
     /**
-     * The only method of the Executor that can be called externally. Used to start the algorithm allocating the investments.
+     * Used to start the algorithm allocating the investments.
      * @throws RuntimeException if something wrong happens during the execution
      */
     public void run() throws RuntimeException{
@@ -50,6 +57,10 @@ public class Executor {
             // Selecting the strategy
             AbstractAlgorithm algorithm = new GreedyAlgorithm();
             //AbstractAlgorithm algorithm = new GeneticAlgorithm(ChromosomeType.HARD_BOUNDARY, true);
+            //AbstractAlgorithm algorithm = new ComponentParallelAlgorithm(GreedyAlgorithm::new);
+            //AbstractAlgorithm algorithm = new RegretGreedyAlgorithm();
+            //AbstractAlgorithm algorithm = new LocalSearchAlgorithm(new GreedyAlgorithm());
+            //AbstractAlgorithm algorithm = new WaterFillingAlgorithm();
             StringBuilder result = runAlgorithm(algorithm);
 
             // As suggested in the task sheet, the answer is printed out into the terminal
@@ -65,6 +76,22 @@ public class Executor {
         }
     }
 
+    /**
+     * Reads the files, allocates the current orders with the GreedyAlgorithm and returns a long-lived allocator
+     * that continues from that state. New orders can then be placed as they arrive without re-reading the files.
+     * @return the OnlineAllocator
+     * @throws RuntimeException if the files could not be read
+     */
+    public OnlineAllocator startOnlineAllocator() throws RuntimeException {
+        readFiles();
+        if (investors == null || customers == null || productInterest == null) {
+            throw new RuntimeException("The allocator could not be started due to a failure in reading the required files");
+        }
+        AlgorithmResult algorithmResult = new GreedyAlgorithm().run(investors, getInvestments());
+        logger.info("The online allocator was started from the greedy allocation");
+        return new OnlineAllocator(algorithmResult, productInterest);
+    }
+
     /**
      * The method that runs the chosen strategy and obtains the result of the execution.
      * @param abstractAlgorithm the strategy chosen
@@ -126,7 +153,12 @@ public class Executor {
         for(Investor investor : investorList) {
             builder.append(String.format("The investments that were allocated to %s are:\n", investor.getName()));
             for(Investment investment : investor.getInvestments()) {
-                builder.append("  - ").append(investment).append("\n");
+                builder.append("  - ").append(investment);
+                double fraction = investor.getFraction(investment);
+                if (fraction != 1) {
+                    builder.append(String.format(" (share: %.2f%%)", fraction * 100));
+                }
+                builder.append("\n");
             }
             builder.append(String.format("The total amount of money earned annually is: %f\n\n", investor.getAnnualYield()));
         }
@@ -156,14 +188,17 @@ public class Executor {
      */
     private void readFiles() {
         try {
-            investors = CSVReader.readInvestors(properties.getProperty("investors.csv"));
+            // Every load interns its products into its own dictionary. Products go first, so that the product
+            // catalogue gets the dense product indices
+            ProductDictionary products = new ProductDictionary();
+            productInterest = CSVReader.readProducts(properties.getProperty("products.csv"), products);
+            logger.info("Information about products was successfully read");
+
+            investors = CSVReader.readInvestors(properties.getProperty("investors.csv"), products);
             logger.info("Information about investors was successfully read");
 
-            customers = CSVReader.readCustomers(properties.getProperty("customers.csv"));
+            customers = CSVReader.readCustomers(properties.getProperty("customers.csv"), products);
             logger.info("Information about customers was successfully read");
-
-            productInterest = CSVReader.readProducts(properties.getProperty("products.csv"));
-            logger.info("Information about products was successfully read");
         }
         catch (IOException exception) {
             logger.error("An exception occurred when reading the files", exception);
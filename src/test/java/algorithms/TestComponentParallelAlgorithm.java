@@ -0,0 +1,160 @@
+package algorithms;
+
+import entities.Customer;
+import entities.Investment;
+import entities.Investor;
+import entities.Order;
+import algorithms.genetic_algorithm_extra.ChromosomeType;
+import algorithms.genetic_algorithm_extra.GeneticAlgorithmSettings;
+import helpers.InvestorHeap;
+import org.junit.jupiter.api.Test;
+
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestComponentParallelAlgorithm {
+
+    @Test
+    public void testSameAllocationAsSequentialGreedy() {
+        AlgorithmResult sequential = new GreedyAlgorithm().run(initialiseInvestors(), initialiseInvestments());
+        AlgorithmResult parallel = new ComponentParallelAlgorithm(GreedyAlgorithm::new, new ForkJoinPool(4))
+                .run(initialiseInvestors(), initialiseInvestments());
+
+        assertEquals(describe(sequential.getInvestors()), describe(parallel.getInvestors()));
+        assertEquals(borrowers(sequential.getUnusedInvestments()), borrowers(parallel.getUnusedInvestments()));
+    }
+
+    @Test
+    public void testUnusedInvestmentsOfAllComponentsAreMerged() {
+        AlgorithmResult result = new ComponentParallelAlgorithm(GreedyAlgorithm::new)
+                .run(initialiseInvestors(), initialiseInvestments());
+
+        assertEquals(Set.of("Customer8", "Customer10"), borrowers(result.getUnusedInvestments()));
+    }
+
+    @Test
+    public void testGeneticAlgorithmRunsOnEveryComponentAtTheSameTime() {
+        GeneticAlgorithmSettings settings = new GeneticAlgorithmSettings()
+                .setSeed(3).setPopulationSize(20).setMaxGenerations(30).setMinGenerations(30).setParallelism(1);
+        AlgorithmResult result = new ComponentParallelAlgorithm(
+                () -> new GeneticAlgorithm(ChromosomeType.HARD_BOUNDARY, true, settings), new ForkJoinPool(2))
+                .run(initialiseInvestors(), initialiseInvestments());
+
+        // Each component is a separate problem, so every investment is either allocated once or unused
+        int allocated = 0;
+        for (Investor investor : result.getInvestors()) {
+            allocated += investor.getInvestments().size();
+        }
+        assertEquals(10, allocated + result.getUnusedInvestments().size());
+        assertTrue(borrowers(result.getUnusedInvestments()).contains("Customer10"));
+        // The search only gives investors the products they want
+        Map<String, Set<String>> allocation = describe(result.getInvestors());
+        assertTrue(Set.of("Customer6", "Customer7", "Customer8", "Customer9").containsAll(allocation.get("Finch")));
+        assertTrue(Set.of("Customer7", "Customer8", "Customer9").containsAll(allocation.get("Robin")));
+    }
+
+    @Test
+    public void testGeneticAlgorithmDoesNotChangeItsInvestors() {
+        GeneticAlgorithmSettings settings = new GeneticAlgorithmSettings()
+                .setSeed(3).setPopulationSize(20).setMaxGenerations(30).setMinGenerations(30).setParallelism(1);
+        for (ChromosomeType type : ChromosomeType.values()) {
+            InvestorHeap investors = initialiseInvestors();
+            AlgorithmResult result = new GeneticAlgorithm(type, true, settings).run(investors, initialiseInvestments());
+
+            int allocated = 0;
+            for (Investor investor : result.getInvestors()) {
+                allocated += investor.getInvestments().size();
+                assertFalse(investors.contains(investor));
+            }
+            assertTrue(allocated > 0);
+            // The result holds copies, so the investors can be shared by runs at the same time
+            for (Investor investor : investors) {
+                assertTrue(investor.getInvestments().isEmpty());
+                assertEquals(0, investor.getAnnualYield());
+            }
+        }
+    }
+
+    @Test
+    public void testComponentsSharingTheSettingsWriteTheirOwnCheckpoints(@TempDir Path directory) throws IOException {
+        GeneticAlgorithmSettings settings = new GeneticAlgorithmSettings()
+                .setSeed(3).setPopulationSize(20).setMaxGenerations(30).setMinGenerations(30).setParallelism(1)
+                .setCheckpointPath(directory.resolve("run.checkpoint")).setCheckpointInterval(1);
+        List<AlgorithmResult> results = new ArrayList<>();
+        for (int run = 0; run < 2; run++) {
+            results.add(new ComponentParallelAlgorithm(
+                    () -> new GeneticAlgorithm(ChromosomeType.HARD_BOUNDARY, true, settings), new ForkJoinPool(2))
+                    .run(initialiseInvestors(), initialiseInvestments()));
+            // Every component deleted its own file and no component resumed from the file of another one
+            try (Stream<Path> files = Files.list(directory)) {
+                assertEquals(0, files.count());
+            }
+        }
+        assertEquals(describe(results.get(0).getInvestors()), describe(results.get(1).getInvestors()));
+    }
+
+    private static Map<String, Set<String>> describe(Collection<Investor> investors) {
+        Map<String, Set<String>> map = new HashMap<>();
+        for (Investor investor : investors) {
+            map.put(investor.getName(), borrowers(investor.getInvestments()));
+        }
+        return map;
+    }
+
+    private static Set<String> borrowers(Collection<Investment> investments) {
+        Set<String> names = new HashSet<>();
+        for (Investment investment : investments) {
+            names.add(investment.getOrder().getOwner().getName());
+        }
+        return names;
+    }
+
+    private static InvestorHeap initialiseInvestors() {
+        // Two components: {P1, P2, P3} and {P6, P7}
+        Investor eagle = new Investor("Eagle");
+        eagle.addWish("P1");
+        eagle.addWish("P2");
+
+        Investor vulture = new Investor("Vulture");
+        vulture.addWish("P2");
+        vulture.addWish("P3");
+        vulture.addWish("P3");
+
+        Investor seagull = new Investor("Seagull");
+        seagull.addWish("P1");
+
+        Investor finch = new Investor("Finch");
+        finch.addWish("P6");
+        finch.addWish("P7");
+
+        Investor robin = new Investor("Robin");
+        robin.addWish("P7");
+
+        return new InvestorHeap(List.of(eagle, vulture, seagull, finch, robin));
+    }
+
+    private static List<Investment> initialiseInvestments() {
+        return new ArrayList<>(List.of(
+                new Investment(2.5, new Order("P1", 48000, new Customer("Customer1"))),
+                new Investment(2.5, new Order("P1", 30000, new Customer("Customer2"))),
+                new Investment(3.5, new Order("P2", 63000, new Customer("Customer3"))),
+                new Investment(2.1, new Order("P3", 50000, new Customer("Customer4"))),
+                new Investment(2.1, new Order("P3", 17412, new Customer("Customer5"))),
+                new Investment(4.0, new Order("P6", 25000, new Customer("Customer6"))),
+                new Investment(4.5, new Order("P7", 90000, new Customer("Customer7"))),
+                new Investment(4.5, new Order("P7", 10000, new Customer("Customer8"))),
+                new Investment(4.5, new Order("P7", 20000, new Customer("Customer9"))),
+                new Investment(5.0, new Order("P4", 100000, new Customer("Customer10")))
+        ));
+    }
+}
@@ -0,0 +1,215 @@
+package algorithms;
+
+import entities.Customer;
+import entities.Investment;
+import entities.Investor;
+import entities.Order;
+import helpers.ProductDictionary;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestConcurrentAllocator {
+
+    private static final Map<String, Double> productInterest = Map.of("P1", 2.5, "P2", 3.5, "P3", 3.0, "P4", 2.0,
+            "P5", 5.0, "P6", 4.0, "P7", 4.5);
+
+    @Test
+    public void testConcurrentSubmissionsMatchSequentialAllocation() throws InterruptedException {
+        List<Order> firstComponent = new ArrayList<>();
+        List<Order> secondComponent = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            firstComponent.add(new Order(i % 3 == 0 ? "P2" : "P1", 1000 + (i * 7919) % 50000, new Customer("A" + i)));
+            secondComponent.add(new Order(i % 2 == 0 ? "P6" : "P7", 1000 + (i * 104729) % 50000, new Customer("B" + i)));
+        }
+
+        OnlineAllocator sequential = new OnlineAllocator(initialiseInvestors(), productInterest);
+        for (int i = 0; i < 200; i++) {
+            sequential.submit(firstComponent.get(i));
+            sequential.submit(secondComponent.get(i));
+        }
+
+        ConcurrentAllocator concurrent = new ConcurrentAllocator(initialiseInvestors(), productInterest);
+        Thread first = new Thread(() -> firstComponent.forEach(concurrent::submit));
+        Thread second = new Thread(() -> secondComponent.forEach(concurrent::submit));
+        first.start();
+        second.start();
+        first.join();
+        second.join();
+
+        for (Order order : firstComponent) {
+            assertEquals(nameOf(sequential.getInvestor(order)), nameOf(concurrent.getInvestor(order)));
+        }
+        for (Order order : secondComponent) {
+            assertEquals(nameOf(sequential.getInvestor(order)), nameOf(concurrent.getInvestor(order)));
+        }
+        assertEquals(sequential.getResult().getUnusedInvestments().size(),
+                concurrent.getResult().getUnusedInvestments().size());
+    }
+
+    @Test
+    public void testConcurrentSubmissionsAndWithdrawalsInOneComponentStayConsistent() throws Exception {
+        int threads = 4;
+        int ordersPerThread = 100;
+        List<List<Order>> orders = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            List<Order> threadOrders = new ArrayList<>();
+            for (int i = 0; i < ordersPerThread; i++) {
+                threadOrders.add(new Order(i % 3 == 0 ? "P2" : "P1", 1000 + ((t * ordersPerThread + i) * 7919) % 50000,
+                        new Customer("T" + t + "-" + i)));
+            }
+            orders.add(threadOrders);
+        }
+        List<Investor> investors = initialiseInvestors();
+        ConcurrentAllocator concurrent = new ConcurrentAllocator(investors, productInterest);
+
+        // Every thread submits its orders into the P1/P2 component and withdraws every second one right after
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (List<Order> threadOrders : orders) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < threadOrders.size(); i++) {
+                        concurrent.submit(threadOrders.get(i));
+                        if (i % 2 == 1) {
+                            concurrent.withdraw(threadOrders.get(i - 1));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        int p1 = ProductDictionary.getShared().indexOf("P1");
+        int p2 = ProductDictionary.getShared().indexOf("P2");
+        int funded = 0;
+        for (Investor investor : investors.subList(0, 10)) {
+            double yield = 0;
+            int heldP1 = 0;
+            int heldP2 = 0;
+            for (Investment investment : investor.getInvestments()) {
+                yield += investment.getAnnualYield();
+                if (investment.getProductIndex() == p1) heldP1++;
+                else heldP2++;
+                assertSame(investor, concurrent.getInvestor(investment.getOrder()));
+            }
+            // Every investment uses up one wish and every withdrawal gives it back
+            assertEquals(3, heldP1 + investor.getWishCount(p1));
+            assertEquals(2, heldP2 + investor.getWishCount(p2));
+            assertEquals(yield, investor.getAnnualYield(), 1e-6);
+            funded += investor.getInvestments().size();
+        }
+
+        int kept = 0;
+        for (List<Order> threadOrders : orders) {
+            for (int i = 0; i < threadOrders.size(); i++) {
+                if (i % 2 == 0) {
+                    assertNull(concurrent.getInvestor(threadOrders.get(i)));
+                } else {
+                    kept++;
+                }
+            }
+        }
+        assertEquals(kept, funded + concurrent.getResult().getUnusedInvestments().size());
+    }
+
+    @Test
+    public void testOverlappingProductsDoNotDeadlockAndStayConsistent() throws Exception {
+        // Investor i wants two neighbouring products of a ring P1-P2-...-P6-P1, so every product is linked to every
+        // other one and the threads keep locking overlapping sets of products in different combinations
+        String[] products = {"P1", "P2", "P3", "P4", "P5", "P6"};
+        List<Investor> investors = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            Investor investor = new Investor("Ring" + i);
+            for (int j = 0; j < 4; j++) {
+                investor.addWish(products[(i + j % 2) % products.length]);
+            }
+            investors.add(investor);
+        }
+        ConcurrentAllocator concurrent = new ConcurrentAllocator(investors, productInterest);
+
+        int threads = 6;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<List<Order>> kept = new ArrayList<>();
+        try {
+            List<Future<List<Order>>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    List<Order> submitted = new ArrayList<>();
+                    for (int i = 0; i < 300; i++) {
+                        Order order = new Order(products[(thread + i) % products.length],
+                                1000 + ((thread * 300 + i) * 7919) % 50000, new Customer("R" + thread + "-" + i));
+                        concurrent.submit(order);
+                        submitted.add(order);
+                        if (i % 3 == 2) {
+                            concurrent.withdraw(submitted.remove(submitted.size() - 2));
+                        }
+                    }
+                    return submitted;
+                }));
+            }
+            start.countDown();
+            for (Future<List<Order>> future : futures) {
+                kept.add(future.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int funded = 0;
+        for (Investor investor : investors) {
+            double yield = 0;
+            for (Investment investment : investor.getInvestments()) {
+                yield += investment.getAnnualYield();
+                assertSame(investor, concurrent.getInvestor(investment.getOrder()));
+            }
+            int wishes = 0;
+            for (String product : products) {
+                wishes += investor.getWishCount(ProductDictionary.getShared().indexOf(product));
+            }
+            // Every investment uses up one wish and every withdrawal gives it back
+            assertEquals(4, investor.getInvestments().size() + wishes);
+            assertEquals(yield, investor.getAnnualYield(), 1e-6);
+            funded += investor.getInvestments().size();
+        }
+        int submitted = 0;
+        for (List<Order> orders : kept) {
+            submitted += orders.size();
+        }
+        assertEquals(submitted, funded + concurrent.getResult().getUnusedInvestments().size());
+    }
+
+    private static String nameOf(Investor investor) {
+        return investor == null ? null : investor.getName();
+    }
+
+    private static List<Investor> initialiseInvestors() {
+        List<Investor> investors = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Investor investor = new Investor("Investor" + i);
+            for (int j = 0; j < 5; j++) {
+                investor.addWish(i < 10 ? (j % 2 == 0 ? "P1" : "P2") : (j % 2 == 0 ? "P6" : "P7"));
+            }
+            investors.add(investor);
+        }
+        return investors;
+    }
+}
@@ -0,0 +1,105 @@
+package algorithms;
+
+import entities.Customer;
+import entities.Investment;
+import entities.Investor;
+import entities.Order;
+import helpers.InvestorHeap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestGreedyAlgorithm {
+
+    @Test
+    public void testEveryInvestmentGoesToAnInterestedInvestor() {
+        AlgorithmResult result = new GreedyAlgorithm().run(initialiseInvestors(), initialiseInvestments());
+
+        int allocated = 0;
+        for (Investor investor : result.getInvestors()) {
+            double yield = 0;
+            for (Investment investment : investor.getInvestments()) {
+                assertTrue(isInterested(investor.getName(), investment.getProductID()));
+                yield += investment.getAnnualYield();
+            }
+            assertEquals(yield, investor.getAnnualYield(), 1e-9);
+            allocated += investor.getInvestments().size();
+        }
+        // Nobody wants P4 and only Eagle wants P5 once
+        assertEquals(2, result.getUnusedInvestments().size());
+        assertEquals(6, allocated);
+    }
+
+    @Test
+    public void testResultHeapIsOrderedByAnnualIncome() {
+        InvestorHeap investors = new GreedyAlgorithm().run(initialiseInvestors(), initialiseInvestments()).getInvestors();
+
+        double previous = Double.NEGATIVE_INFINITY;
+        while (!investors.isEmpty()) {
+            Investor investor = investors.poll();
+            assertTrue(investor.getAnnualYield() >= previous);
+            previous = investor.getAnnualYield();
+        }
+    }
+
+    @Test
+    public void testInvestorWithLowestIncomeChoosesFirst() {
+        AlgorithmResult result = new GreedyAlgorithm().run(initialiseInvestors(), initialiseInvestments());
+
+        for (Investor investor : result.getInvestors()) {
+            if (investor.getName().equals("Eagle")) {
+                // The largest investment goes to the first investor that wants P5
+                assertEquals(100000, investor.getInvestments().get(0).getOrder().getAmount());
+            }
+            if (investor.getName().equals("Vulture")) {
+                // Vulture has no income when the first P1 investment is considered
+                assertEquals(73412, investor.getInvestments().get(0).getOrder().getAmount());
+            }
+        }
+    }
+
+    private static boolean isInterested(String investor, String product) {
+        switch (investor) {
+            case "Eagle":
+                return product.equals("P1") || product.equals("P2") || product.equals("P5");
+            case "Vulture":
+                return product.equals("P1") || product.equals("P3");
+            default:
+                return product.equals("P1") || product.equals("P2") || product.equals("P3");
+        }
+    }
+
+    private static InvestorHeap initialiseInvestors() {
+        Investor eagle = new Investor("Eagle");
+        eagle.addWish("P1");
+        eagle.addWish("P2");
+        eagle.addWish("P5");
+
+        Investor vulture = new Investor("Vulture");
+        vulture.addWish("P1");
+        vulture.addWish("P3");
+
+        Investor seagull = new Investor("Seagull");
+        seagull.addWish("P1");
+        seagull.addWish("P2");
+        seagull.addWish("P3");
+
+        return new InvestorHeap(List.of(eagle, vulture, seagull));
+    }
+
+    private static List<Investment> initialiseInvestments() {
+        return new ArrayList<>(List.of(
+                new Investment(2.6, new Order("P5", 100000, new Customer("Customer1"))),
+                new Investment(2.6, new Order("P5", 20000, new Customer("Customer1"))),
+                new Investment(2.1, new Order("P3", 50000, new Customer("Customer2"))),
+                new Investment(2.5, new Order("P1", 48000, new Customer("Customer3"))),
+                new Investment(2.1, new Order("P3", 17412, new Customer("Customer4"))),
+                new Investment(2.5, new Order("P1", 73412, new Customer("Customer5"))),
+                new Investment(3.5, new Order("P2", 12345, new Customer("Customer1"))),
+                new Investment(5.0, new Order("P4", 100000, new Customer("Customer2")))
+        ));
+    }
+}
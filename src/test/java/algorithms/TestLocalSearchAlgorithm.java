@@ -0,0 +1,83 @@
+package algorithms;
+
+import entities.Customer;
+import entities.Investment;
+import entities.Investor;
+import entities.Order;
+import helpers.InvestorHeap;
+import helpers.MathOperator;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestLocalSearchAlgorithm {
+
+    @Test
+    public void testRefinementLowersTheDeviation() {
+        AlgorithmResult greedy = new GreedyAlgorithm().run(initialiseInvestors(), initialiseInvestments());
+        AlgorithmResult refined = new LocalSearchAlgorithm(new GreedyAlgorithm())
+                .run(initialiseInvestors(), initialiseInvestments());
+
+        assertTrue(deviation(refined.getInvestors()) < deviation(greedy.getInvestors()));
+        assertEquals(greedy.getUnusedInvestments().size(), refined.getUnusedInvestments().size());
+    }
+
+    @Test
+    public void testRefinementKeepsTheAllocationValid() {
+        InvestorHeap investors = initialiseInvestors();
+        Map<String, Integer> wishes = new HashMap<>();
+        for (Investor investor : investors) {
+            for (String product : investor.getWishlist()) {
+                wishes.merge(investor.getName() + product, 1, Integer::sum);
+            }
+        }
+        AlgorithmResult refined = new LocalSearchAlgorithm(new GreedyAlgorithm()).run(investors, initialiseInvestments());
+
+        for (Investor investor : refined.getInvestors()) {
+            double yield = 0;
+            for (Investment investment : investor.getInvestments()) {
+                // Every held investment uses up one of the original wishes
+                int left = wishes.merge(investor.getName() + investment.getProductID(), -1, Integer::sum);
+                assertTrue(left >= 0);
+                yield += investment.getAnnualYield();
+            }
+            assertEquals(yield, investor.getAnnualYield(), 1e-6);
+        }
+    }
+
+    private static double deviation(Collection<Investor> investors) {
+        List<Double> averages = new ArrayList<>();
+        for (Investor investor : investors) {
+            int count = investor.getInvestments().size();
+            averages.add(count == 0 ? 0 : investor.getAnnualYield() / count);
+        }
+        return MathOperator.getStandardDeviation(averages);
+    }
+
+    private static InvestorHeap initialiseInvestors() {
+        Investor eagle = new Investor("Eagle");
+        Investor vulture = new Investor("Vulture");
+        Investor seagull = new Investor("Seagull");
+        for (int i = 0; i < 3; i++) {
+            eagle.addWish("P1");
+            vulture.addWish("P1");
+            vulture.addWish("P2");
+            seagull.addWish("P2");
+        }
+        return new InvestorHeap(List.of(eagle, vulture, seagull));
+    }
+
+    private static List<Investment> initialiseInvestments() {
+        return new ArrayList<>(List.of(
+                new Investment(2.5, new Order("P1", 90000, new Customer("Customer1"))),
+                new Investment(2.5, new Order("P1", 80000, new Customer("Customer2"))),
+                new Investment(2.5, new Order("P1", 10000, new Customer("Customer3"))),
+                new Investment(2.5, new Order("P1", 5000, new Customer("Customer4"))),
+                new Investment(3.5, new Order("P2", 60000, new Customer("Customer5"))),
+                new Investment(3.5, new Order("P2", 7000, new Customer("Customer6"))),
+                new Investment(3.5, new Order("P2", 3000, new Customer("Customer7")))
+        ));
+    }
+}
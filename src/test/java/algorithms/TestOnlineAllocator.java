@@ -0,0 +1,57 @@
+package algorithms;
+
+import entities.Customer;
+import entities.Investor;
+import entities.Order;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestOnlineAllocator {
+
+    private static final Map<String, Double> productInterest = Map.of("P1", 2.5, "P2", 3.5);
+
+    @Test
+    public void testSubmitGoesToInvestorWithLowestIncome() {
+        Investor eagle = new Investor("Eagle");
+        eagle.addWish("P1");
+        eagle.addWish("P1");
+        Investor vulture = new Investor("Vulture");
+        vulture.addWish("P1");
+        OnlineAllocator allocator = new OnlineAllocator(List.of(eagle, vulture), productInterest);
+
+        assertSame(eagle, allocator.submit(new Order("P1", 50000, new Customer("Customer1"))));
+        assertSame(vulture, allocator.submit(new Order("P1", 20000, new Customer("Customer2"))));
+        assertSame(eagle, allocator.submit(new Order("P1", 10000, new Customer("Customer3"))));
+        // Every wish for P1 is used up and nobody wants P2
+        assertNull(allocator.submit(new Order("P1", 10000, new Customer("Customer4"))));
+        assertNull(allocator.submit(new Order("P2", 10000, new Customer("Customer5"))));
+        assertEquals(2, allocator.getResult().getUnusedInvestments().size());
+    }
+
+    @Test
+    public void testWithdrawReleasesTheWish() {
+        Investor eagle = new Investor("Eagle");
+        eagle.addWish("P1");
+        Investor vulture = new Investor("Vulture");
+        vulture.addWish("P1");
+        OnlineAllocator allocator = new OnlineAllocator(List.of(eagle, vulture), productInterest);
+
+        Order large = new Order("P1", 50000, new Customer("Customer1"));
+        Order small = new Order("P1", 20000, new Customer("Customer2"));
+        assertSame(eagle, allocator.submit(large));
+        assertSame(vulture, allocator.submit(small));
+
+        assertSame(eagle, allocator.withdraw(large));
+        assertEquals(0.0, eagle.getAnnualYield());
+        assertTrue(eagle.getInvestments().isEmpty());
+        assertNull(allocator.getInvestor(large));
+
+        // Eagle has the smallest income again and wants P1 again
+        assertSame(eagle, allocator.submit(new Order("P1", 30000, new Customer("Customer3"))));
+        assertThrows(IllegalArgumentException.class, () -> allocator.withdraw(large));
+    }
+}
@@ -0,0 +1,127 @@
+package algorithms;
+
+import entities.Customer;
+import entities.Investment;
+import entities.Investor;
+import entities.Order;
+import helpers.InvestorHeap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestRegretGreedyAlgorithm {
+
+    @Test
+    public void testProductsAreReKeyedAfterEachAllocation() {
+        AlgorithmResult result = new RegretGreedyAlgorithm().run(initialiseInvestors(), initialiseInvestments());
+        Map<String, Investor> investors = byName(result);
+
+        // P1 and P3 have a single investor each, so their regret is infinite and they go first. Only after both the
+        // re-keyed P2 sees Albatross with 1500 and Pelican with 2000 and goes to Albatross. The first entry of P2,
+        // calculated while both incomes were 0, is outdated by then and skipped.
+        assertEquals(2, investors.get("Albatross").getInvestments().size());
+        assertEquals(2500, investors.get("Albatross").getAnnualYield(), 1e-9);
+        assertEquals(1, investors.get("Pelican").getInvestments().size());
+        assertEquals(2000, investors.get("Pelican").getAnnualYield(), 1e-9);
+        assertTrue(result.getUnusedInvestments().isEmpty());
+    }
+
+    @Test
+    public void testRegretOrderingSpreadsIncomesMoreEvenlyThanGreedy() {
+        AlgorithmResult greedy = new GreedyAlgorithm().run(initialiseInvestors(), initialiseInvestments());
+        AlgorithmResult regret = new RegretGreedyAlgorithm().run(initialiseInvestors(), initialiseInvestments());
+
+        // The greedy algorithm takes the largest investments first and gives P2 to Pelican before it knows that
+        // Pelican is the only one who wants P3: 1500 and 3000 instead of 2500 and 2000
+        assertEquals(3000, byName(greedy).get("Pelican").getAnnualYield(), 1e-9);
+        assertEquals(750, standardDeviation(greedy), 1e-9);
+        assertEquals(250, standardDeviation(regret), 1e-9);
+    }
+
+    @Test
+    public void testWishesAreConsumed() {
+        Investor heron = new Investor("Heron");
+        heron.addWish("P1");
+        heron.addWish("P2");
+        heron.addWish("P2");
+        List<Investment> investments = new ArrayList<>(List.of(
+                new Investment(1.0, new Order("P1", 10000, new Customer("Customer1"))),
+                new Investment(1.0, new Order("P1", 20000, new Customer("Customer2"))),
+                new Investment(1.0, new Order("P2", 30000, new Customer("Customer3"))),
+                new Investment(1.0, new Order("P2", 40000, new Customer("Customer4")))
+        ));
+
+        AlgorithmResult result = new RegretGreedyAlgorithm().run(new InvestorHeap(List.of(heron)), investments);
+
+        // One wish for P1 buys the larger P1 investment only, two wishes for P2 buy both
+        assertEquals(3, heron.getInvestments().size());
+        assertEquals(0, heron.getWishCount(heron.getProductDictionary().indexOf("P1")));
+        assertEquals(0, heron.getWishCount(heron.getProductDictionary().indexOf("P2")));
+        assertEquals(0, heron.getWishedProductCount());
+        assertEquals(1, result.getUnusedInvestments().size());
+        assertEquals(10000, result.getUnusedInvestments().get(0).getOrder().getAmount());
+    }
+
+    @Test
+    public void testInvestmentsNobodyWantsStayUnfunded() {
+        List<Investment> investments = initialiseInvestments();
+        investments.add(new Investment(5.0, new Order("P4", 100000, new Customer("Customer4"))));
+        investments.add(new Investment(5.0, new Order("P4", 5000, new Customer("Customer5"))));
+
+        AlgorithmResult result = new RegretGreedyAlgorithm().run(initialiseInvestors(), investments);
+
+        assertEquals(2, result.getUnusedInvestments().size());
+        for (Investment investment : result.getUnusedInvestments()) {
+            assertEquals("P4", investment.getProductID());
+        }
+        assertEquals(3, byName(result).get("Albatross").getInvestments().size()
+                + byName(result).get("Pelican").getInvestments().size());
+    }
+
+    private static Map<String, Investor> byName(AlgorithmResult result) {
+        Map<String, Investor> investors = new HashMap<>();
+        for (Investor investor : result.getInvestors()) {
+            investors.put(investor.getName(), investor);
+        }
+        return investors;
+    }
+
+    private static double standardDeviation(AlgorithmResult result) {
+        double sum = 0;
+        double sumOfSquares = 0;
+        int count = 0;
+        for (Investor investor : result.getInvestors()) {
+            sum += investor.getAnnualYield();
+            sumOfSquares += investor.getAnnualYield() * investor.getAnnualYield();
+            count++;
+        }
+        double mean = sum / count;
+        return Math.sqrt(sumOfSquares / count - mean * mean);
+    }
+
+    private static InvestorHeap initialiseInvestors() {
+        Investor albatross = new Investor("Albatross");
+        albatross.addWish("P1");
+        albatross.addWish("P2");
+
+        Investor pelican = new Investor("Pelican");
+        pelican.addWish("P2");
+        pelican.addWish("P3");
+
+        return new InvestorHeap(List.of(albatross, pelican));
+    }
+
+    private static List<Investment> initialiseInvestments() {
+        // The annual yields are 1500 (P1), 1000 (P2) and 2000 (P3)
+        return new ArrayList<>(List.of(
+                new Investment(0.75, new Order("P1", 200000, new Customer("Customer1"))),
+                new Investment(1.0, new Order("P2", 100000, new Customer("Customer2"))),
+                new Investment(4.0, new Order("P3", 50000, new Customer("Customer3")))
+        ));
+    }
+}
@@ -0,0 +1,101 @@
+package algorithms;
+
+import entities.Customer;
+import entities.Investment;
+import entities.Investor;
+import entities.Order;
+import helpers.InvestorHeap;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestWaterFillingAlgorithm {
+
+    @Test
+    public void testLowestIncomesAreRaisedToTheSameLevel() {
+        Investor eagle = new Investor("Eagle");
+        Investor vulture = new Investor("Vulture");
+        Investor seagull = new Investor("Seagull");
+        for (Investor investor : List.of(eagle, vulture, seagull)) {
+            investor.addWish("P1");
+        }
+        // Eagle already earns 1000 a year
+        eagle.addInvestment(new Investment(2.5, new Order("P1", 40000, new Customer("Customer1"))));
+        Investment investment = new Investment(2.5, new Order("P1", 80000, new Customer("Customer2")));
+
+        AlgorithmResult result = new WaterFillingAlgorithm()
+                .run(new InvestorHeap(List.of(eagle, vulture, seagull)), new ArrayList<>(List.of(investment)));
+
+        Map<Investor, Double> fractions = result.getSplitFractions().get(investment);
+        assertEquals(2, fractions.size());
+        assertEquals(0.5, fractions.get(vulture), 1e-9);
+        assertEquals(0.5, fractions.get(seagull), 1e-9);
+        assertEquals(0.5, vulture.getFraction(investment), 1e-9);
+        for (Investor investor : result.getInvestors()) {
+            assertEquals(1000, investor.getAnnualYield(), 1e-6);
+        }
+    }
+
+    @Test
+    public void testEveryInvestmentIsFundedCompletely() {
+        Investor eagle = new Investor("Eagle");
+        Investor vulture = new Investor("Vulture");
+        Investor seagull = new Investor("Seagull");
+        eagle.addWish("P1");
+        vulture.addWish("P1");
+        vulture.addWish("P2");
+        seagull.addWish("P2");
+        List<Investment> investments = new ArrayList<>(List.of(
+                new Investment(2.5, new Order("P1", 90000, new Customer("Customer1"))),
+                new Investment(2.5, new Order("P1", 10000, new Customer("Customer2"))),
+                new Investment(3.5, new Order("P2", 60000, new Customer("Customer3"))),
+                new Investment(3.5, new Order("P2", 7000, new Customer("Customer4"))),
+                new Investment(5.0, new Order("P4", 20000, new Customer("Customer5")))
+        ));
+
+        AlgorithmResult result = new WaterFillingAlgorithm()
+                .run(new InvestorHeap(List.of(eagle, vulture, seagull)), investments);
+
+        // Nobody wants P4
+        assertEquals(1, result.getUnusedInvestments().size());
+        assertEquals(4, result.getSplitFractions().size());
+        double funded = 0;
+        for (Map.Entry<Investment, Map<Investor, Double>> entry : result.getSplitFractions().entrySet()) {
+            double total = 0;
+            for (Map.Entry<Investor, Double> part : entry.getValue().entrySet()) {
+                assertTrue(part.getKey().hasWish(entry.getKey().getProductIndex()));
+                total += part.getValue();
+            }
+            assertEquals(1, total, 1e-9);
+            funded += entry.getKey().getAnnualYield();
+        }
+        double earned = 0;
+        for (Investor investor : result.getInvestors()) {
+            earned += investor.getAnnualYield();
+        }
+        assertEquals(funded, earned, 1e-6);
+    }
+
+    @Test
+    public void testRaisedInvestorMovesInTheHeapsOfItsOtherProducts() {
+        Investor eagle = new Investor("Eagle");
+        Investor vulture = new Investor("Vulture");
+        eagle.addWish("P1");
+        eagle.addWish("P2");
+        vulture.addWish("P2");
+        Investment first = new Investment(1.0, new Order("P1", 100000, new Customer("Customer1")));
+        Investment second = new Investment(2.5, new Order("P2", 60000, new Customer("Customer2")));
+
+        AlgorithmResult result = new WaterFillingAlgorithm()
+                .run(new InvestorHeap(List.of(eagle, vulture)), new ArrayList<>(List.of(first, second)));
+
+        // Eagle earns 1000 from P1, so Vulture is raised first and both end at 1250
+        Map<Investor, Double> fractions = result.getSplitFractions().get(second);
+        assertEquals(List.of(vulture, eagle), new ArrayList<>(fractions.keySet()));
+        assertEquals(1250 / 1500.0, fractions.get(vulture), 1e-9);
+        assertEquals(1250, eagle.getAnnualYield(), 1e-6);
+        assertEquals(1250, vulture.getAnnualYield(), 1e-6);
+    }
+}
@@ -0,0 +1,149 @@
+package algorithms.genetic_algorithm_extra;
+
+import entities.Customer;
+import entities.Investment;
+import entities.Order;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestCheckpoint {
+
+    private static ProblemInstance problem;
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    public static void setUp() {
+        problem = TestProblems.tiny();
+    }
+
+    @Test
+    public void testResumedRunContinuesLikeTheOriginalRun() throws IOException {
+        Path path = directory.resolve("run.checkpoint");
+        GeneticAlgorithmSettings settings = new GeneticAlgorithmSettings()
+                .setSeed(17).setPopulationSize(8).setIslandCount(2);
+        IslandModel original = new IslandModel(problem, settings, ChromosomeType.HARD_BOUNDARY, true, null);
+        original.evolve(3);
+        original.migrate();
+        Checkpoint.write(path, original, monitor(original), 3, 1);
+        original.evolve(4);
+
+        IslandModel resumed = new IslandModel(problem, settings.setSeed(99), ChromosomeType.HARD_BOUNDARY, true, null);
+        Checkpoint checkpoint = Checkpoint.restore(path, resumed, monitor(resumed));
+        assertEquals(3, checkpoint.getGeneration());
+        assertEquals(1, checkpoint.getRestarts());
+        resumed.evolve(4);
+
+        assertArrayEquals(original.getFittestChromosomeAllocations(), resumed.getFittestChromosomeAllocations());
+        assertEquals(original.getFittestChromosomeFitness(), resumed.getFittestChromosomeFitness());
+        for (int i = 0; i < original.getIslands().length; i++) {
+            AbstractChromosome[] one = original.getIslands()[i].getPopulation().getChromosomes();
+            AbstractChromosome[] two = resumed.getIslands()[i].getPopulation().getChromosomes();
+            for (int c = 0; c < one.length; c++) {
+                assertArrayEquals(one[c].getSlots(), two[c].getSlots());
+            }
+        }
+    }
+
+    @Test
+    public void testSoftBoundaryFractionsAreRestored() throws IOException {
+        Path path = directory.resolve("soft.checkpoint");
+        GeneticAlgorithmSettings settings = new GeneticAlgorithmSettings().setSeed(5).setPopulationSize(6);
+        IslandModel original = new IslandModel(problem, settings, ChromosomeType.SOFT_BOUNDARY, true, null);
+        original.evolve(2);
+        Checkpoint.write(path, original, monitor(original), 2, 0);
+
+        IslandModel resumed = new IslandModel(problem, settings.setSeed(6), ChromosomeType.SOFT_BOUNDARY, true, null);
+        Checkpoint.restore(path, resumed, monitor(resumed));
+        AbstractChromosome[] one = original.getIslands()[0].getPopulation().getChromosomes();
+        AbstractChromosome[] two = resumed.getIslands()[0].getPopulation().getChromosomes();
+        for (int c = 0; c < one.length; c++) {
+            assertArrayEquals(((SoftBoundaryChromosome) one[c]).getFractionMatrix(),
+                    ((SoftBoundaryChromosome) two[c]).getFractionMatrix());
+            assertEquals(one[c].getFitness(), two[c].getFitness(), 1e-9);
+        }
+        assertEquals(original.getFittestChromosomeFitness(), resumed.getFittestChromosomeFitness());
+    }
+
+    @Test
+    public void testCheckpointOfOtherSettingsIsRejected() throws IOException {
+        Path path = directory.resolve("other.checkpoint");
+        IslandModel original = new IslandModel(problem, new GeneticAlgorithmSettings().setSeed(1).setPopulationSize(8),
+                ChromosomeType.HARD_BOUNDARY, true, null);
+        original.evolve(1);
+        Checkpoint.write(path, original, monitor(original), 1, 0);
+
+        IslandModel other = new IslandModel(problem, new GeneticAlgorithmSettings().setSeed(1).setPopulationSize(9),
+                ChromosomeType.HARD_BOUNDARY, true, null);
+        assertThrows(IOException.class, () -> Checkpoint.restore(path, other, monitor(other)));
+        assertNull(other.getFittestChromosome());
+    }
+
+    @Test
+    public void testCheckpointOfAnotherProblemWithTheSameSizesIsRejected() throws IOException {
+        Path path = directory.resolve("book.checkpoint");
+        GeneticAlgorithmSettings settings = new GeneticAlgorithmSettings().setSeed(1).setPopulationSize(8);
+        IslandModel original = new IslandModel(problem, settings, ChromosomeType.HARD_BOUNDARY, true, null);
+        original.evolve(1);
+        Checkpoint.write(path, original, monitor(original), 1, 0);
+
+        // The same number of investors and investments, but another order book
+        Map<Integer, Investment> investments = TestProblems.tinyInvestments();
+        investments.put(2, new Investment(4.0, new Order("P3", 50000, new Customer("Customer3"))));
+        ProblemInstance otherBook = new ProblemInstance(TestProblems.tinyInvestors(), investments);
+        IslandModel other = new IslandModel(otherBook, settings, ChromosomeType.HARD_BOUNDARY, true, null);
+        assertThrows(IOException.class, () -> Checkpoint.restore(path, other, monitor(other)));
+        assertNull(other.getFittestChromosome());
+    }
+
+    @Test
+    public void testGeneOutsideOfTheDomainIsRejected() throws IOException {
+        Path path = directory.resolve("damaged.checkpoint");
+        GeneticAlgorithmSettings settings = new GeneticAlgorithmSettings().setSeed(1).setPopulationSize(8);
+        IslandModel original = new IslandModel(problem, settings, ChromosomeType.HARD_BOUNDARY, true, null);
+        original.evolve(1);
+        Checkpoint.write(path, original, monitor(original), 1, 0);
+        // The first gene of the fittest chromosome follows the header, the seed, the flag and the fitness
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, 7), 57 + 8 + 1 + 8);
+        }
+
+        IslandModel other = new IslandModel(problem, settings, ChromosomeType.HARD_BOUNDARY, true, null);
+        int[] genes = other.getIslands()[0].getPopulation().getChromosomes()[0].getSlots();
+        assertThrows(IOException.class, () -> Checkpoint.restore(path, other, monitor(other)));
+        assertArrayEquals(genes, other.getIslands()[0].getPopulation().getChromosomes()[0].getSlots());
+    }
+
+    @Test
+    public void testImprovementWindowIsRestored() throws IOException {
+        Path path = directory.resolve("window.checkpoint");
+        GeneticAlgorithmSettings settings = new GeneticAlgorithmSettings().setSeed(2).setPopulationSize(8);
+        IslandModel original = new IslandModel(problem, settings, ChromosomeType.HARD_BOUNDARY, true, null);
+        original.evolve(1);
+        ConvergenceMonitor monitor = new ConvergenceMonitor(settings, true);
+        monitor.record(4, 12.5);
+        Checkpoint.write(path, original, monitor, 9, 0);
+
+        IslandModel resumed = new IslandModel(problem, settings, ChromosomeType.HARD_BOUNDARY, true, null);
+        ConvergenceMonitor resumedMonitor = new ConvergenceMonitor(settings, true);
+        Checkpoint.restore(path, resumed, resumedMonitor);
+        assertEquals(4, resumedMonitor.getLastImprovement());
+        assertTrue(resumedMonitor.hasBestFitness());
+        assertEquals(12.5, resumedMonitor.getBestFitness());
+    }
+
+    private static ConvergenceMonitor monitor(IslandModel model) {
+        return new ConvergenceMonitor(new GeneticAlgorithmSettings(), model.isMinimisation());
+    }
+}
@@ -0,0 +1,42 @@
+package algorithms.genetic_algorithm_extra;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestConvergenceMonitor {
+
+    @Test
+    public void testStopsWhenTheBestFitnessStopsImproving() {
+        GeneticAlgorithmSettings settings = new GeneticAlgorithmSettings()
+                .setMinGenerations(20).setMaxGenerations(1000).setStallGenerations(30);
+        ConvergenceMonitor monitor = new ConvergenceMonitor(settings, true, 0);
+        monitor.record(10, 500);
+        monitor.record(20, 400);
+        monitor.record(30, 400);
+        assertEquals(ConvergenceState.RUNNING, monitor.check(30, 1, 0));
+        // A change within the rounding noise is not an improvement
+        monitor.record(50, 400 - 1e-12);
+        assertEquals(ConvergenceState.STAGNATED, monitor.check(50, 1, 0));
+
+        monitor.restart(50);
+        assertEquals(ConvergenceState.RUNNING, monitor.check(60, 1, 0));
+        monitor.record(70, 300);
+        assertEquals(70, monitor.getLastImprovement());
+    }
+
+    @Test
+    public void testMinAndMaxGenerationsTimeBudgetAndDiversity() {
+        GeneticAlgorithmSettings settings = new GeneticAlgorithmSettings()
+                .setMinGenerations(100).setMaxGenerations(200).setStallGenerations(10)
+                .setMinDiversity(0.1).setTimeBudgetMillis(5);
+        ConvergenceMonitor monitor = new ConvergenceMonitor(settings, false, 0);
+        monitor.record(10, 5);
+        // Nothing but the time budget stops the run before minGenerations
+        assertEquals(ConvergenceState.RUNNING, monitor.check(50, 0, 0));
+        assertEquals(ConvergenceState.TIME_BUDGET, monitor.check(50, 1, 5_000_000L));
+        monitor.record(120, 6);
+        assertEquals(ConvergenceState.DIVERSITY_LOST, monitor.check(120, 0.05, 0));
+        assertEquals(ConvergenceState.MAX_GENERATIONS, monitor.check(200, 1, 0));
+    }
+}
@@ -0,0 +1,57 @@
+package algorithms.genetic_algorithm_extra;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestFeasibleGenes {
+
+    private static FitnessKernel kernel;
+    private static FeasibleGenes feasibleGenes;
+
+    @BeforeAll
+    public static void setUp() {
+        kernel = new FitnessKernel(TestProblems.smallInvestors(), TestProblems.smallInvestments());
+        feasibleGenes = new FeasibleGenes(kernel);
+    }
+
+    @Test
+    public void testRandomChromosomesAreValid() {
+        SplittableRandom random = new SplittableRandom(3);
+        for (int n = 0; n < 50; n++) {
+            HardBoundaryChromosome chromosome = new HardBoundaryChromosome(kernel);
+            feasibleGenes.fillRandom(chromosome, random);
+            chromosome.calcFitness();
+            assertTrue(chromosome.isValidChromosome());
+        }
+    }
+
+    @Test
+    public void testMutationStaysInTheDomain() {
+        SplittableRandom random = new SplittableRandom(5);
+        for (int n = 0; n < 50; n++) {
+            // Investment 2 (P3) is wanted by Vulture (1) and Seagull (2)
+            int gene = feasibleGenes.mutate(2, 1, random);
+            assertTrue(gene == 2 || gene == -1);
+        }
+        // Nobody but Eagle wants P4, so its only other value is -1
+        assertEquals(-1, feasibleGenes.mutate(5, 0, random));
+        assertEquals(0, feasibleGenes.mutate(5, -1, random));
+    }
+
+    @Test
+    public void testRepairFixesUnwantedAndOverSubscribedInvestments() {
+        // Seagull does not want P1, Eagle wants a single P4 and gets two
+        HardBoundaryChromosome chromosome = new HardBoundaryChromosome(kernel, new int[]{2, 0, 1, 0, 0, 0, 0});
+        chromosome.calcFitness();
+        assertFalse(chromosome.isValidChromosome());
+
+        assertEquals(2, feasibleGenes.repair(chromosome, new SplittableRandom(1)));
+        chromosome.calcFitness();
+        assertTrue(chromosome.isValidChromosome());
+        assertEquals(0, feasibleGenes.repair(chromosome, new SplittableRandom(1)));
+    }
+}
@@ -0,0 +1,45 @@
+package algorithms.genetic_algorithm_extra;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestFitnessCache {
+
+    @Test
+    public void testHitsNeedBothHashes() {
+        FitnessCache cache = new FitnessCache(16);
+        cache.put(42, 7, 123.5, true);
+
+        FitnessCache.Entry entry = cache.get(42, 7);
+        assertNotNull(entry);
+        assertEquals(123.5, entry.getFitness());
+        assertTrue(entry.isValid());
+        assertNull(cache.get(42, 8));
+        assertNull(cache.get(43, 7));
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testClockKeepsTheEntriesThatWereHit() {
+        FitnessCache single = new FitnessCache(1);
+        single.put(1, 1, 1, true);
+        single.put(2, 2, 2, true);
+        assertNull(single.get(1, 1));
+        assertNotNull(single.get(2, 2));
+        assertEquals(1, single.getEvictions());
+
+        // Small hashes share the first segment, which holds two entries. The entry that was hit survives the eviction.
+        FitnessCache pair = new FitnessCache(2 * 16);
+        for (long hash = 0; hash < 2; hash++) {
+            pair.put(hash, hash, hash, true);
+        }
+        assertNotNull(pair.get(0, 0));
+        pair.put(2, 2, 2, false);
+        assertNotNull(pair.get(0, 0));
+        assertNull(pair.get(1, 1));
+        assertNotNull(pair.get(2, 2));
+        assertEquals(1, pair.getEvictions());
+    }
+}
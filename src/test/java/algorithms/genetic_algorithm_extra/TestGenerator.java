@@ -0,0 +1,78 @@
+package algorithms.genetic_algorithm_extra;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestGenerator {
+
+    @Test
+    public void testDuplicateSteadyStateOffspringAreTakenFromTheCache() {
+        // Without mutation the two fittest chromosomes soon become identical, and so does every offspring they have
+        GeneticAlgorithmSettings settings = new GeneticAlgorithmSettings().setPopulationSize(10).setSeed(5)
+                .setLocalSearchSteps(1);
+        FitnessCache cache = new FitnessCache(256);
+        Generator generator = new Generator(TestProblems.small(), settings, ChromosomeType.HARD_BOUNDARY, true,
+                null, 0, cache);
+        generator.getPopulation().calculateAllFitness();
+        long lookups = cache.getHits() + cache.getMisses();
+        for (int generation = 0; generation < 50; generation++) {
+            generator.nextGeneration(0);
+        }
+        // The local search evaluates every offspring before it has running totals, so it asks the cache each time
+        assertTrue(cache.getHits() + cache.getMisses() >= lookups + 50);
+        assertTrue(cache.getHits() > 0);
+    }
+
+    @Test
+    public void testOffspringCopiedIntoThePopulationAskTheCache() {
+        GeneticAlgorithmSettings settings = new GeneticAlgorithmSettings().setPopulationSize(10).setSeed(5);
+        FitnessCache cache = new FitnessCache(256);
+        Generator generator = new Generator(TestProblems.small(), settings, ChromosomeType.HARD_BOUNDARY, true,
+                null, 0, cache);
+        generator.getPopulation().calculateAllFitness();
+        long lookups = cache.getHits() + cache.getMisses();
+        assertEquals(10, lookups);
+        for (int generation = 0; generation < 50; generation++) {
+            generator.nextGeneration(0);
+        }
+        // Without local search the offspring is evaluated for the first time in the row it is copied into. A row
+        // that differs from the offspring in many genes asks the cache, a similar one is updated by deltas.
+        assertTrue(cache.getHits() + cache.getMisses() > lookups);
+        assertTrue(cache.getHits() > 0);
+    }
+
+    @Test
+    public void testGenerationalOffspringAskTheCache() {
+        GeneticAlgorithmSettings settings = new GeneticAlgorithmSettings().setPopulationSize(10).setSeed(5)
+                .setBreedingMode(BreedingMode.GENERATIONAL).setEliteCount(2);
+        FitnessCache cache = new FitnessCache(256);
+        Generator generator = new Generator(TestProblems.small(), settings, ChromosomeType.HARD_BOUNDARY, true,
+                null, 0, cache);
+        generator.getPopulation().calculateAllFitness();
+        long lookups = cache.getHits() + cache.getMisses();
+        for (int generation = 0; generation < 20; generation++) {
+            generator.nextGeneration(0);
+        }
+        // The copied elites and the crossover offspring are new chromosomes in their rows
+        assertTrue(cache.getHits() + cache.getMisses() > lookups + 20);
+        assertTrue(cache.getHits() > 0);
+    }
+
+    @Test
+    public void testTheCacheDoesNotChangeTheRun() {
+        double[] fitness = new double[2];
+        for (int run = 0; run < 2; run++) {
+            GeneticAlgorithmSettings settings = new GeneticAlgorithmSettings().setPopulationSize(10).setSeed(5);
+            Generator generator = new Generator(TestProblems.small(), settings, ChromosomeType.HARD_BOUNDARY, true,
+                    null, 0, run == 0 ? null : new FitnessCache(256));
+            generator.getPopulation().calculateAllFitness();
+            for (int generation = 0; generation < 50; generation++) {
+                generator.nextGeneration(0.05);
+            }
+            fitness[run] = generator.getFittestChromosomeFitness();
+        }
+        // A hit gives exactly the value a calculation from scratch would give
+        assertEquals(fitness[0], fitness[1]);
+    }
+}
@@ -0,0 +1,56 @@
+package algorithms.genetic_algorithm_extra;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestGreedySeeder {
+
+    private static ProblemInstance problem;
+
+    @BeforeAll
+    public static void setUp() {
+        problem = TestProblems.small();
+    }
+
+    @Test
+    public void testGreedyGivesTheLargestInvestmentsToThePoorestInvestors() {
+        // Seagull only wants a single P2 and Eagle a single P4, so the smallest P2 investment goes to the richer Eagle
+        // and the smaller P4 investment stays unallocated
+        assertArrayEquals(new int[]{1, 2, 1, 0, 0, -1, 0}, new GreedySeeder(problem, true).getGreedyGenes());
+        // In the split model a wish is not used up
+        assertArrayEquals(new int[]{1, 2, 1, 2, 0, 0, 0}, new GreedySeeder(problem, false).getGreedyGenes());
+    }
+
+    @Test
+    public void testSeededPopulationStartsFromTheGreedyAllocation() {
+        GeneticAlgorithmSettings settings = new GeneticAlgorithmSettings()
+                .setSeed(3).setPopulationSize(10).setGreedySeedFraction(0.5);
+        Generator generator = new Generator(problem, settings, ChromosomeType.HARD_BOUNDARY, true, null);
+        AbstractChromosome[] chromosomes = generator.getPopulation().getChromosomes();
+        assertArrayEquals(new GreedySeeder(problem, true).getGreedyGenes(), chromosomes[0].getSlots());
+        for (AbstractChromosome chromosome : chromosomes) {
+            chromosome.calcFitness();
+            assertTrue(chromosome.isValidChromosome());
+        }
+    }
+
+    @Test
+    public void testLocalSearchNeverMakesTheChromosomeWorse() {
+        FeasibleGenes feasibleGenes = new FeasibleGenes(problem.getFitnessKernel());
+        HardBoundaryOperators operators = new HardBoundaryOperators(feasibleGenes);
+        SplittableRandom random = new SplittableRandom(9);
+        for (int n = 0; n < 20; n++) {
+            HardBoundaryChromosome chromosome = new HardBoundaryChromosome(problem.getFitnessKernel());
+            feasibleGenes.fillRandom(chromosome, random);
+            chromosome.calcFitness();
+            double before = chromosome.getFitness();
+            operators.improve(chromosome, 10, true, random);
+            assertTrue(chromosome.getFitness() <= before);
+            assertTrue(chromosome.isValidChromosome());
+        }
+    }
+}
@@ -9,8 +9,9 @@ import org.junit.jupiter.api.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class TestHardBoundaryChromosome {
 
@@ -38,6 +39,76 @@ public class TestHardBoundaryChromosome {
         assertEquals((int) chromosome.getFitness(), 2627);
     }
 
+    @Test
+    public void testDeltaFitnessMatchesFullCalculation() {
+        FitnessKernel kernel = new FitnessKernel(investorMap, investmentMap);
+        HardBoundaryChromosome chromosome = new HardBoundaryChromosome(kernel, slots.clone());
+        chromosome.calcFitness();
+        Random random = new Random(3);
+        for (int step = 0; step < 200; step++) {
+            chromosome.setGeneAtIndex(random.nextInt(slots.length), random.nextInt(investorMap.size() + 1) - 1);
+            chromosome.calcFitness();
+
+            HardBoundaryChromosome fresh = new HardBoundaryChromosome(kernel, chromosome.getSlots());
+            fresh.calcFitness();
+            assertEquals(fresh.getFitness(), chromosome.getFitness(), 1e-6);
+            assertEquals(fresh.isValidChromosome(), chromosome.isValidChromosome());
+        }
+    }
+
+    @Test
+    public void testValidChromosome() {
+        // Vulture gets P1 and P3, Seagull gets P2, Finch gets P5, the rest is not allocated
+        HardBoundaryChromosome chromosome = new HardBoundaryChromosome(investorMap, investmentMap,
+                new int[]{2,0,0,-1,-1,-1,1,-1,-1,-1,-1,-1,-1});
+        chromosome.calcFitness();
+        assertTrue(chromosome.isValidChromosome());
+
+        // Seagull does not want P4
+        chromosome.setGeneAtIndex(11, 1);
+        chromosome.calcFitness();
+        assertFalse(chromosome.isValidChromosome());
+    }
+
+    @Test
+    public void testViewsOfTheSameMatrixAreIndependent() {
+        FitnessKernel kernel = new FitnessKernel(investorMap, investmentMap);
+        GeneMatrix matrix = new GeneMatrix(2, slots.length);
+        HardBoundaryChromosome first = new HardBoundaryChromosome(kernel, matrix, 0);
+        HardBoundaryChromosome second = new HardBoundaryChromosome(kernel, matrix, 1);
+        for (int i = 0; i < slots.length; i++) {
+            first.setGeneAtIndex(i, slots[i]);
+            second.setGeneAtIndex(i, -1);
+        }
+        first.calcFitness();
+        second.calcFitness();
+
+        assertEquals((int) first.getFitness(), 2627);
+        assertEquals((int) matrix.getFitness(0), 2627);
+        assertEquals(0, second.getFitness());
+        assertArrayEquals(slots, first.getSlots());
+    }
+
+    @Test
+    public void testIdenticalChromosomeIsTakenFromTheCache() {
+        FitnessKernel kernel = new FitnessKernel(investorMap, investmentMap);
+        FitnessCache cache = new FitnessCache(64);
+        HardBoundaryChromosome first = new HardBoundaryChromosome(kernel, slots);
+        first.setFitnessCache(cache);
+        first.calcFitness();
+        // The genes are set one by one, so the hashes are updated incrementally
+        HardBoundaryChromosome second = new HardBoundaryChromosome(kernel);
+        second.setFitnessCache(cache);
+        for (int i = 0; i < slots.length; i++) {
+            second.setGeneAtIndex(i, slots[i]);
+        }
+        second.calcFitness();
+
+        assertEquals(1, cache.getHits());
+        assertEquals(first.getFitness(), second.getFitness());
+        assertEquals(first.isValidChromosome(), second.isValidChromosome());
+    }
+
     private static Map<Integer, Investor> initialiseInvestorMap() {
         Investor inv1 = new Investor("Eagle");
         inv1.addWish("P1");
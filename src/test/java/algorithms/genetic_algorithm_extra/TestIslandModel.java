@@ -0,0 +1,85 @@
+package algorithms.genetic_algorithm_extra;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestIslandModel {
+
+    private static ProblemInstance problem;
+
+    @BeforeAll
+    public static void setUp() {
+        problem = TestProblems.tiny();
+    }
+
+    @Test
+    public void testRingMigrationSendsTheBestChromosomeToTheNextIsland() {
+        GeneticAlgorithmSettings settings = new GeneticAlgorithmSettings()
+                .setSeed(11).setPopulationSize(10).setIslandCount(3).setMigrationTopology(MigrationTopology.RING);
+        IslandModel model = new IslandModel(problem, settings, ChromosomeType.HARD_BOUNDARY, true, null);
+        model.evolve(3);
+
+        Generator[] islands = model.getIslands();
+        int[][] best = new int[islands.length][];
+        for (int i = 0; i < islands.length; i++) {
+            best[i] = islands[i].getPopulation().getFittestChromosome().getSlots();
+        }
+        model.migrate();
+
+        for (int i = 0; i < islands.length; i++) {
+            assertTrue(contains(islands[(i + 1) % islands.length].getPopulation(), best[i]));
+        }
+    }
+
+    @Test
+    public void testBestResultComesFromTheBestIsland() {
+        GeneticAlgorithmSettings settings = new GeneticAlgorithmSettings()
+                .setSeed(5).setPopulationSize(10).setIslandCount(4)
+                .setMigrationTopology(MigrationTopology.FULLY_CONNECTED);
+        IslandModel model = new IslandModel(problem, settings, ChromosomeType.HARD_BOUNDARY, true, null);
+        model.evolve(2);
+        model.migrate();
+        model.evolve(2);
+
+        for (Generator island : model.getIslands()) {
+            assertTrue(model.getFittestChromosomeFitness() <= island.getFittestChromosomeFitness());
+        }
+        assertNotNull(model.getFittestChromosomeAllocations());
+    }
+
+    @Test
+    public void testGenerationalBreedingKeepsTheElitesAndDoesNotDependOnThePool() {
+        GeneticAlgorithmSettings settings = new GeneticAlgorithmSettings()
+                .setSeed(7).setPopulationSize(12).setBreedingMode(BreedingMode.GENERATIONAL).setEliteCount(2);
+        IslandModel sequential = new IslandModel(problem, settings, ChromosomeType.HARD_BOUNDARY, true, null);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            IslandModel parallel = new IslandModel(problem, settings, ChromosomeType.HARD_BOUNDARY, true, pool);
+            Population population = sequential.getIslands()[0].getPopulation();
+            for (int generation = 0; generation < 5; generation++) {
+                double best = population.getFittestChromosome().getFitness();
+                sequential.evolve(1);
+                parallel.evolve(1);
+                assertTrue(population.getFittestChromosome().getFitness() <= best);
+            }
+            assertArrayEquals(sequential.getFittestChromosomeAllocations(), parallel.getFittestChromosomeAllocations());
+            assertEquals(sequential.getFittestChromosomeFitness(), parallel.getFittestChromosomeFitness());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static boolean contains(Population population, int[] genes) {
+        for (AbstractChromosome chromosome : population.getChromosomes()) {
+            if (Arrays.equals(chromosome.getSlots(), genes)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,36 @@
+package algorithms.genetic_algorithm_extra;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestMutationSampler {
+
+    @Test
+    public void testMutationCountMatchesTheRate() {
+        MutationSampler sampler = new MutationSampler(0.05);
+        SplittableRandom random = new SplittableRandom(9);
+        long length = 1_000_000;
+        int mutations = 0;
+        long previous = -1;
+        for (long i = sampler.next(-1, length, random); i < length; i = sampler.next(i, length, random)) {
+            assertTrue(i > previous);
+            previous = i;
+            mutations++;
+        }
+        // 50000 expected, the standard deviation is about 218
+        assertEquals(50000, mutations, 1500);
+    }
+
+    @Test
+    public void testExtremeRates() {
+        SplittableRandom random = new SplittableRandom(1);
+        assertEquals(10, new MutationSampler(0).next(-1, 10, random));
+        MutationSampler always = new MutationSampler(1);
+        assertEquals(0, always.next(-1, 10, random));
+        assertEquals(4, always.next(3, 10, random));
+        assertEquals(10, always.next(9, 10, random));
+    }
+}
@@ -0,0 +1,179 @@
+package algorithms.genetic_algorithm_extra;
+
+import entities.Customer;
+import entities.Investment;
+import entities.Investor;
+import entities.Order;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class TestPopulation {
+
+    @Test
+    public void testParallelFitnessEqualsSequentialFitness() {
+        Map<Integer, Investor> investorMap = initialiseInvestorMap();
+        Map<Integer, Investment> investmentMap = initialiseInvestmentMap();
+        Random random = new Random(7);
+        int size = 50;
+        AbstractChromosome[] sequential = new AbstractChromosome[size];
+        AbstractChromosome[] parallel = new AbstractChromosome[size];
+        for (int c = 0; c < size; c++) {
+            int[] slots = new int[investmentMap.size()];
+            for (int i = 0; i < slots.length; i++) {
+                slots[i] = random.nextInt(investorMap.size() + 1) - 1;
+            }
+            sequential[c] = new HardBoundaryChromosome(investorMap, investmentMap, slots);
+            parallel[c] = new HardBoundaryChromosome(investorMap, investmentMap, slots.clone());
+        }
+
+        new Population(size, true, sequential).calculateAllFitness();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            new Population(size, true, parallel, pool).calculateAllFitness();
+        } finally {
+            pool.shutdown();
+        }
+
+        for (int c = 0; c < size; c++) {
+            assertEquals(sequential[c].getFitness(), parallel[c].getFitness());
+        }
+    }
+
+    @Test
+    public void testRankSortsStablyByFitness() {
+        Map<Integer, Investor> investorMap = initialiseInvestorMap();
+        Map<Integer, Investment> investmentMap = initialiseInvestmentMap();
+        Random random = new Random(11);
+        // Far more chromosomes than different allocations, so many of them tie
+        int size = 101;
+        AbstractChromosome[] chromosomes = new AbstractChromosome[size];
+        for (int c = 0; c < size; c++) {
+            int[] slots = new int[investmentMap.size()];
+            for (int i = 0; i < slots.length; i++) {
+                slots[i] = random.nextInt(investorMap.size() + 1) - 1;
+            }
+            chromosomes[c] = new HardBoundaryChromosome(investorMap, investmentMap, slots);
+        }
+
+        for (boolean minimisation : new boolean[]{true, false}) {
+            Population population = new Population(size, minimisation, chromosomes);
+            population.calculateAllFitness();
+            Comparator<Integer> byFitness = Comparator.comparingDouble(i -> chromosomes[i].getFitness());
+            int[] expected = IntStream.range(0, size).boxed()
+                    .sorted(minimisation ? byFitness : byFitness.reversed()).mapToInt(Integer::intValue).toArray();
+            assertArrayEquals(expected, population.rank());
+        }
+    }
+
+    @Test
+    public void testExtremesMatchTheRanking() {
+        Map<Integer, Investor> investorMap = initialiseInvestorMap();
+        Map<Integer, Investment> investmentMap = initialiseInvestmentMap();
+        Random random = new Random(13);
+        for (int trial = 0; trial < 20; trial++) {
+            int size = 1 + random.nextInt(30);
+            AbstractChromosome[] chromosomes = new AbstractChromosome[size];
+            for (int c = 0; c < size; c++) {
+                int[] slots = new int[investmentMap.size()];
+                for (int i = 0; i < slots.length; i++) {
+                    slots[i] = random.nextInt(investorMap.size() + 1) - 1;
+                }
+                chromosomes[c] = new HardBoundaryChromosome(investorMap, investmentMap, slots);
+            }
+            for (boolean minimisation : new boolean[]{true, false}) {
+                Population population = new Population(size, minimisation, chromosomes);
+                population.calculateAllFitness();
+                int[] ranking = population.rank();
+                int[] expected = {ranking[0], ranking[Math.min(1, size - 1)], ranking[size - 1]};
+                assertArrayEquals(expected, population.selectExtremes());
+            }
+        }
+    }
+
+    @Test
+    public void testSecondFittestIsFoundWhenTheFittestComesFirst() {
+        Map<Integer, Investor> investorMap = initialiseInvestorMap();
+        Map<Integer, Investment> investmentMap = initialiseInvestmentMap();
+        AbstractChromosome[] chromosomes = {
+                new HardBoundaryChromosome(investorMap, investmentMap, new int[]{0, 2, 1, 0, 2, 1}),
+                new HardBoundaryChromosome(investorMap, investmentMap, new int[]{0, 0, 1, 1, 2, 2}),
+                new HardBoundaryChromosome(investorMap, investmentMap, new int[]{-1, -1, -1, -1, -1, -1})
+        };
+        for (AbstractChromosome chromosome : chromosomes) {
+            chromosome.calcFitness();
+        }
+        // Put the fittest first, where the old scan never moved away from it and returned it as the second as well
+        Arrays.sort(chromosomes, Comparator.comparingDouble(AbstractChromosome::getFitness));
+        assertNotEquals(chromosomes[0].getFitness(), chromosomes[1].getFitness());
+        Population population = new Population(3, true, chromosomes);
+
+        assertArrayEquals(new int[]{0, 1, 2}, population.selectExtremes());
+    }
+
+    @Test
+    public void testMatrixBackedPopulationScansTheSameValues() {
+        for (ChromosomeType type : ChromosomeType.values()) {
+            ChromosomeFactory factory = new ChromosomeFactory(TestProblems.small(), type, new SplittableRandom(3));
+            AbstractChromosome[] rows = factory.createRandomPopulation(20);
+            // The same chromosomes, each with a matrix of its own, so the population has to ask every chromosome
+            AbstractChromosome[] standalone = new AbstractChromosome[rows.length];
+            for (int c = 0; c < rows.length; c++) {
+                standalone[c] = factory.createEmptyChromosome();
+                standalone[c].copyFrom(rows[c]);
+            }
+            Population matrixBacked = new Population(rows.length, true, rows);
+            Population separate = new Population(standalone.length, true, standalone);
+            matrixBacked.calculateAllFitness();
+            separate.calculateAllFitness();
+
+            for (int c = 0; c < rows.length; c++) {
+                assertEquals(rows[c].getFitness(), matrixBacked.getFitness(c));
+                assertEquals(separate.getFitness(c), matrixBacked.getFitness(c));
+            }
+            assertArrayEquals(separate.rank(), matrixBacked.rank());
+            assertArrayEquals(separate.selectExtremes(), matrixBacked.selectExtremes());
+            assertEquals(separate.getDiversity(), matrixBacked.getDiversity());
+        }
+    }
+
+    private static Map<Integer, Investor> initialiseInvestorMap() {
+        Investor eagle = new Investor("Eagle");
+        eagle.addWish("P1");
+        eagle.addWish("P2");
+        Investor vulture = new Investor("Vulture");
+        vulture.addWish("P1");
+        vulture.addWish("P3");
+        Investor seagull = new Investor("Seagull");
+        seagull.addWish("P2");
+        seagull.addWish("P3");
+        seagull.addWish("P3");
+        Map<Integer, Investor> map = new HashMap<>();
+        map.put(0, eagle);
+        map.put(1, vulture);
+        map.put(2, seagull);
+        return map;
+    }
+
+    private static Map<Integer, Investment> initialiseInvestmentMap() {
+        Map<Integer, Investment> map = new HashMap<>();
+        map.put(0, new Investment(2.5, new Order("P1", 48000, new Customer("Customer1"))));
+        map.put(1, new Investment(3.5, new Order("P2", 12345, new Customer("Customer2"))));
+        map.put(2, new Investment(2.1, new Order("P3", 50000, new Customer("Customer3"))));
+        map.put(3, new Investment(2.5, new Order("P1", 10000, new Customer("Customer4"))));
+        map.put(4, new Investment(3.5, new Order("P2", 63000, new Customer("Customer5"))));
+        map.put(5, new Investment(2.1, new Order("P3", 17412, new Customer("Customer6"))));
+        return map;
+    }
+}
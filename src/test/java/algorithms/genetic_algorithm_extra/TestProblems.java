@@ -0,0 +1,111 @@
+package algorithms.genetic_algorithm_extra;
+
+import entities.Customer;
+import entities.Investment;
+import entities.Investor;
+import entities.Order;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The problems shared by the tests of the genetic algorithm. Every call creates new investors and investments, so a
+ * test can change them without affecting the others.
+ */
+final class TestProblems {
+
+    private TestProblems() {}
+
+    /**
+     * Get a small problem with capacities: Eagle wants three P2 investments, there are three P2 investments and two
+     * P4 investments that only Eagle wants once
+     * @return a new ProblemInstance
+     */
+    static ProblemInstance small() {
+        return new ProblemInstance(smallInvestors(), smallInvestments());
+    }
+
+    /**
+     * Get the investors of the small problem
+     * @return Unique ID ---> Investor
+     */
+    static Map<Integer, Investor> smallInvestors() {
+        Investor eagle = new Investor("Eagle");
+        eagle.addWish("P1");
+        eagle.addWish("P2");
+        eagle.addWish("P2");
+        eagle.addWish("P2");
+        eagle.addWish("P4");
+        Investor vulture = new Investor("Vulture");
+        vulture.addWish("P1");
+        vulture.addWish("P3");
+        Investor seagull = new Investor("Seagull");
+        seagull.addWish("P2");
+        seagull.addWish("P3");
+        Map<Integer, Investor> map = new HashMap<>();
+        map.put(0, eagle);
+        map.put(1, vulture);
+        map.put(2, seagull);
+        return map;
+    }
+
+    /**
+     * Get the investments of the small problem
+     * @return Unique ID ---> Investment
+     */
+    static Map<Integer, Investment> smallInvestments() {
+        Map<Integer, Investment> map = new HashMap<>();
+        map.put(0, new Investment(2.5, new Order("P1", 48000, new Customer("Customer1"))));
+        map.put(1, new Investment(3.5, new Order("P2", 12345, new Customer("Customer2"))));
+        map.put(2, new Investment(2.1, new Order("P3", 50000, new Customer("Customer3"))));
+        map.put(3, new Investment(2.5, new Order("P2", 10000, new Customer("Customer4"))));
+        map.put(4, new Investment(3.5, new Order("P2", 63000, new Customer("Customer5"))));
+        map.put(5, new Investment(3.0, new Order("P4", 20000, new Customer("Customer6"))));
+        map.put(6, new Investment(3.0, new Order("P4", 30000, new Customer("Customer7"))));
+        return map;
+    }
+
+    /**
+     * Get a tiny problem without capacities: every investor wants two products once, every product has two
+     * investments
+     * @return a new ProblemInstance
+     */
+    static ProblemInstance tiny() {
+        return new ProblemInstance(tinyInvestors(), tinyInvestments());
+    }
+
+    /**
+     * Get the investors of the tiny problem
+     * @return Unique ID ---> Investor
+     */
+    static Map<Integer, Investor> tinyInvestors() {
+        Investor eagle = new Investor("Eagle");
+        eagle.addWish("P1");
+        eagle.addWish("P2");
+        Investor vulture = new Investor("Vulture");
+        vulture.addWish("P1");
+        vulture.addWish("P3");
+        Investor seagull = new Investor("Seagull");
+        seagull.addWish("P2");
+        seagull.addWish("P3");
+        Map<Integer, Investor> map = new HashMap<>();
+        map.put(0, eagle);
+        map.put(1, vulture);
+        map.put(2, seagull);
+        return map;
+    }
+
+    /**
+     * Get the investments of the tiny problem
+     * @return Unique ID ---> Investment
+     */
+    static Map<Integer, Investment> tinyInvestments() {
+        Map<Integer, Investment> map = new HashMap<>();
+        map.put(0, new Investment(2.5, new Order("P1", 48000, new Customer("Customer1"))));
+        map.put(1, new Investment(3.5, new Order("P2", 12345, new Customer("Customer2"))));
+        map.put(2, new Investment(2.1, new Order("P3", 50000, new Customer("Customer3"))));
+        map.put(3, new Investment(2.5, new Order("P1", 10000, new Customer("Customer4"))));
+        map.put(4, new Investment(3.5, new Order("P2", 63000, new Customer("Customer5"))));
+        return map;
+    }
+}
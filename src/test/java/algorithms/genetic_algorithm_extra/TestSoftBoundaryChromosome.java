@@ -0,0 +1,159 @@
+package algorithms.genetic_algorithm_extra;
+
+import entities.Investment;
+import entities.Investor;
+import helpers.MathOperator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestSoftBoundaryChromosome {
+
+    private static Map<Integer, Investor> investors;
+    private static Map<Integer, Investment> investments;
+    private static FitnessKernel kernel;
+    private static SoftBoundaryOperators operators;
+
+    @BeforeAll
+    public static void setUp() {
+        investors = TestProblems.smallInvestors();
+        investments = TestProblems.smallInvestments();
+        kernel = new FitnessKernel(investors, investments);
+        operators = new SoftBoundaryOperators(kernel);
+    }
+
+    @Test
+    public void testFitnessIsTheDeviationOfTheAnnualIncomes() {
+        SoftBoundaryChromosome chromosome = new SoftBoundaryChromosome(kernel);
+        chromosome.setGeneAtIndex(0, 0);
+        chromosome.setGeneAtIndex(2, 1);
+        chromosome.setGeneAtIndex(4, 2);
+        chromosome.calcFitness();
+        double[] incomes = {
+                investments.get(0).getAnnualYield(),
+                investments.get(2).getAnnualYield(),
+                investments.get(4).getAnnualYield()
+        };
+        assertEquals(deviation(incomes), chromosome.getFitness(), 1e-9);
+        assertArrayEquals(new int[]{0, -1, 1, -1, 2, -1, -1}, chromosome.getSlots());
+    }
+
+    @Test
+    public void testRandomChromosomesSplitEveryInvestmentWithinItsDomain() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int n = 0; n < 20; n++) {
+            SoftBoundaryChromosome chromosome = new SoftBoundaryChromosome(kernel);
+            operators.fillRandom(chromosome, random);
+            assertSplitsAreValid(chromosome);
+        }
+    }
+
+    @Test
+    public void testOperatorsKeepTheSplitsValid() {
+        SplittableRandom random = new SplittableRandom(11);
+        SoftBoundaryChromosome father = new SoftBoundaryChromosome(kernel);
+        SoftBoundaryChromosome mother = new SoftBoundaryChromosome(kernel);
+        SoftBoundaryChromosome offspring = new SoftBoundaryChromosome(kernel);
+        operators.fillRandom(father, random);
+        operators.fillRandom(mother, random);
+        MutationSampler sampler = new MutationSampler(0.5);
+        for (int n = 0; n < 20; n++) {
+            operators.crossover(father, mother, offspring, random);
+            assertSplitsAreValid(offspring);
+            operators.mutate(offspring, sampler, random);
+            assertSplitsAreValid(offspring);
+            mother.copyFrom(offspring);
+        }
+    }
+
+    @Test
+    public void testLocalSearchEvensOutTheIncomes() {
+        SplittableRandom random = new SplittableRandom(13);
+        for (int n = 0; n < 20; n++) {
+            SoftBoundaryChromosome chromosome = new SoftBoundaryChromosome(kernel);
+            operators.fillRandom(chromosome, random);
+            chromosome.calcFitness();
+            double before = chromosome.getFitness();
+            operators.improve(chromosome, 10, true, random);
+            assertTrue(chromosome.getFitness() <= before + 1e-9);
+            assertSplitsAreValid(chromosome);
+            // The fitness updated in O(1) is the one calculated from scratch
+            double improved = chromosome.getFitness();
+            chromosome.markChanged();
+            chromosome.calcFitness();
+            assertEquals(chromosome.getFitness(), improved, 1e-6);
+        }
+    }
+
+    @Test
+    public void testGeneratorEvolvesSoftBoundaryChromosomes() {
+        ProblemInstance problem = new ProblemInstance(investors, investments);
+        GeneticAlgorithmSettings settings = new GeneticAlgorithmSettings().setPopulationSize(10).setSeed(3);
+        Generator generator = new Generator(problem, settings, ChromosomeType.SOFT_BOUNDARY, true, null);
+        generator.getPopulation().calculateAllFitness();
+        for (int n = 0; n < 30; n++) {
+            generator.nextGeneration(0.2);
+        }
+        SoftBoundaryChromosome fittest = (SoftBoundaryChromosome) generator.getFittestChromosome();
+        assertSplitsAreValid(fittest);
+        fittest.calcFitness();
+        assertEquals(generator.getFittestChromosomeFitness(), fittest.getFitness(), 1e-9);
+    }
+
+    /**
+     * Check that every wanted investment is fully funded by the investors that want its product
+     * @param chromosome the chromosome which to check
+     */
+    @Test
+    public void testTransfersAreRecalculatedFromScratchPeriodically() {
+        SoftBoundaryChromosome chromosome = new SoftBoundaryChromosome(kernel);
+        // Investment 1 is a P2 investment, which Eagle (0) and Seagull (2) want
+        chromosome.setGeneAtIndex(1, 0);
+        chromosome.setGeneAtIndex(2, 1);
+        chromosome.calcFitness();
+        for (int n = 0; n < 1024; n++) {
+            if (n % 2 == 0) {
+                chromosome.transfer(1, 0, 2, 0.1);
+            } else {
+                chromosome.transfer(1, 2, 0, 0.1);
+            }
+        }
+        SoftBoundaryChromosome fresh = new SoftBoundaryChromosome(kernel);
+        fresh.copyFrom(chromosome);
+        fresh.calcFitness();
+        // The 1024th transfer rebuilt the sums, so no rounding error of the earlier ones is left
+        assertEquals(fresh.getFitness(), chromosome.getFitness(), 0);
+        for (int investor = 0; investor < chromosome.getInvestorCount(); investor++) {
+            assertEquals(fresh.getIncome(investor), chromosome.getIncome(investor), 0);
+        }
+    }
+
+    private static void assertSplitsAreValid(SoftBoundaryChromosome chromosome) {
+        for (int i = 0; i < chromosome.getLength(); i++) {
+            double sum = 0;
+            for (int j = 0; j < chromosome.getInvestorCount(); j++) {
+                double fraction = chromosome.getFraction(i, j);
+                assertTrue(fraction >= 0);
+                if (fraction > 0) {
+                    assertTrue(kernel.getDomainPosition(i, j) >= 0);
+                }
+                sum += fraction;
+            }
+            assertEquals(kernel.getDomainSize(i) == 0 ? 0 : 1, sum, 1e-9);
+        }
+    }
+
+    private static double deviation(double[] values) {
+        double sum = 0;
+        double sumOfSquares = 0;
+        for (double value : values) {
+            sum += value;
+            sumOfSquares += value * value;
+        }
+        return MathOperator.getStandardDeviation(sum, sumOfSquares, values.length);
+    }
+}
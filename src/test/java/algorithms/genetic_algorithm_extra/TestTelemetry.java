@@ -0,0 +1,96 @@
+package algorithms.genetic_algorithm_extra;
+
+import algorithms.GeneticAlgorithm;
+import entities.Investor;
+import helpers.InvestorHeap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestTelemetry {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testRingBufferKeepsTheLatestMetrics() {
+        RingBufferTelemetrySink sink = new RingBufferTelemetrySink(3);
+        assertNull(sink.getLatest());
+        for (int generation = 1; generation <= 5; generation++) {
+            sink.record(metrics(generation));
+        }
+        List<GenerationMetrics> metrics = sink.getMetrics();
+        assertEquals(3, metrics.size());
+        assertEquals(3, metrics.get(0).getGeneration());
+        assertEquals(5, metrics.get(2).getGeneration());
+        assertEquals(5, sink.getLatest().getGeneration());
+        assertEquals(5, sink.getCount());
+    }
+
+    @Test
+    public void testJsonLinesSinkWritesOneObjectPerGeneration() throws IOException {
+        Path path = directory.resolve("metrics.jsonl");
+        try (JsonLinesTelemetrySink sink = new JsonLinesTelemetrySink(path)) {
+            sink.record(metrics(1));
+            sink.record(new GenerationMetrics(2, 20, 1.5, Double.NaN, 3, 0.5, 1, 10, 100, -1));
+        }
+        List<String> lines = Files.readAllLines(path);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).startsWith("{\"generation\":1,"));
+        assertTrue(lines.get(1).contains("\"meanFitness\":null"));
+        assertTrue(lines.get(1).endsWith("\"allocatedBytes\":-1}"));
+    }
+
+    @Test
+    public void testGeneticAlgorithmRecordsEveryGeneration() {
+        RingBufferTelemetrySink sink = new RingBufferTelemetrySink(100);
+        GeneticAlgorithmSettings settings = new GeneticAlgorithmSettings().setSeed(4).setPopulationSize(10)
+                .setMinGenerations(20).setMaxGenerations(20).setParallelism(1).setTelemetrySink(sink);
+        Map<Integer, Investor> investors = TestProblems.tinyInvestors();
+        new GeneticAlgorithm(ChromosomeType.HARD_BOUNDARY, true, settings)
+                .run(new InvestorHeap(investors.values()), new ArrayList<>(TestProblems.tinyInvestments().values()));
+
+        List<GenerationMetrics> metrics = sink.getMetrics();
+        assertEquals(20, metrics.size());
+        long evaluations = 0;
+        for (int i = 0; i < metrics.size(); i++) {
+            GenerationMetrics generation = metrics.get(i);
+            assertEquals(i + 1, generation.getGeneration());
+            assertTrue(generation.getBestFitness() <= generation.getMeanFitness() + 1e-9);
+            assertTrue(generation.getMeanFitness() <= generation.getWorstFitness() + 1e-9);
+            // The GA only searches feasible allocations
+            assertEquals(1, generation.getValidRatio());
+            evaluations += generation.getEvaluations();
+        }
+        assertTrue(evaluations > 0);
+    }
+
+    @Test
+    public void testOnlyRealCalculationsAreCounted() {
+        FitnessKernel kernel = new FitnessKernel(TestProblems.tinyInvestors(), TestProblems.tinyInvestments());
+        SoftBoundaryChromosome chromosome = new SoftBoundaryChromosome(kernel);
+        chromosome.setGeneAtIndex(0, 0);
+        chromosome.calcFitness();
+        chromosome.calcFitness();
+        assertEquals(1, kernel.getEvaluationCount());
+
+        // A transfer of the local search is an evaluation of a new allocation
+        chromosome.transfer(0, 0, 1, 0.5);
+        assertEquals(2, kernel.getEvaluationCount());
+        chromosome.setGeneAtIndex(1, 2);
+        chromosome.calcFitness();
+        assertEquals(3, kernel.getEvaluationCount());
+    }
+
+    private static GenerationMetrics metrics(int generation) {
+        return new GenerationMetrics(generation, 10L * generation, 1, 2, 3, 0.5, 1, 100, 1000, 2048);
+    }
+}
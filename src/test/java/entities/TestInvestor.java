@@ -0,0 +1,120 @@
+package entities;
+
+import helpers.ProductDictionary;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestInvestor {
+
+    @Test
+    public void testWishesAreCountedPerProduct() {
+        ProductDictionary dictionary = new ProductDictionary();
+        Investor investor = new Investor("Eagle", dictionary);
+        investor.addWish("A");
+        investor.addWish("A");
+        investor.addWish("B");
+        int a = dictionary.indexOf("A");
+        int b = dictionary.indexOf("B");
+
+        assertSame(dictionary, investor.getProductDictionary());
+        assertEquals(2, investor.getWishCount(a));
+        assertEquals(1, investor.getWishCount(b));
+        assertTrue(investor.hasWish(a));
+        assertEquals(2, investor.getWishedProductCount());
+        assertEquals(List.of("A", "A", "B"), investor.getWishlist());
+    }
+
+    @Test
+    public void testRemovingTheLastWishForgetsTheProduct() {
+        ProductDictionary dictionary = new ProductDictionary();
+        Investor investor = new Investor("Vulture", dictionary);
+        investor.addWish("A");
+        investor.addWish("A");
+        investor.addWish("B");
+        int a = dictionary.indexOf("A");
+        int b = dictionary.indexOf("B");
+
+        assertTrue(investor.removeWish(a));
+        assertEquals(1, investor.getWishCount(a));
+        assertEquals(2, investor.getWishedProductCount());
+        investor.removeWish("A");
+        assertFalse(investor.hasWish(a));
+        assertFalse(investor.removeWish(a));
+        assertEquals(1, investor.getWishedProductCount());
+        assertEquals(b, investor.getWishedProduct(0));
+    }
+
+    @Test
+    public void testWishesAreStoredSparselyInProductOrder() {
+        ProductDictionary dictionary = new ProductDictionary();
+        for (int i = 0; i < 1000; i++) {
+            dictionary.intern("P" + i);
+        }
+        Investor investor = new Investor("Seagull", dictionary);
+        // Only the wished products are stored, whatever the size of the dictionary, and they are kept sorted
+        investor.addWish(900);
+        investor.addWish(7);
+        investor.addWish(450);
+        investor.addWish(7);
+        investor.addWish(3);
+        investor.addWish(620);
+
+        assertEquals(5, investor.getWishedProductCount());
+        int[] expected = {3, 7, 450, 620, 900};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], investor.getWishedProduct(i));
+        }
+        assertEquals(2, investor.getWishCount(7));
+        assertEquals(0, investor.getWishCount(8));
+        assertFalse(investor.removeWish(100000));
+
+        assertTrue(investor.removeWish(450));
+        assertEquals(620, investor.getWishedProduct(2));
+        assertEquals(1, investor.getWishCount(620));
+        assertEquals(4, investor.getWishedProductCount());
+    }
+
+    @Test
+    public void testInvestmentsAreRemovedFromAnyPosition() {
+        Investor investor = new Investor("Kestrel");
+        List<Investment> held = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Investment investment = new Investment(1.0, new Order("P1", 1000 * (i + 1), new Customer("Customer" + i)));
+            held.add(investment);
+            investor.addInvestment(investment, i == 2 ? 0.5 : 1);
+        }
+        Investment stranger = new Investment(1.0, new Order("P1", 7000, new Customer("Stranger")));
+
+        // The last investment moves into the place of the removed one
+        assertTrue(investor.removeInvestment(held.get(1)));
+        assertEquals(List.of(held.get(0), held.get(4), held.get(2), held.get(3)), investor.getInvestments());
+        assertTrue(investor.removeInvestment(held.get(3)));
+        assertTrue(investor.removeInvestment(held.get(2)));
+        assertFalse(investor.removeInvestment(held.get(2)));
+        assertFalse(investor.removeInvestment(stranger));
+        assertEquals(List.of(held.get(0), held.get(4)), investor.getInvestments());
+        assertEquals((1000 + 5000) / 100.0, investor.getAnnualYield(), 1e-9);
+        assertEquals(1, investor.getFraction(held.get(2)));
+
+        // A removed investment can be added again
+        investor.addInvestment(held.get(1));
+        assertTrue(investor.removeInvestment(held.get(0)));
+        assertEquals(List.of(held.get(1), held.get(4)), investor.getInvestments());
+        assertEquals((2000 + 5000) / 100.0, investor.getAnnualYield(), 1e-9);
+        assertThrows(UnsupportedOperationException.class, () -> investor.getInvestments().clear());
+    }
+
+    @Test
+    public void testUnknownProductIDIsIgnoredWhenRemoving() {
+        ProductDictionary dictionary = new ProductDictionary();
+        Investor investor = new Investor("Heron", dictionary);
+        investor.addWish("A");
+        investor.removeWish("Unknown");
+        assertEquals(1, investor.getWishedProductCount());
+        assertEquals(-1, dictionary.indexOf("Unknown"));
+    }
+}
@@ -0,0 +1,48 @@
+package helpers;
+
+import entities.Customer;
+import entities.Investment;
+import entities.Order;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TestInvestmentSorter {
+
+    @Test
+    public void testSameOrderAsCompareTo() {
+        Random random = new Random(42);
+        double[] rates = {2.1, 2.5, 2.6, 3.5, 5.0};
+        List<Investment> investments = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            // Few different amounts, so that there are many ties on the amount and on both keys
+            double amount = 1000 * (1 + random.nextInt(100)) + (random.nextBoolean() ? 0.5 : 0);
+            investments.add(new Investment(rates[random.nextInt(rates.length)], new Order("P1", amount, new Customer("C" + i))));
+        }
+        List<Investment> expected = new ArrayList<>(investments);
+        Collections.sort(expected);
+
+        InvestmentSorter.sort(investments);
+
+        // Identity comparison also checks that ties keep their original order
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(System.identityHashCode(expected.get(i)), System.identityHashCode(investments.get(i)));
+        }
+    }
+
+    @Test
+    public void testSmallListsAreSorted() {
+        List<Investment> investments = new LinkedList<>(List.of(
+                new Investment(2.5, new Order("P1", 10000, new Customer("Customer1"))),
+                new Investment(2.5, new Order("P1", 73412, new Customer("Customer2"))),
+                new Investment(3.5, new Order("P2", 10000, new Customer("Customer3")))
+        ));
+        InvestmentSorter.sort(investments);
+
+        assertEquals("Customer2", investments.get(0).getOrder().getOwner().getName());
+        assertEquals("Customer3", investments.get(1).getOrder().getOwner().getName());
+        assertEquals("Customer1", investments.get(2).getOrder().getOwner().getName());
+    }
+}
@@ -37,4 +37,12 @@ public class TestMathOperator {
         double deviation = MathOperator.getStandardDeviation(numbers);
         assertEquals(3.5, Double.parseDouble(new DecimalFormat("#.#").format(deviation)));
     }
+
+    @Test
+    public void testGetStandardDeviationFromRunningTotals() {
+        // 5, 9, 6, 6 ---> sum 26, sum of squares 178
+        double deviation = MathOperator.getStandardDeviation(26.0, 178.0, 4);
+        assertEquals(1.5, deviation);
+        assertEquals(0.0, MathOperator.getStandardDeviation(0.0, 0.0, 0));
+    }
 }
@@ -0,0 +1,125 @@
+package helpers;
+
+import entities.Customer;
+import entities.Investment;
+import entities.Investor;
+import entities.Order;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestProductDictionary {
+
+    @Test
+    public void testInternGivesTheSameIndexEveryTime() {
+        ProductDictionary dictionary = new ProductDictionary();
+        int index = dictionary.intern("P1");
+        assertEquals(0, index);
+        assertEquals(index, dictionary.intern("P1"));
+        assertEquals(index, dictionary.indexOf("P1"));
+        assertEquals("P1", dictionary.getProductID(index));
+        assertEquals(1, dictionary.size());
+    }
+
+    @Test
+    public void testIndexOfDoesNotIntern() {
+        ProductDictionary dictionary = new ProductDictionary();
+        assertEquals(-1, dictionary.indexOf("P1"));
+        assertEquals(0, dictionary.size());
+    }
+
+    @Test
+    public void testUnknownIndexIsRejected() {
+        ProductDictionary dictionary = new ProductDictionary();
+        dictionary.intern("P1");
+        assertThrows(IllegalArgumentException.class, () -> dictionary.getProductID(-1));
+        assertThrows(IllegalArgumentException.class, () -> dictionary.getProductID(1));
+    }
+
+    @Test
+    public void testDictionariesAreIndependent() {
+        ProductDictionary first = new ProductDictionary();
+        ProductDictionary second = new ProductDictionary();
+        first.intern("P1");
+        first.intern("P2");
+
+        // A second load starts at index 0 again, whatever the first one holds
+        assertEquals(0, second.intern("P2"));
+        assertEquals(1, first.indexOf("P2"));
+        assertEquals(-1, second.indexOf("P1"));
+        assertEquals(1, second.size());
+    }
+
+    @Test
+    public void testNewProductsGetTheNextIndicesWhileTheArrayGrows() {
+        ProductDictionary dictionary = new ProductDictionary();
+        // Far more than the initial capacity of 16
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, dictionary.intern("P" + i));
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals("P" + i, dictionary.getProductID(i));
+        }
+        assertEquals(100, dictionary.size());
+    }
+
+    @Test
+    public void testProductsAreCountedFromTheInputOnly() {
+        ProductDictionary dictionary = new ProductDictionary();
+        for (int i = 0; i < 10; i++) {
+            dictionary.intern("P" + i);
+        }
+        Investor investor = new Investor("Eagle", dictionary);
+        investor.addWish("P2");
+        Investment investment = new Investment(1.0, new Order("P4", 1000, new Customer("Customer1"), dictionary));
+
+        // The other products of the dictionary do not make the per-product arrays of the algorithms larger
+        assertEquals(3, ProductDictionary.countProducts(List.of(investor), List.of()));
+        assertEquals(5, ProductDictionary.countProducts(List.of(investor), List.of(investment)));
+        assertEquals(0, ProductDictionary.countProducts(List.of(), List.of()));
+    }
+
+    @Test
+    public void testConcurrentInterningGivesEveryProductOneIndex() throws Exception {
+        ProductDictionary dictionary = new ProductDictionary();
+        int products = 1000;
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<int[]>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                futures.add(executor.submit(() -> {
+                    int[] indices = new int[products];
+                    // Every thread starts at a different product, so the threads race for the same new IDs
+                    for (int i = 0; i < products; i++) {
+                        int product = (i + offset * 97) % products;
+                        indices[product] = dictionary.intern("P" + product);
+                    }
+                    return indices;
+                }));
+            }
+            int[] expected = futures.get(0).get();
+            for (Future<int[]> future : futures) {
+                assertArrayEquals(expected, future.get());
+            }
+            Set<Integer> distinct = new HashSet<>();
+            for (int index : expected) {
+                distinct.add(index);
+                assertTrue(index >= 0 && index < products);
+            }
+            assertEquals(products, distinct.size());
+            assertEquals(products, dictionary.size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package services;
 
 import entities.Customer;
 import entities.Investor;
+import helpers.ProductDictionary;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Assertions;
@@ -24,7 +25,7 @@ public class TestCSVReader {
 
     @Test
     public void testReadInvestors() throws IOException {
-        Queue<Investor> investors = CSVReader.readInvestors(props.getProperty("investors.csv"));
+        Queue<Investor> investors = CSVReader.readInvestors(props.getProperty("investors.csv"), new ProductDictionary());
 
         // Ensure that the list is not null and contains at least one investor
         Assertions.assertNotNull(investors);
@@ -39,7 +40,7 @@ public class TestCSVReader {
 
     @Test
     public void testReadCustomers() throws IOException {
-        List<Customer> customers = CSVReader.readCustomers(props.getProperty("customers.csv"));
+        List<Customer> customers = CSVReader.readCustomers(props.getProperty("customers.csv"), new ProductDictionary());
 
         // Ensure that the list is not null and contains at least one customer
         Assertions.assertNotNull(customers);
@@ -54,7 +55,7 @@ public class TestCSVReader {
 
     @Test
     public void testReadProducts() throws IOException {
-        Map<String, Double> products = CSVReader.readProducts(props.getProperty("products.csv"));
+        Map<String, Double> products = CSVReader.readProducts(props.getProperty("products.csv"), new ProductDictionary());
 
         // Ensure that the map is not null and contains at least one product
         Assertions.assertNotNull(products);